@@ -0,0 +1,23 @@
+package com.formation.cache;
+
+/**
+ * A serialized GET-by-id response with the version of the entity it was built
+ * from, so that its ETag always matches the bytes.
+ */
+public final class CachedBody {
+    private final Long version;
+    private final byte[] json;
+
+    public CachedBody(Long version, byte[] json) {
+        this.version = version;
+        this.json = json;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+}
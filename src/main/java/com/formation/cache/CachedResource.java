@@ -0,0 +1,27 @@
+package com.formation.cache;
+
+import com.formation.models.Apprenant;
+import com.formation.models.Classe;
+import com.formation.models.Formateur;
+import com.formation.models.Formation;
+
+/**
+ * The resources whose GET-by-id responses are kept in {@link EntityResponseCache},
+ * with the entity that backs each of them.
+ */
+public enum CachedResource {
+    FORMATION(Formation.class),
+    APPRENANT(Apprenant.class),
+    FORMATEUR(Formateur.class),
+    CLASSE(Classe.class);
+
+    private final Class<?> entity;
+
+    CachedResource(Class<?> entity) {
+        this.entity = entity;
+    }
+
+    public Class<?> getEntity() {
+        return entity;
+    }
+}
@@ -0,0 +1,246 @@
+package com.formation.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.formation.dto.Versioned;
+import com.formation.dto.response.CacheRegionStats;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of the GET-by-id responses, in two tiers:
+ * <ul>
+ * <li>DTOs, filled by the {@code findById} methods of the services;</li>
+ * <li>the JSON bytes of the response body, filled by the controllers and written
+ * as is, which skips both the mapper and the ObjectMapper on a hit. They are
+ * kept with the version of the entity, so a conditional GET can be answered
+ * from the cache as well.</li>
+ * </ul>
+ * Every service write evicts the resources it changed, on both sides of an
+ * association, once when it happens and again when its transaction completes.
+ * A load that overlaps an eviction of the same resource type is returned but not
+ * stored, so a value read before a commit is never cached after it.
+ * <p>
+ * Cached DTOs are shared between requests and must be treated as read-only.
+ */
+@Component
+public class EntityResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(EntityResponseCache.class);
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Cache<Key, Object> dtos;
+    private final Cache<Key, CachedBody> bodies;
+    private final Map<CachedResource, AtomicLong> generations = new EnumMap<>(CachedResource.class);
+    private final LongAdder dtoPuts = new LongAdder();
+    private final LongAdder bodyPuts = new LongAdder();
+
+    public EntityResponseCache(ObjectMapper objectMapper,
+            @Value("${formation.response-cache.enabled:true}") boolean enabled,
+            @Value("${formation.response-cache.max-size:10000}") long maxSize,
+            @Value("${formation.response-cache.ttl:10m}") Duration ttl) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.dtos = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.bodies = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        for (CachedResource resource : CachedResource.values()) {
+            generations.put(resource, new AtomicLong());
+        }
+    }
+
+    /**
+     * Returns the cached DTO of the resource, or loads it and caches it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> dto(CachedResource resource, Long id, Function<Long, Optional<T>> loader) {
+        if (!enabled || id == null) {
+            return loader.apply(id);
+        }
+        Key key = new Key(resource, id);
+        Object cached = dtos.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of((T) cached);
+        }
+        long generation = generation(resource);
+        Optional<T> loaded = loader.apply(id);
+        loaded.ifPresent(dto -> store(dtos, key, dto, generation, dtoPuts));
+        return loaded;
+    }
+
+    /**
+     * Returns the cached JSON body of the resource, or builds it from the DTO
+     * returned by the loader, wrapped by the envelope, and caches it.
+     */
+    public <T extends Versioned> Optional<CachedBody> body(CachedResource resource, Long id,
+            Function<Long, Optional<T>> loader, Function<? super T, ?> envelope) {
+        Key key = new Key(resource, id);
+        if (enabled && id != null) {
+            CachedBody cached = bodies.getIfPresent(key);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+        long generation = generation(resource);
+        Optional<CachedBody> loaded = loader.apply(id)
+                .map(dto -> new CachedBody(dto.getVersion(), serialize(envelope.apply(dto))));
+        if (enabled && id != null) {
+            loaded.ifPresent(body -> store(bodies, key, body, generation, bodyPuts));
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the current version of the resource, from the cached body when there
+     * is one, otherwise from the loader, which should read the version column only.
+     */
+    public Optional<Long> version(CachedResource resource, Long id, Function<Long, Optional<Long>> loader) {
+        if (enabled && id != null) {
+            CachedBody cached = bodies.getIfPresent(new Key(resource, id));
+            if (cached != null && cached.getVersion() != null) {
+                return Optional.of(cached.getVersion());
+            }
+        }
+        return loader.apply(id);
+    }
+
+    public void evict(CachedResource resource, Long... ids) {
+        evict(resource, Arrays.asList(ids));
+    }
+
+    public void evict(CachedResource resource, Collection<Long> ids) {
+        List<Long> targets = new ArrayList<>(ids);
+        targets.removeIf(Objects::isNull);
+        if (targets.isEmpty()) {
+            return;
+        }
+        invalidate(resource, targets);
+        afterCompletion(() -> invalidate(resource, targets));
+    }
+
+    /**
+     * Evicts every cached response of the resource type, for writes that do not
+     * know precisely which rows they changed.
+     */
+    public void evictAll(CachedResource resource) {
+        invalidateAll(resource);
+        afterCompletion(() -> invalidateAll(resource));
+    }
+
+    public void clear() {
+        logger.info("Clearing the response cache");
+        for (CachedResource resource : CachedResource.values()) {
+            invalidateAll(resource);
+        }
+    }
+
+    public List<CacheRegionStats> statistics() {
+        List<CacheRegionStats> tiers = new ArrayList<>();
+        tiers.add(toStats("response-dto", dtos.stats(), dtoPuts.sum()));
+        tiers.add(toStats("response-json", bodies.stats(), bodyPuts.sum()));
+        return tiers;
+    }
+
+    private <V> void store(Cache<Key, V> cache, Key key, V value, long generation, LongAdder puts) {
+        if (generation(key.resource) != generation) {
+            return;
+        }
+        cache.put(key, value);
+        puts.increment();
+        // an eviction may have run between the check and the put
+        if (generation(key.resource) != generation) {
+            cache.invalidate(key);
+        }
+    }
+
+    private long generation(CachedResource resource) {
+        return generations.get(resource).get();
+    }
+
+    private void invalidate(CachedResource resource, List<Long> ids) {
+        generations.get(resource).incrementAndGet();
+        for (Long id : ids) {
+            Key key = new Key(resource, id);
+            dtos.invalidate(key);
+            bodies.invalidate(key);
+        }
+    }
+
+    private void invalidateAll(CachedResource resource) {
+        generations.get(resource).incrementAndGet();
+        dtos.asMap().keySet().removeIf(key -> key.resource == resource);
+        bodies.asMap().keySet().removeIf(key -> key.resource == resource);
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private byte[] serialize(Object payload) {
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static CacheRegionStats toStats(String tier, CacheStats stats, long puts) {
+        long requests = stats.requestCount();
+        double hitRatio = requests == 0 ? 0 : (double) stats.hitCount() / requests;
+        return new CacheRegionStats(tier, stats.hitCount(), stats.missCount(), puts, hitRatio);
+    }
+
+    private static final class Key {
+        private final CachedResource resource;
+        private final Long id;
+
+        private Key(CachedResource resource, Long id) {
+            this.resource = resource;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return resource == key.resource && id.equals(key.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * resource.hashCode() + id.hashCode();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.formation.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.Cacheable;
+import javax.persistence.EntityManager;
+import javax.persistence.Table;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Moves the version, hence the ETag, of resources whose representation changed
+ * through an association they do not own: a classe when an apprenant joins it, an
+ * apprenant when a formation enrols it, and so on. Hibernate only increments the
+ * version of the entity whose row was written.
+ * <p>
+ * The increments are collected for the whole transaction and applied just before
+ * it commits, after the last flush, with one UPDATE per resource type. Since they
+ * do not check the previous version, concurrent enrolments in the same formation
+ * do not conflict with each other.
+ * <p>
+ * The tables of the entities kept in the second-level cache are updated through
+ * JDBC: Hibernate evicts the whole region of an entity after a bulk JPQL UPDATE on
+ * it. Only the touched entries are evicted instead, once the transaction has
+ * committed.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResourceVersions {
+    private static final Logger logger = LoggerFactory.getLogger(ResourceVersions.class);
+    private static final int IN_CLAUSE_BATCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityResponseCache responseCache;
+
+    /**
+     * Marks the resources as changed: their cached responses are evicted and their
+     * version is incremented when the current transaction commits.
+     */
+    public void touch(CachedResource resource, Long... ids) {
+        touch(resource, Arrays.asList(ids));
+    }
+
+    public void touch(CachedResource resource, Collection<Long> ids) {
+        responseCache.evict(resource, ids);
+        Set<Long> pending = pending().computeIfAbsent(resource, key -> new TreeSet<>());
+        for (Long id : ids) {
+            if (id != null) {
+                pending.add(id);
+            }
+        }
+    }
+
+    private Map<CachedResource, Set<Long>> pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Les versions ne peuvent être incrémentées que dans une transaction");
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingIncrements && ((PendingIncrements) synchronization).owner == this) {
+                return ((PendingIncrements) synchronization).ids;
+            }
+        }
+        PendingIncrements increments = new PendingIncrements(this);
+        TransactionSynchronizationManager.registerSynchronization(increments);
+        return increments.ids;
+    }
+
+    private void increment(Map<CachedResource, Set<Long>> ids) {
+        if (ids.values().stream().allMatch(Set::isEmpty)) {
+            return;
+        }
+        entityManager.flush();
+        // resource types in a fixed order and ids sorted, so concurrent writers lock rows in the same order
+        for (Map.Entry<CachedResource, Set<Long>> entry : ids.entrySet()) {
+            List<Long> targets = new ArrayList<>(entry.getValue());
+            Class<?> type = entry.getKey().getEntity();
+            for (int from = 0; from < targets.size(); from += IN_CLAUSE_BATCH_SIZE) {
+                List<Long> batch = targets.subList(from, Math.min(from + IN_CLAUSE_BATCH_SIZE, targets.size()));
+                if (isCached(type)) {
+                    jdbcTemplate.update("UPDATE " + type.getAnnotation(Table.class).name()
+                            + " SET version = version + 1 WHERE id IN ("
+                            + String.join(", ", Collections.nCopies(batch.size(), "?")) + ")", batch.toArray());
+                } else {
+                    entityManager.createQuery("UPDATE " + entityManager.getMetamodel().entity(type).getName()
+                            + " e SET e.version = e.version + 1 WHERE e.id IN :ids")
+                            .setParameter("ids", batch)
+                            .executeUpdate();
+                }
+            }
+            logger.debug("Incremented the version of {} {}", targets.size(), entry.getKey());
+        }
+    }
+
+    private void evict(Map<CachedResource, Set<Long>> ids) {
+        javax.persistence.Cache cache = entityManager.getEntityManagerFactory().getCache();
+        for (Map.Entry<CachedResource, Set<Long>> entry : ids.entrySet()) {
+            Class<?> type = entry.getKey().getEntity();
+            if (isCached(type)) {
+                entry.getValue().forEach(id -> cache.evict(type, id));
+            }
+        }
+    }
+
+    private static boolean isCached(Class<?> type) {
+        return type.isAnnotationPresent(Cacheable.class);
+    }
+
+    private static final class PendingIncrements implements TransactionSynchronization {
+        private final ResourceVersions owner;
+        private final Map<CachedResource, Set<Long>> ids = new EnumMap<>(CachedResource.class);
+
+        private PendingIncrements(ResourceVersions owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            owner.increment(ids);
+        }
+
+        @Override
+        public void afterCommit() {
+            owner.evict(ids);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.formation.config;
+
+import com.formation.dataset.DatasetGenerator;
+import com.formation.dataset.DatasetSpec;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Fills the database with a generated dataset at startup (profile {@code dataset}).
+ * Runs before the application is ready, so the search indexes are built on the
+ * generated rows.
+ * <p>
+ * A database that already has rows is left as it is unless {@code reset} is set:
+ * the generated emails and numéros de salle would collide with those of the
+ * previous run. The deletion and the generation share one transaction, so a
+ * failed run leaves the database as it found it.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "formation.dataset.generate", havingValue = "true")
+public class DatasetInitializer implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(DatasetInitializer.class);
+
+    private final DatasetGenerator datasetGenerator;
+
+    @Value("${formation.dataset.reset:false}")
+    private boolean reset;
+
+    @Value("${formation.dataset.seed:42}")
+    private long seed;
+
+    @Value("${formation.dataset.apprenants:500000}")
+    private int apprenants;
+
+    @Value("${formation.dataset.formateurs:2000}")
+    private int formateurs;
+
+    @Value("${formation.dataset.formations:20000}")
+    private int formations;
+
+    @Value("${formation.dataset.classes:999}")
+    private int classes;
+
+    @Value("${formation.dataset.fill-ratio:0.7}")
+    private double fillRatio;
+
+    @Value("${formation.dataset.niveau-mix:50,35,15}")
+    private int[] niveauMix;
+
+    // empty: today
+    @Value("${formation.dataset.reference-date:}")
+    private String referenceDate;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        if (reset) {
+            logger.info("Deleting the existing classes, formateurs, apprenants and formations");
+            datasetGenerator.clear();
+        } else if (datasetGenerator.hasRows()) {
+            logger.info("Database already populated, dataset generation skipped (set formation.dataset.reset "
+                    + "to regenerate it)");
+            return;
+        }
+        datasetGenerator.generate(DatasetSpec.builder()
+                .seed(seed)
+                .apprenants(apprenants)
+                .formateurs(formateurs)
+                .formations(formations)
+                .classes(classes)
+                .fillRatio(fillRatio)
+                .niveauMix(niveauMix)
+                .referenceDate(referenceDate.isEmpty() ? LocalDate.now() : LocalDate.parse(referenceDate))
+                .build());
+    }
+}
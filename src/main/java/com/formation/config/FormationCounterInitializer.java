@@ -0,0 +1,34 @@
+package com.formation.config;
+
+import com.formation.repositories.FormationRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Recomputes Formation.inscrits from the formation_apprenant join table at startup,
+ * so rows created before the column existed (default 0) start from the real count.
+ * A one-off migration step: enable it for the first start on such a database only,
+ * since the recount scans the whole join table and would overwrite the increments of
+ * enrolments made while it runs.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "formation.inscrits.resync-on-startup", havingValue = "true")
+public class FormationCounterInitializer implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(FormationCounterInitializer.class);
+
+    private final FormationRepository formationRepository;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        int updated = formationRepository.resyncAllInscrits();
+        logger.info("Resynchronized enrolment counters of {} formations", updated);
+    }
+}
@@ -0,0 +1,63 @@
+package com.formation.config;
+
+import com.formation.models.IdSequences;
+import com.formation.utils.SequenceIdAllocator;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Moves each id sequence past the ids already present in its table. Needed once
+ * for databases created when the ids were IDENTITY columns: the sequences are
+ * then created empty and would hand out ids that are already taken. Runs before
+ * the web server accepts requests; does nothing when a sequence is already ahead.
+ * <p>
+ * Reading a sequence consumes a block of ids, so this is a one-off migration step,
+ * enabled for the first start on such a database only.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "formation.id-sequences.align-on-startup", havingValue = "true")
+public class IdSequenceAligner implements SmartInitializingSingleton {
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceAligner.class);
+    private static final Map<String, String> SEQUENCES_BY_TABLE = new LinkedHashMap<>();
+
+    static {
+        SEQUENCES_BY_TABLE.put("apprenants", IdSequences.APPRENANTS);
+        SEQUENCES_BY_TABLE.put("formateurs", IdSequences.FORMATEURS);
+        SEQUENCES_BY_TABLE.put("formations", IdSequences.FORMATIONS);
+        SEQUENCES_BY_TABLE.put("classes", IdSequences.CLASSES);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceIdAllocator sequenceIdAllocator;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        SEQUENCES_BY_TABLE.forEach(this::align);
+    }
+
+    private void align(String table, String sequence) {
+        try {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            if (maxId == null) {
+                return;
+            }
+            long next = sequenceIdAllocator.nextValue(sequence);
+            if (next <= maxId) {
+                sequenceIdAllocator.restart(sequence, maxId + 1);
+                logger.info("Sequence {} restarted at {} to skip the existing ids of {}", sequence, maxId + 1, table);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Could not align sequence {} with table {}", sequence, table, e);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.formation.config;
 
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
@@ -11,8 +14,13 @@ import springfox.documentation.service.ApiInfo;
 import springfox.documentation.service.Contact;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.stream.Collectors;
+
 @Configuration
 @EnableSwagger2
 @EnableWebMvc
@@ -28,6 +36,40 @@ public class SwaggerConfig implements WebMvcConfigurer {
                 .apiInfo(apiInfo());
     }
 
+    /**
+     * Springfox 3 only understands Ant-style handler mappings and fails at startup on
+     * the actuator's, which use path patterns: it is given the controllers' only.
+     */
+    @Bean
+    public static BeanPostProcessor springfoxHandlerProviderFilter() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof WebMvcRequestHandlerProvider) {
+                    keepAntPathMappings(bean);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void keepAntPathMappings(Object provider) {
+        try {
+            Field field = WebMvcRequestHandlerProvider.class.getDeclaredField("handlerMappings");
+            field.setAccessible(true);
+            List<RequestMappingInfoHandlerMapping> mappings =
+                    (List<RequestMappingInfoHandlerMapping>) field.get(provider);
+            List<RequestMappingInfoHandlerMapping> antPathMappings = mappings.stream()
+                    .filter(mapping -> mapping.getPatternParser() == null)
+                    .collect(Collectors.toList());
+            mappings.clear();
+            mappings.addAll(antPathMappings);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot filter the Springfox handler mappings", e);
+        }
+    }
+
     private ApiInfo apiInfo() {
         return new ApiInfoBuilder()
                 .title("Formation API Documentation")
@@ -0,0 +1,60 @@
+package com.formation.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the servlet requests, the async work (streaming exports, {@code @Async})
+ * and the scheduled jobs on virtual threads. Enabled by the {@code virtual}
+ * profile; needs a Java 21 runtime.
+ * <p>
+ * Request concurrency is then no longer bounded by a thread pool, only by the
+ * connection pool, which must be sized for the database (see
+ * application-virtual.properties).
+ */
+@Configuration
+@ConditionalOnProperty(name = "formation.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    public VirtualThreadConfig() {
+        if (!VirtualThreads.isSupported()) {
+            throw new IllegalStateException("formation.threads.virtual=true requires Java 21 or later, running on "
+                    + System.getProperty("java.version"));
+        }
+        logger.info("Requests, async tasks and scheduled jobs run on virtual threads");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadRequests() {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("http-");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("task-"));
+    }
+
+    @Bean
+    public TaskScheduler taskScheduler(@Value("${spring.task.scheduling.pool.size:1}") int poolSize) {
+        return new ConcurrentTaskScheduler(
+                Executors.newScheduledThreadPool(poolSize, VirtualThreads.factory("scheduling-")));
+    }
+}
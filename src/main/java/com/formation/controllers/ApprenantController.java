@@ -1,10 +1,25 @@
 package com.formation.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.formation.cache.CachedBody;
+import com.formation.cache.CachedResource;
+import com.formation.cache.EntityResponseCache;
 import com.formation.dto.ApprenantDTO;
 import com.formation.dto.response.ApiResponse;
+import com.formation.dto.response.CursorPage;
+import com.formation.dto.response.DeletionReport;
+import com.formation.dto.response.ImportReport;
+import com.formation.exceptions.PreconditionFailedException;
 import com.formation.exceptions.ResourceNotFoundException;
 import com.formation.models.NiveauFormation;
+import com.formation.services.interfaces.IExportService;
+import com.formation.services.interfaces.IImportService;
 import com.formation.services.interfaces.IApprenantService;
+import com.formation.utils.BulkDeletes;
+import com.formation.utils.ETags;
+import com.formation.utils.MergePatch;
+import com.formation.utils.ExportFormat;
+import com.formation.utils.ImportFormat;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -14,15 +29,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.validation.annotation.Validated;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import javax.validation.ValidationException;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/apprenants")
@@ -32,6 +56,9 @@ import java.util.List;
 public class ApprenantController {
         private static final Logger logger = LoggerFactory.getLogger(ApprenantController.class);
         private final IApprenantService apprenantService;
+        private final IExportService exportService;
+        private final IImportService importService;
+        private final EntityResponseCache responseCache;
 
         @PostMapping
         @ApiOperation(value = "Créer un nouvel apprenant", notes = "Crée un nouvel apprenant avec les informations fournies")
@@ -54,16 +81,21 @@ public class ApprenantController {
         @ApiResponses(value = {
                         @io.swagger.annotations.ApiResponse(code = 200, message = "Apprenant mis à jour avec succès", response = ApiResponse.class),
                         @io.swagger.annotations.ApiResponse(code = 404, message = "Apprenant non trouvé"),
-                        @io.swagger.annotations.ApiResponse(code = 400, message = "Données invalides")
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Données invalides"),
+                        @io.swagger.annotations.ApiResponse(code = 409, message = "Apprenant modifié par une requête concurrente"),
+                        @io.swagger.annotations.ApiResponse(code = 412, message = "L'ETag fourni ne correspond plus à la version de l'apprenant")
         })
         public ResponseEntity<ApiResponse<ApprenantDTO>> update(
                         @ApiParam(value = "ID de l'apprenant", required = true) @PathVariable @NotNull Long id,
-                        @ApiParam(value = "Nouvelles données de l'apprenant", required = true) @Valid @RequestBody ApprenantDTO apprenantDTO) {
+                        @ApiParam(value = "Nouvelles données de l'apprenant", required = true) @Valid @RequestBody ApprenantDTO apprenantDTO,
+                        @ApiParam(value = "ETag de la version modifiée") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
                 logger.info("Updating apprenant with id: {}", id);
+                Long expectedVersion = ETags.expectedVersion(ifMatch);
                 try {
-                        ApprenantDTO updated = apprenantService.update(id, apprenantDTO);
+                        ApprenantDTO updated = apprenantService.update(id, apprenantDTO, expectedVersion);
                         return ResponseEntity.ok(new ApiResponse<>(true, "Apprenant mis à jour avec succès", updated));
-                } catch (ResourceNotFoundException | ValidationException e) {
+                } catch (ResourceNotFoundException | ValidationException | PreconditionFailedException
+                                | ObjectOptimisticLockingFailureException e) {
                         throw e;
                 } catch (Exception e) {
                         logger.error("Error updating apprenant: ", e);
@@ -71,33 +103,77 @@ public class ApprenantController {
                 }
         }
 
+        @PatchMapping(value = "/{id}", consumes = { MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE })
+        @ApiOperation(value = "Modifier partiellement un apprenant", notes = "Applique un JSON Merge Patch (RFC 7396) : seuls les champs présents sont modifiés, null efface un champ. Champs acceptés : nom, prenom, email, niveau, classeId (null retire l'apprenant de sa classe)")
+        @ApiResponses(value = {
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Apprenant mis à jour avec succès", response = ApiResponse.class),
+                        @io.swagger.annotations.ApiResponse(code = 404, message = "Apprenant non trouvé"),
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Patch invalide, champ non modifiable ou données invalides"),
+                        @io.swagger.annotations.ApiResponse(code = 409, message = "Modification concurrente"),
+                        @io.swagger.annotations.ApiResponse(code = 412, message = "L'ETag fourni ne correspond plus à la version de l'apprenant")
+        })
+        public ResponseEntity<ApiResponse<ApprenantDTO>> patch(
+                        @ApiParam(value = "ID de l'apprenant", required = true) @PathVariable Long id,
+                        @ApiParam(value = "Champs à modifier", required = true) @RequestBody JsonNode patch,
+                        @ApiParam(value = "ETag de la version modifiée") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+                logger.info("Patching apprenant with id: {}", id);
+                ApprenantDTO patched = apprenantService.patch(id, patch, ETags.expectedVersion(ifMatch));
+                return ResponseEntity.ok(new ApiResponse<>(true, "Apprenant mis à jour avec succès", patched));
+        }
+
         @DeleteMapping("/{id}")
         @ApiOperation(value = "Supprimer un apprenant", notes = "Supprime un apprenant existant par son ID")
         @ApiResponses(value = {
                         @io.swagger.annotations.ApiResponse(code = 200, message = "Apprenant supprimé avec succès"),
-                        @io.swagger.annotations.ApiResponse(code = 404, message = "Apprenant non trouvé")
+                        @io.swagger.annotations.ApiResponse(code = 404, message = "Apprenant non trouvé"),
+                        @io.swagger.annotations.ApiResponse(code = 412, message = "L'ETag fourni ne correspond plus à la version de l'apprenant")
         })
         public ResponseEntity<ApiResponse<Void>> delete(
-                        @ApiParam(value = "ID de l'apprenant à supprimer", required = true) @PathVariable Long id) {
+                        @ApiParam(value = "ID de l'apprenant à supprimer", required = true) @PathVariable Long id,
+                        @ApiParam(value = "ETag de la version supprimée") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
                 logger.info("Deleting apprenant with id: {}", id);
-                apprenantService.delete(id);
+                apprenantService.delete(id, ETags.expectedVersion(ifMatch));
                 return ResponseEntity.ok(new ApiResponse<>(true, "Apprenant supprimé avec succès", null));
         }
 
+        @DeleteMapping
+        @ApiOperation(value = "Supprimer plusieurs apprenants", notes = "Supprime une liste d'apprenants en une seule transaction, avec leurs inscriptions, et retourne les IDs supprimés et ceux qui n'existent pas")
+        @ApiResponses(value = {
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Suppressions traitées"),
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Liste vide ou de plus de " + BulkDeletes.MAX_IDS + " IDs")
+        })
+        public ResponseEntity<ApiResponse<DeletionReport>> deleteAll(
+                        @ApiParam(value = "IDs des apprenants à supprimer", required = true) @RequestBody List<Long> ids) {
+                logger.info("Deleting apprenants in batch");
+                DeletionReport report = apprenantService.deleteAll(ids);
+                return ResponseEntity.ok(new ApiResponse<>(true, "Suppressions traitées", report));
+        }
+
         @GetMapping("/{id}")
         @ApiOperation(value = "Obtenir un apprenant par son ID", notes = "Récupère les détails d'un apprenant spécifique")
         @ApiResponses(value = {
                         @io.swagger.annotations.ApiResponse(code = 200, message = "Apprenant trouvé", response = ApiResponse.class),
+                        @io.swagger.annotations.ApiResponse(code = 304, message = "Apprenant inchangé depuis l'ETag fourni"),
                         @io.swagger.annotations.ApiResponse(code = 404, message = "Apprenant non trouvé")
         })
-        public ResponseEntity<ApiResponse<ApprenantDTO>> findById(
-                        @ApiParam(value = "ID de l'apprenant", required = true) @PathVariable Long id) {
+        public ResponseEntity<?> findById(
+                        @ApiParam(value = "ID de l'apprenant", required = true) @PathVariable Long id,
+                        @ApiParam(value = "ETag de la version déjà connue") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
                 logger.info("Fetching apprenant with id: {}", id);
-                return apprenantService.findById(id)
-                                .map(apprenant -> ResponseEntity
-                                                .ok(new ApiResponse<>(true, "Apprenant trouvé", apprenant)))
-                                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
-                                                .body(new ApiResponse<>(false, "Apprenant non trouvé", null)));
+                if (ifNoneMatch != null) {
+                        Optional<Long> version = responseCache.version(CachedResource.APPRENANT, id,
+                                        apprenantService::findVersion);
+                        if (version.isPresent() && ETags.matches(ifNoneMatch, version.get())) {
+                                return ETags.notModified(version.get());
+                        }
+                }
+                Optional<CachedBody> body = responseCache.body(CachedResource.APPRENANT, id, apprenantService::findById,
+                                apprenant -> new ApiResponse<>(true, "Apprenant trouvé", apprenant));
+                if (!body.isPresent()) {
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                                        .body(new ApiResponse<>(false, "Apprenant non trouvé", null));
+                }
+                return ETags.ok(body.get());
         }
 
         @GetMapping
@@ -111,6 +187,49 @@ public class ApprenantController {
                 return ResponseEntity.ok(apprenantService.findAll(pageable));
         }
 
+        @GetMapping("/cursor")
+        @ApiOperation(value = "Parcourir les apprenants par curseur", notes = "Pagination par clé (nom, id) : le champ nextCursor de la réponse permet d'obtenir la page suivante")
+        @ApiResponses(value = {
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Page d'apprenants récupérée avec succès", response = CursorPage.class),
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Curseur ou taille de page invalide")
+        })
+        public ResponseEntity<CursorPage<ApprenantDTO>> findAllByCursor(
+                        @ApiParam(value = "Terme de recherche sur le nom ou le prénom") @RequestParam(required = false) String term,
+                        @ApiParam(value = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String cursor,
+                        @ApiParam(value = "Taille de la page", defaultValue = "20") @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+                logger.info("Fetching apprenants by cursor, term: {}", term);
+                return ResponseEntity.ok(apprenantService.findAllByCursor(term, cursor, size));
+        }
+
+        @PostMapping(value = "/import", consumes = { MediaType.APPLICATION_JSON_VALUE, ImportFormat.TEXT_CSV_VALUE })
+        @ApiOperation(value = "Importer des apprenants en masse", notes = "Accepte un tableau JSON ou un fichier CSV avec ligne d'en-tête. Les emails déjà connus sont mis à jour, les lignes invalides sont listées dans le compte rendu")
+        @ApiResponses(value = {
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Import terminé, voir le compte rendu", response = ApiResponse.class),
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Corps de la requête illisible"),
+                        @io.swagger.annotations.ApiResponse(code = 415, message = "Type de contenu non supporté")
+        })
+        public ResponseEntity<ApiResponse<ImportReport>> importApprenants(HttpServletRequest request) throws IOException {
+                logger.info("Importing apprenants from {}", request.getContentType());
+                ImportReport report = importService.importApprenants(request.getInputStream(),
+                                ImportFormat.fromContentType(request.getContentType()));
+                return ResponseEntity.ok(new ApiResponse<>(true, "Import terminé", report));
+        }
+
+        @GetMapping("/export")
+        @ApiOperation(value = "Exporter tous les apprenants", notes = "Diffuse l'ensemble des apprenants au format NDJSON (un objet JSON par ligne) ou CSV, sans charger la table en mémoire")
+        @ApiResponses(value = {
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Export en cours de diffusion"),
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Format d'export invalide")
+        })
+        public ResponseEntity<StreamingResponseBody> exportApprenants(
+                        @ApiParam(value = "Format d'export", allowableValues = "NDJSON,CSV", defaultValue = "NDJSON") @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+                logger.info("Exporting apprenants as {}", format);
+                return ResponseEntity.ok()
+                                .contentType(format.getMediaType())
+                                .header(HttpHeaders.CONTENT_DISPOSITION, format.contentDisposition("apprenants"))
+                                .body(out -> exportService.exportApprenants(format, out));
+        }
+
         @GetMapping("/search")
         @ApiOperation(value = "Rechercher des apprenants", notes = "Recherche des apprenants par nom ou prénom")
         @ApiResponses(value = {
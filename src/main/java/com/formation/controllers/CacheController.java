@@ -0,0 +1,53 @@
+package com.formation.controllers;
+
+import com.formation.cache.EntityResponseCache;
+import com.formation.dto.response.ApiResponse;
+import com.formation.dto.response.CacheRegionStats;
+import com.formation.utils.ReferenceDataCache;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+@Api(tags = "Cache des données de référence")
+public class CacheController {
+    private static final Logger logger = LoggerFactory.getLogger(CacheController.class);
+    private final ReferenceDataCache referenceDataCache;
+    private final EntityResponseCache responseCache;
+
+    @GetMapping("/statistics")
+    @ApiOperation(value = "Statistiques du cache", notes = "Retourne les succès, échecs et insertions de chaque région du cache de second niveau (formateurs, classes, spécialités) et des deux niveaux du cache des réponses par ID (DTO et JSON)")
+    @ApiResponses(value = {
+            @io.swagger.annotations.ApiResponse(code = 200, message = "Statistiques récupérées avec succès")
+    })
+    public ResponseEntity<ApiResponse<List<CacheRegionStats>>> statistics() {
+        List<CacheRegionStats> statistics = new ArrayList<>(referenceDataCache.statistics());
+        statistics.addAll(responseCache.statistics());
+        return ResponseEntity.ok(new ApiResponse<>(true, "Statistiques du cache récupérées avec succès", statistics));
+    }
+
+    @DeleteMapping
+    @ApiOperation(value = "Vider le cache", notes = "Vide les régions du cache de second niveau des données de référence et le cache des réponses par ID")
+    @ApiResponses(value = {
+            @io.swagger.annotations.ApiResponse(code = 200, message = "Cache vidé avec succès")
+    })
+    public ResponseEntity<ApiResponse<Void>> evict() {
+        logger.info("Evicting reference data cache on request");
+        referenceDataCache.evictAll();
+        responseCache.clear();
+        return ResponseEntity.ok(new ApiResponse<>(true, "Cache vidé avec succès", null));
+    }
+}
@@ -0,0 +1,49 @@
+package com.formation.controllers;
+
+import com.formation.dto.FormationDTO;
+import com.formation.services.interfaces.IFormationCatalogService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/api/catalog/formations")
+@Api(tags = "Catalogue des Formations")
+@RequiredArgsConstructor
+public class CatalogController {
+        private static final Logger logger = LoggerFactory.getLogger(CatalogController.class);
+        private final IFormationCatalogService catalogService;
+
+        @GetMapping(value = "/available", produces = { MediaType.APPLICATION_NDJSON_VALUE,
+                        MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_JSON_VALUE })
+        @ApiOperation(value = "Parcourir les formations avec des places disponibles", notes = "Flux en lecture seule (une formation par ligne en application/x-ndjson), lu page par page au rythme du client")
+        @ApiResponses(value = {
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Flux des formations disponibles")
+        })
+        public Flux<FormationDTO> streamAvailable() {
+                logger.info("Streaming available formations");
+                return catalogService.streamAvailable();
+        }
+
+        @GetMapping(value = "/search", produces = { MediaType.APPLICATION_NDJSON_VALUE,
+                        MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_JSON_VALUE })
+        @ApiOperation(value = "Rechercher dans le catalogue par titre", notes = "Flux en lecture seule des formations dont le titre contient le terme, triées par date de début")
+        @ApiResponses(value = {
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Flux des formations trouvées")
+        })
+        public Flux<FormationDTO> streamByTitre(
+                        @ApiParam(value = "Titre à rechercher", required = true) @RequestParam String titre) {
+                logger.info("Streaming catalog formations with title: {}", titre);
+                return catalogService.streamByTitre(titre);
+        }
+}
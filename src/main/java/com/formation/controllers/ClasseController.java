@@ -1,8 +1,17 @@
 package com.formation.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.formation.cache.CachedResource;
+import com.formation.cache.EntityResponseCache;
 import com.formation.dto.ClasseDTO;
 import com.formation.dto.response.ApiResponse;
+import com.formation.dto.response.DeletionReport;
+import com.formation.services.interfaces.IExportService;
 import com.formation.services.interfaces.IClasseService;
+import com.formation.utils.BulkDeletes;
+import com.formation.utils.ETags;
+import com.formation.utils.MergePatch;
+import com.formation.utils.ExportFormat;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -12,15 +21,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.validation.ValidationException;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/classes")
@@ -30,6 +43,8 @@ import java.util.List;
 public class ClasseController {
         private static final Logger logger = LoggerFactory.getLogger(ClasseController.class);
         private final IClasseService classeService;
+        private final IExportService exportService;
+        private final EntityResponseCache responseCache;
 
         @PostMapping
         @ApiOperation(value = "Créer une nouvelle classe", notes = "Crée une nouvelle classe avec les informations fournies. La capacité doit être positive.")
@@ -61,39 +76,84 @@ public class ClasseController {
         @ApiResponses(value = {
                         @io.swagger.annotations.ApiResponse(code = 200, message = "Classe mise à jour avec succès"),
                         @io.swagger.annotations.ApiResponse(code = 404, message = "Classe non trouvée"),
-                        @io.swagger.annotations.ApiResponse(code = 400, message = "Données invalides")
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Données invalides"),
+                        @io.swagger.annotations.ApiResponse(code = 409, message = "Classe modifiée par une requête concurrente"),
+                        @io.swagger.annotations.ApiResponse(code = 412, message = "L'ETag fourni ne correspond plus à la version de la classe")
         })
         public ResponseEntity<ApiResponse<ClasseDTO>> update(
                         @ApiParam(value = "ID de la classe", required = true) @PathVariable @NotNull Long id,
-                        @ApiParam(value = "Nouvelles données de la classe", required = true) @Valid @RequestBody ClasseDTO classeDTO) {
+                        @ApiParam(value = "Nouvelles données de la classe", required = true) @Valid @RequestBody ClasseDTO classeDTO,
+                        @ApiParam(value = "ETag de la version modifiée") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
                 logger.info("Updating classe with id: {}", id);
                 return ResponseEntity.ok(new ApiResponse<>(true, "Classe mise à jour avec succès",
-                                classeService.update(id, classeDTO)));
+                                classeService.update(id, classeDTO, ETags.expectedVersion(ifMatch))));
+        }
+
+        @PatchMapping(value = "/{id}", consumes = { MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE })
+        @ApiOperation(value = "Modifier partiellement une classe", notes = "Applique un JSON Merge Patch (RFC 7396) : seuls les champs présents sont modifiés, null efface un champ. Champs acceptés : nom, numSalle ; les apprenants et formateurs ont leurs propres endpoints")
+        @ApiResponses(value = {
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Classe mise à jour avec succès", response = ApiResponse.class),
+                        @io.swagger.annotations.ApiResponse(code = 404, message = "Classe non trouvée"),
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Patch invalide, champ non modifiable ou données invalides"),
+                        @io.swagger.annotations.ApiResponse(code = 409, message = "Modification concurrente"),
+                        @io.swagger.annotations.ApiResponse(code = 412, message = "L'ETag fourni ne correspond plus à la version de la classe")
+        })
+        public ResponseEntity<ApiResponse<ClasseDTO>> patch(
+                        @ApiParam(value = "ID de la classe", required = true) @PathVariable Long id,
+                        @ApiParam(value = "Champs à modifier", required = true) @RequestBody JsonNode patch,
+                        @ApiParam(value = "ETag de la version modifiée") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+                logger.info("Patching classe with id: {}", id);
+                ClasseDTO patched = classeService.patch(id, patch, ETags.expectedVersion(ifMatch));
+                return ResponseEntity.ok(new ApiResponse<>(true, "Classe mise à jour avec succès", patched));
         }
 
         @DeleteMapping("/{id}")
         @ApiOperation(value = "Supprimer une classe", notes = "Supprime une classe existante par son ID")
         @ApiResponses(value = {
                         @io.swagger.annotations.ApiResponse(code = 200, message = "Classe supprimée avec succès"),
-                        @io.swagger.annotations.ApiResponse(code = 404, message = "Classe non trouvée")
+                        @io.swagger.annotations.ApiResponse(code = 404, message = "Classe non trouvée"),
+                        @io.swagger.annotations.ApiResponse(code = 412, message = "L'ETag fourni ne correspond plus à la version de la classe")
         })
         public ResponseEntity<ApiResponse<Void>> delete(
-                        @ApiParam(value = "ID de la classe à supprimer", required = true) @PathVariable Long id) {
+                        @ApiParam(value = "ID de la classe à supprimer", required = true) @PathVariable Long id,
+                        @ApiParam(value = "ETag de la version supprimée") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
                 logger.info("Deleting classe with id: {}", id);
-                classeService.delete(id);
+                classeService.delete(id, ETags.expectedVersion(ifMatch));
                 return ResponseEntity.ok(new ApiResponse<>(true, "Classe supprimée avec succès", null));
         }
 
+        @DeleteMapping
+        @ApiOperation(value = "Supprimer plusieurs classes", notes = "Supprime une liste de classes en une seule transaction, en détachant leurs apprenants et formateurs, et retourne les IDs supprimés et ceux qui n'existent pas")
+        @ApiResponses(value = {
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Suppressions traitées"),
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Liste vide ou de plus de " + BulkDeletes.MAX_IDS + " IDs")
+        })
+        public ResponseEntity<ApiResponse<DeletionReport>> deleteAll(
+                        @ApiParam(value = "IDs des classes à supprimer", required = true) @RequestBody List<Long> ids) {
+                logger.info("Deleting classes in batch");
+                DeletionReport report = classeService.deleteAll(ids);
+                return ResponseEntity.ok(new ApiResponse<>(true, "Suppressions traitées", report));
+        }
+
         @GetMapping("/{id}")
         @ApiOperation(value = "Obtenir une classe par son ID", notes = "Récupère les détails d'une classe spécifique")
         @ApiResponses(value = {
-                        @io.swagger.annotations.ApiResponse(code = 200, message = "Classe trouvée"),
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Classe trouvée", response = ApiResponse.class),
+                        @io.swagger.annotations.ApiResponse(code = 304, message = "Classe inchangée depuis l'ETag fourni"),
                         @io.swagger.annotations.ApiResponse(code = 404, message = "Classe non trouvée")
         })
-        public ResponseEntity<ApiResponse<ClasseDTO>> findById(
-                        @ApiParam(value = "ID de la classe", required = true) @PathVariable Long id) {
-                return classeService.findById(id)
-                                .map(classe -> ResponseEntity.ok(new ApiResponse<>(true, "Classe trouvée", classe)))
+        public ResponseEntity<byte[]> findById(
+                        @ApiParam(value = "ID de la classe", required = true) @PathVariable Long id,
+                        @ApiParam(value = "ETag de la version déjà connue") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+                if (ifNoneMatch != null) {
+                        Optional<Long> version = responseCache.version(CachedResource.CLASSE, id, classeService::findVersion);
+                        if (version.isPresent() && ETags.matches(ifNoneMatch, version.get())) {
+                                return ETags.notModified(version.get());
+                        }
+                }
+                return responseCache.body(CachedResource.CLASSE, id, classeService::findById,
+                                classe -> new ApiResponse<>(true, "Classe trouvée", classe))
+                                .map(ETags::ok)
                                 .orElse(ResponseEntity.notFound().build());
         }
 
@@ -108,6 +168,21 @@ public class ClasseController {
                 return ResponseEntity.ok(classeService.findAll(pageable));
         }
 
+        @GetMapping("/export")
+        @ApiOperation(value = "Exporter toutes les classes", notes = "Diffuse l'ensemble des classes au format NDJSON (un objet JSON par ligne) ou CSV, sans charger la table en mémoire")
+        @ApiResponses(value = {
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Export en cours de diffusion"),
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Format d'export invalide")
+        })
+        public ResponseEntity<StreamingResponseBody> exportClasses(
+                        @ApiParam(value = "Format d'export", allowableValues = "NDJSON,CSV", defaultValue = "NDJSON") @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+                logger.info("Exporting classes as {}", format);
+                return ResponseEntity.ok()
+                                .contentType(format.getMediaType())
+                                .header(HttpHeaders.CONTENT_DISPOSITION, format.contentDisposition("classes"))
+                                .body(out -> exportService.exportClasses(format, out));
+        }
+
         @GetMapping("/search")
         @ApiOperation(value = "Rechercher des classes par nom", notes = "Recherche des classes dont le nom contient la chaîne spécifiée")
         @ApiResponses(value = {
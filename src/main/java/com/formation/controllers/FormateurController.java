@@ -1,8 +1,21 @@
 package com.formation.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.formation.cache.CachedResource;
+import com.formation.cache.EntityResponseCache;
 import com.formation.dto.FormateurDTO;
 import com.formation.dto.response.ApiResponse;
+import com.formation.dto.response.CursorPage;
+import com.formation.dto.response.DeletionReport;
+import com.formation.dto.response.ImportReport;
+import com.formation.services.interfaces.IExportService;
+import com.formation.services.interfaces.IImportService;
 import com.formation.services.interfaces.IFormateurService;
+import com.formation.utils.BulkDeletes;
+import com.formation.utils.ETags;
+import com.formation.utils.MergePatch;
+import com.formation.utils.ExportFormat;
+import com.formation.utils.ImportFormat;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -10,16 +23,27 @@ import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.validation.annotation.Validated;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/formateurs")
@@ -29,6 +53,12 @@ import java.util.List;
 public class FormateurController {
     private static final Logger logger = LoggerFactory.getLogger(FormateurController.class);
     private final IFormateurService formateurService;
+    private final IExportService exportService;
+    private final IImportService importService;
+    private final EntityResponseCache responseCache;
+
+    @Value("${formation.http.reference-max-age:10m}")
+    private Duration referenceMaxAge;
 
     @PostMapping
     @ApiOperation(value = "Créer un nouveau formateur", notes = "Crée un nouveau formateur avec les informations fournies")
@@ -50,40 +80,85 @@ public class FormateurController {
     @ApiResponses(value = {
             @io.swagger.annotations.ApiResponse(code = 200, message = "Formateur mis à jour avec succès", response = ApiResponse.class),
             @io.swagger.annotations.ApiResponse(code = 404, message = "Formateur non trouvé"),
-            @io.swagger.annotations.ApiResponse(code = 400, message = "Données invalides")
+            @io.swagger.annotations.ApiResponse(code = 400, message = "Données invalides"),
+            @io.swagger.annotations.ApiResponse(code = 409, message = "Formateur modifié par une requête concurrente"),
+            @io.swagger.annotations.ApiResponse(code = 412, message = "L'ETag fourni ne correspond plus à la version du formateur")
     })
     public ResponseEntity<ApiResponse<FormateurDTO>> update(
             @ApiParam(value = "ID du formateur", required = true) @PathVariable @NotNull Long id,
-            @ApiParam(value = "Nouvelles données du formateur", required = true) @Valid @RequestBody FormateurDTO formateurDTO) {
+            @ApiParam(value = "Nouvelles données du formateur", required = true) @Valid @RequestBody FormateurDTO formateurDTO,
+            @ApiParam(value = "ETag de la version modifiée") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Updating formateur with id: {}", id);
         return ResponseEntity.ok(new ApiResponse<>(true, "Formateur mis à jour avec succès",
-                formateurService.update(id, formateurDTO)));
+                formateurService.update(id, formateurDTO, ETags.expectedVersion(ifMatch))));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = { MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE })
+    @ApiOperation(value = "Modifier partiellement un formateur", notes = "Applique un JSON Merge Patch (RFC 7396) : seuls les champs présents sont modifiés, null efface un champ. Champs acceptés : nom, prenom, email, specialite, classeId")
+    @ApiResponses(value = {
+            @io.swagger.annotations.ApiResponse(code = 200, message = "Formateur mis à jour avec succès", response = ApiResponse.class),
+            @io.swagger.annotations.ApiResponse(code = 404, message = "Formateur non trouvé"),
+            @io.swagger.annotations.ApiResponse(code = 400, message = "Patch invalide, champ non modifiable ou données invalides"),
+            @io.swagger.annotations.ApiResponse(code = 409, message = "Modification concurrente"),
+            @io.swagger.annotations.ApiResponse(code = 412, message = "L'ETag fourni ne correspond plus à la version du formateur")
+    })
+    public ResponseEntity<ApiResponse<FormateurDTO>> patch(
+            @ApiParam(value = "ID du formateur", required = true) @PathVariable Long id,
+            @ApiParam(value = "Champs à modifier", required = true) @RequestBody JsonNode patch,
+            @ApiParam(value = "ETag de la version modifiée") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.info("Patching formateur with id: {}", id);
+        FormateurDTO patched = formateurService.patch(id, patch, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok(new ApiResponse<>(true, "Formateur mis à jour avec succès", patched));
     }
 
     @DeleteMapping("/{id}")
     @ApiOperation(value = "Supprimer un formateur", notes = "Supprime un formateur existant par son ID")
     @ApiResponses(value = {
             @io.swagger.annotations.ApiResponse(code = 200, message = "Formateur supprimé avec succès"),
-            @io.swagger.annotations.ApiResponse(code = 404, message = "Formateur non trouvé")
+            @io.swagger.annotations.ApiResponse(code = 404, message = "Formateur non trouvé"),
+            @io.swagger.annotations.ApiResponse(code = 412, message = "L'ETag fourni ne correspond plus à la version du formateur")
     })
     public ResponseEntity<ApiResponse<Void>> delete(
-            @ApiParam(value = "ID du formateur à supprimer", required = true) @PathVariable Long id) {
+            @ApiParam(value = "ID du formateur à supprimer", required = true) @PathVariable Long id,
+            @ApiParam(value = "ETag de la version supprimée") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Deleting formateur with id: {}", id);
-        formateurService.delete(id);
+        formateurService.delete(id, ETags.expectedVersion(ifMatch));
         return ResponseEntity.ok(new ApiResponse<>(true, "Formateur supprimé avec succès", null));
     }
 
+    @DeleteMapping
+    @ApiOperation(value = "Supprimer plusieurs formateurs", notes = "Supprime une liste de formateurs en une seule transaction, en les retirant de leurs formations, et retourne les IDs supprimés et ceux qui n'existent pas")
+    @ApiResponses(value = {
+            @io.swagger.annotations.ApiResponse(code = 200, message = "Suppressions traitées"),
+            @io.swagger.annotations.ApiResponse(code = 400, message = "Liste vide ou de plus de " + BulkDeletes.MAX_IDS + " IDs")
+    })
+    public ResponseEntity<ApiResponse<DeletionReport>> deleteAll(
+            @ApiParam(value = "IDs des formateurs à supprimer", required = true) @RequestBody List<Long> ids) {
+        logger.info("Deleting formateurs in batch");
+        DeletionReport report = formateurService.deleteAll(ids);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Suppressions traitées", report));
+    }
+
     @GetMapping("/{id}")
     @ApiOperation(value = "Obtenir un formateur par son ID", notes = "Récupère les détails d'un formateur spécifique")
     @ApiResponses(value = {
             @io.swagger.annotations.ApiResponse(code = 200, message = "Formateur trouvé", response = FormateurDTO.class),
+            @io.swagger.annotations.ApiResponse(code = 304, message = "Formateur inchangé depuis l'ETag fourni"),
             @io.swagger.annotations.ApiResponse(code = 404, message = "Formateur non trouvé")
     })
-    public ResponseEntity<ApiResponse<FormateurDTO>> findById(
-            @ApiParam(value = "ID du formateur", required = true) @PathVariable Long id) {
+    public ResponseEntity<byte[]> findById(
+            @ApiParam(value = "ID du formateur", required = true) @PathVariable Long id,
+            @ApiParam(value = "ETag de la version déjà connue") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         logger.info("Fetching formateur with id: {}", id);
-        return formateurService.findById(id)
-                .map(formateur -> ResponseEntity.ok(new ApiResponse<>(true, "Formateur trouvé", formateur)))
+        if (ifNoneMatch != null) {
+            Optional<Long> version = responseCache.version(CachedResource.FORMATEUR, id, formateurService::findVersion);
+            if (version.isPresent() && ETags.matches(ifNoneMatch, version.get())) {
+                return ETags.notModified(version.get());
+            }
+        }
+        return responseCache.body(CachedResource.FORMATEUR, id, formateurService::findById,
+                formateur -> new ApiResponse<>(true, "Formateur trouvé", formateur))
+                .map(ETags::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -108,6 +183,20 @@ public class FormateurController {
         return ResponseEntity.ok(formateurService.findAll(pageable));
     }
 
+    @GetMapping("/cursor")
+    @ApiOperation(value = "Parcourir les formateurs par curseur", notes = "Pagination par clé (nom, id) : le champ nextCursor de la réponse permet d'obtenir la page suivante")
+    @ApiResponses(value = {
+            @io.swagger.annotations.ApiResponse(code = 200, message = "Page de formateurs récupérée avec succès", response = CursorPage.class),
+            @io.swagger.annotations.ApiResponse(code = 400, message = "Curseur ou taille de page invalide")
+    })
+    public ResponseEntity<CursorPage<FormateurDTO>> findAllByCursor(
+            @ApiParam(value = "Terme de recherche sur le nom ou le prénom") @RequestParam(required = false) String term,
+            @ApiParam(value = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String cursor,
+            @ApiParam(value = "Taille de la page", defaultValue = "20") @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        logger.info("Fetching formateurs by cursor, term: {}", term);
+        return ResponseEntity.ok(formateurService.findAllByCursor(term, cursor, size));
+    }
+
     @GetMapping("/email/{email}")
     @ApiOperation(value = "Obtenir un formateur par son email", notes = "Recherche un formateur spécifique par son adresse email")
     @ApiResponses(value = {
@@ -122,6 +211,19 @@ public class FormateurController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/specialites")
+    @ApiOperation(value = "Obtenir les spécialités", notes = "Liste de référence des spécialités des formateurs, mise en cache par les clients")
+    @ApiResponses(value = {
+            @io.swagger.annotations.ApiResponse(code = 200, message = "Liste des spécialités récupérée avec succès", response = List.class)
+    })
+    public ResponseEntity<ApiResponse<List<String>>> findAllSpecialites() {
+        logger.info("Fetching all specialites");
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(referenceMaxAge).cachePublic())
+                .body(new ApiResponse<>(true, "Liste des spécialités récupérée avec succès",
+                        formateurService.findAllSpecialites()));
+    }
+
     @GetMapping("/specialite/{specialite}")
     @ApiOperation(value = "Obtenir les formateurs par spécialité", notes = "Récupère la liste des formateurs ayant une spécialité spécifique")
     @ApiResponses(value = {
@@ -135,6 +237,35 @@ public class FormateurController {
             formateurService.findBySpecialite(specialite)));
     }
 
+    @PostMapping(value = "/import", consumes = { MediaType.APPLICATION_JSON_VALUE, ImportFormat.TEXT_CSV_VALUE })
+    @ApiOperation(value = "Importer des formateurs en masse", notes = "Accepte un tableau JSON ou un fichier CSV avec ligne d'en-tête. Les emails déjà connus sont mis à jour, les lignes invalides sont listées dans le compte rendu")
+    @ApiResponses(value = {
+            @io.swagger.annotations.ApiResponse(code = 200, message = "Import terminé, voir le compte rendu", response = ApiResponse.class),
+            @io.swagger.annotations.ApiResponse(code = 400, message = "Corps de la requête illisible"),
+            @io.swagger.annotations.ApiResponse(code = 415, message = "Type de contenu non supporté")
+    })
+    public ResponseEntity<ApiResponse<ImportReport>> importFormateurs(HttpServletRequest request) throws IOException {
+        logger.info("Importing formateurs from {}", request.getContentType());
+        ImportReport report = importService.importFormateurs(request.getInputStream(),
+                ImportFormat.fromContentType(request.getContentType()));
+        return ResponseEntity.ok(new ApiResponse<>(true, "Import terminé", report));
+    }
+
+    @GetMapping("/export")
+    @ApiOperation(value = "Exporter tous les formateurs", notes = "Diffuse l'ensemble des formateurs au format NDJSON (un objet JSON par ligne) ou CSV, sans charger la table en mémoire")
+    @ApiResponses(value = {
+            @io.swagger.annotations.ApiResponse(code = 200, message = "Export en cours de diffusion"),
+            @io.swagger.annotations.ApiResponse(code = 400, message = "Format d'export invalide")
+    })
+    public ResponseEntity<StreamingResponseBody> exportFormateurs(
+            @ApiParam(value = "Format d'export", allowableValues = "NDJSON,CSV", defaultValue = "NDJSON") @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        logger.info("Exporting formateurs as {}", format);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, format.contentDisposition("formateurs"))
+                .body(out -> exportService.exportFormateurs(format, out));
+    }
+
     @GetMapping("/search")
     @ApiOperation(value = "Rechercher des formateurs", notes = "Recherche des formateurs par nom ou prénom avec pagination")
     @ApiResponses(value = {
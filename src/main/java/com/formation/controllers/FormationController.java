@@ -1,10 +1,23 @@
 package com.formation.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.formation.cache.CachedResource;
+import com.formation.cache.EntityResponseCache;
 import com.formation.dto.FormationDTO;
 import com.formation.dto.response.ApiResponse;
+import com.formation.dto.response.CursorPage;
+import com.formation.dto.response.DeletionReport;
+import com.formation.dto.response.EnrolmentReport;
+import com.formation.exceptions.PreconditionFailedException;
 import com.formation.exceptions.ResourceNotFoundException;
 import com.formation.models.FormationStatus;
+import com.formation.models.NiveauFormation;
+import com.formation.services.interfaces.IExportService;
 import com.formation.services.interfaces.IFormationService;
+import com.formation.utils.BulkDeletes;
+import com.formation.utils.ETags;
+import com.formation.utils.MergePatch;
+import com.formation.utils.ExportFormat;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -15,13 +28,19 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.validation.annotation.Validated;
 
 import javax.validation.Valid;
 import javax.validation.ValidationException;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -35,6 +54,8 @@ import java.util.Optional;
 public class FormationController {
         private static final Logger logger = LoggerFactory.getLogger(FormationController.class);
         private final IFormationService formationService;
+        private final IExportService exportService;
+        private final EntityResponseCache responseCache;
 
         @PostMapping
         @ApiOperation(value = "Créer une nouvelle formation", notes = "Crée une nouvelle formation avec les informations fournies")
@@ -58,16 +79,21 @@ public class FormationController {
         @ApiResponses(value = {
                         @io.swagger.annotations.ApiResponse(code = 200, message = "Formation mise à jour avec succès", response = ApiResponse.class),
                         @io.swagger.annotations.ApiResponse(code = 404, message = "Formation non trouvée"),
-                        @io.swagger.annotations.ApiResponse(code = 400, message = "Données invalides")
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Données invalides"),
+                        @io.swagger.annotations.ApiResponse(code = 409, message = "Formation modifiée par une requête concurrente"),
+                        @io.swagger.annotations.ApiResponse(code = 412, message = "L'ETag fourni ne correspond plus à la version de la formation")
         })
         public ResponseEntity<ApiResponse<FormationDTO>> update(
                         @ApiParam(value = "ID de la formation", required = true) @PathVariable @NotNull Long id,
-                        @ApiParam(value = "Nouvelles données de la formation", required = true) @Valid @RequestBody FormationDTO formationDTO) {
+                        @ApiParam(value = "Nouvelles données de la formation", required = true) @Valid @RequestBody FormationDTO formationDTO,
+                        @ApiParam(value = "ETag de la version modifiée") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
                 logger.info("Updating formation with id: {}", id);
+                Long expectedVersion = ETags.expectedVersion(ifMatch);
                 try {
-                        FormationDTO updated = formationService.update(id, formationDTO);
+                        FormationDTO updated = formationService.update(id, formationDTO, expectedVersion);
                         return ResponseEntity.ok(new ApiResponse<>(true, "Formation mise à jour avec succès", updated));
-                } catch (ValidationException | ResourceNotFoundException e) {
+                } catch (ValidationException | ResourceNotFoundException | PreconditionFailedException
+                                | ObjectOptimisticLockingFailureException e) {
                         throw e;
                 } catch (Exception e) {
                         logger.error("Error updating formation: ", e);
@@ -75,29 +101,71 @@ public class FormationController {
                 }
         }
 
+        @PatchMapping(value = "/{id}", consumes = { MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE })
+        @ApiOperation(value = "Modifier partiellement une formation", notes = "Applique un JSON Merge Patch (RFC 7396) : seuls les champs présents sont modifiés, null efface un champ. Champs acceptés : titre, niveau, prerequis, capaciteMin, capaciteMax, dateDebut, dateFin, formateurId, statut ; les inscriptions restent inchangées")
+        @ApiResponses(value = {
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Formation mise à jour avec succès", response = ApiResponse.class),
+                        @io.swagger.annotations.ApiResponse(code = 404, message = "Formation non trouvée"),
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Patch invalide, champ non modifiable ou données invalides"),
+                        @io.swagger.annotations.ApiResponse(code = 409, message = "Modification concurrente"),
+                        @io.swagger.annotations.ApiResponse(code = 412, message = "L'ETag fourni ne correspond plus à la version de la formation")
+        })
+        public ResponseEntity<ApiResponse<FormationDTO>> patch(
+                        @ApiParam(value = "ID de la formation", required = true) @PathVariable Long id,
+                        @ApiParam(value = "Champs à modifier", required = true) @RequestBody JsonNode patch,
+                        @ApiParam(value = "ETag de la version modifiée") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+                logger.info("Patching formation with id: {}", id);
+                FormationDTO patched = formationService.patch(id, patch, ETags.expectedVersion(ifMatch));
+                return ResponseEntity.ok(new ApiResponse<>(true, "Formation mise à jour avec succès", patched));
+        }
+
         @DeleteMapping("/{id}")
         @ApiOperation(value = "Supprimer une formation", notes = "Supprime une formation existante par son ID")
         @ApiResponses(value = {
                         @io.swagger.annotations.ApiResponse(code = 200, message = "Formation supprimée avec succès"),
-                        @io.swagger.annotations.ApiResponse(code = 404, message = "Formation non trouvée")
+                        @io.swagger.annotations.ApiResponse(code = 404, message = "Formation non trouvée"),
+                        @io.swagger.annotations.ApiResponse(code = 412, message = "L'ETag fourni ne correspond plus à la version de la formation")
         })
         public ResponseEntity<ApiResponse<Void>> delete(
-                        @ApiParam(value = "ID de la formation à supprimer", required = true) @PathVariable Long id) {
+                        @ApiParam(value = "ID de la formation à supprimer", required = true) @PathVariable Long id,
+                        @ApiParam(value = "ETag de la version supprimée") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
                 logger.info("Deleting formation with id: {}", id);
-                formationService.delete(id);
+                formationService.delete(id, ETags.expectedVersion(ifMatch));
                 return ResponseEntity.ok(new ApiResponse<>(true, "Formation supprimée avec succès", null));
         }
 
+        @DeleteMapping
+        @ApiOperation(value = "Supprimer plusieurs formations", notes = "Supprime une liste de formations en une seule transaction, avec leurs inscriptions, et retourne les IDs supprimés et ceux qui n'existent pas")
+        @ApiResponses(value = {
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Suppressions traitées"),
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Liste vide ou de plus de " + BulkDeletes.MAX_IDS + " IDs")
+        })
+        public ResponseEntity<ApiResponse<DeletionReport>> deleteAll(
+                        @ApiParam(value = "IDs des formations à supprimer", required = true) @RequestBody List<Long> ids) {
+                logger.info("Deleting formations in batch");
+                DeletionReport report = formationService.deleteAll(ids);
+                return ResponseEntity.ok(new ApiResponse<>(true, "Suppressions traitées", report));
+        }
+
         @GetMapping("/{id}")
         @ApiOperation(value = "Obtenir une formation par son ID", notes = "Récupère les détails d'une formation spécifique")
         @ApiResponses(value = {
                         @io.swagger.annotations.ApiResponse(code = 200, message = "Formation trouvée", response = FormationDTO.class),
+                        @io.swagger.annotations.ApiResponse(code = 304, message = "Formation inchangée depuis l'ETag fourni"),
                         @io.swagger.annotations.ApiResponse(code = 404, message = "Formation non trouvée")
         })
-        public ResponseEntity<FormationDTO> findById(
-                        @ApiParam(value = "ID de la formation", required = true) @PathVariable Long id) {
-                return formationService.findById(id)
-                                .map(ResponseEntity::ok)
+        public ResponseEntity<byte[]> findById(
+                        @ApiParam(value = "ID de la formation", required = true) @PathVariable Long id,
+                        @ApiParam(value = "ETag de la version déjà connue") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+                if (ifNoneMatch != null) {
+                        Optional<Long> version = responseCache.version(CachedResource.FORMATION, id,
+                                        formationService::findVersion);
+                        if (version.isPresent() && ETags.matches(ifNoneMatch, version.get())) {
+                                return ETags.notModified(version.get());
+                        }
+                }
+                return responseCache.body(CachedResource.FORMATION, id, formationService::findById, formation -> formation)
+                                .map(ETags::ok)
                                 .orElse(ResponseEntity.notFound().build());
         }
 
@@ -111,6 +179,20 @@ public class FormationController {
                 return ResponseEntity.ok(formationService.findAll(pageable));
         }
 
+        @GetMapping("/cursor")
+        @ApiOperation(value = "Parcourir les formations par curseur", notes = "Pagination par clé (date de début, id) : le champ nextCursor de la réponse permet d'obtenir la page suivante")
+        @ApiResponses(value = {
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Page de formations récupérée avec succès", response = CursorPage.class),
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Curseur ou taille de page invalide")
+        })
+        public ResponseEntity<CursorPage<FormationDTO>> findAllByCursor(
+                        @ApiParam(value = "Titre à rechercher") @RequestParam(required = false) String titre,
+                        @ApiParam(value = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String cursor,
+                        @ApiParam(value = "Taille de la page", defaultValue = "20") @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+                logger.info("Fetching formations by cursor, titre: {}", titre);
+                return ResponseEntity.ok(formationService.findAllByCursor(titre, cursor, size));
+        }
+
         @GetMapping("/all")
         @ApiOperation(value = "Obtenir toutes les formations", notes = "Récupère la liste complète des formations")
         @ApiResponses(value = {
@@ -195,6 +277,36 @@ public class FormationController {
                                 .ok(new ApiResponse<>(true, "Apprenant retiré de la formation avec succès", removed));
         }
 
+        @PostMapping("/{id}/apprenants")
+        @ApiOperation(value = "Inscrire plusieurs apprenants à une formation", notes = "Inscrit une liste d'apprenants en une seule transaction et retourne, pour chaque ID, s'il a été accepté ou rejeté (capacité, niveau, déjà en formation...)")
+        @ApiResponses(value = {
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Inscriptions traitées"),
+                        @io.swagger.annotations.ApiResponse(code = 404, message = "Formation non trouvée"),
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Liste vide ou trop longue, ou formation non planifiée")
+        })
+        public ResponseEntity<ApiResponse<EnrolmentReport>> addApprenants(
+                        @ApiParam(value = "ID de la formation", required = true) @PathVariable Long id,
+                        @ApiParam(value = "IDs des apprenants", required = true) @RequestBody List<Long> apprenantIds) {
+                logger.info("Adding apprenants in batch to formation {}", id);
+                EnrolmentReport report = formationService.addApprenantsToFormation(id, apprenantIds);
+                return ResponseEntity.ok(new ApiResponse<>(true, "Inscriptions traitées", report));
+        }
+
+        @DeleteMapping("/{id}/apprenants")
+        @ApiOperation(value = "Retirer plusieurs apprenants d'une formation", notes = "Retire une liste d'apprenants en une seule transaction et retourne, pour chaque ID, s'il a été retiré ou rejeté")
+        @ApiResponses(value = {
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Retraits traités"),
+                        @io.swagger.annotations.ApiResponse(code = 404, message = "Formation non trouvée"),
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Liste vide ou trop longue, ou formation non planifiée")
+        })
+        public ResponseEntity<ApiResponse<EnrolmentReport>> removeApprenants(
+                        @ApiParam(value = "ID de la formation", required = true) @PathVariable Long id,
+                        @ApiParam(value = "IDs des apprenants", required = true) @RequestBody List<Long> apprenantIds) {
+                logger.info("Removing apprenants in batch from formation {}", id);
+                EnrolmentReport report = formationService.removeApprenantsFromFormation(id, apprenantIds);
+                return ResponseEntity.ok(new ApiResponse<>(true, "Retraits traités", report));
+        }
+
         @PutMapping("/{id}/status/{status}")
         @ApiOperation(value = "Mettre à jour le statut d'une formation", notes = "Met à jour le statut d'une formation existante")
         @ApiResponses(value = {
@@ -218,11 +330,26 @@ public class FormationController {
                         @io.swagger.annotations.ApiResponse(code = 400, message = "Niveau invalide")
         })
         public ResponseEntity<List<FormationDTO>> findPlannedByNiveau(
-                        @ApiParam(value = "Niveau de la formation", required = true) @PathVariable String niveau) {
+                        @ApiParam(value = "Niveau de la formation", required = true) @PathVariable NiveauFormation niveau) {
                 logger.info("Fetching formations for niveau: {}", niveau);
                 return ResponseEntity.ok(formationService.findPlannedFormationsByNiveau(niveau));
         }
 
+        @GetMapping("/export")
+        @ApiOperation(value = "Exporter toutes les formations", notes = "Diffuse l'ensemble des formations au format NDJSON (un objet JSON par ligne) ou CSV, sans charger la table en mémoire")
+        @ApiResponses(value = {
+                        @io.swagger.annotations.ApiResponse(code = 200, message = "Export en cours de diffusion"),
+                        @io.swagger.annotations.ApiResponse(code = 400, message = "Format d'export invalide")
+        })
+        public ResponseEntity<StreamingResponseBody> exportFormations(
+                        @ApiParam(value = "Format d'export", allowableValues = "NDJSON,CSV", defaultValue = "NDJSON") @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+                logger.info("Exporting formations as {}", format);
+                return ResponseEntity.ok()
+                                .contentType(format.getMediaType())
+                                .header(HttpHeaders.CONTENT_DISPOSITION, format.contentDisposition("formations"))
+                                .body(out -> exportService.exportFormations(format, out));
+        }
+
         @GetMapping("/search")
         @ApiOperation(value = "Rechercher des formations par titre", notes = "Recherche des formations par titre avec pagination")
         @ApiResponses(value = {
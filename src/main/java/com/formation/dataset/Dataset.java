@@ -0,0 +1,22 @@
+package com.formation.dataset;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Ids of the rows written by {@link DatasetGenerator}, in generation order, for the
+ * benchmarks and load tests that pick their targets among them.
+ */
+@Data
+@AllArgsConstructor
+public class Dataset {
+    private List<Long> classeIds;
+    private List<Long> formateurIds;
+    private List<Long> apprenantIds;
+    private List<Long> formationIds;
+    private long enrolments;
+    private Duration elapsed;
+}
@@ -0,0 +1,270 @@
+package com.formation.dataset;
+
+import com.formation.models.FormationStatus;
+import com.formation.models.IdSequences;
+import com.formation.models.NiveauFormation;
+import com.formation.utils.SequenceIdAllocator;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Writes a synthetic dataset straight to the database with JDBC batches, bypassing
+ * Hibernate: half a million apprenants take about a minute on H2 or PostgreSQL.
+ * <p>
+ * Every row is drawn from a {@link SplittableRandom} seeded by the spec, one stream
+ * per table, so a seed always gives the same names, niveaux, dates and rosters;
+ * only the ids depend on the state of the sequences. The rows respect the rules of
+ * the validators: unique emails and numéros de salle, at most 30 apprenants and one
+ * formateur per classe, enrolments only of the formation's niveau and within its
+ * capacity, with {@code inscrits} equal to the enrolment count.
+ */
+@Component
+@RequiredArgsConstructor
+public class DatasetGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final String INSERT_CLASSE = "INSERT INTO classes (id, nom, num_salle, version) VALUES (?, ?, ?, 0)";
+    private static final int[] INSERT_CLASSE_TYPES = { Types.BIGINT, Types.VARCHAR, Types.VARCHAR };
+    private static final String INSERT_FORMATEUR = "INSERT INTO formateurs (id, nom, prenom, email, specialite, "
+            + "classe_id, version) VALUES (?, ?, ?, ?, ?, ?, 0)";
+    private static final int[] INSERT_FORMATEUR_TYPES = { Types.BIGINT, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.BIGINT };
+    private static final String INSERT_APPRENANT = "INSERT INTO apprenants (id, nom, prenom, email, niveau, classe_id, "
+            + "version) VALUES (?, ?, ?, ?, ?, ?, 0)";
+    private static final int[] INSERT_APPRENANT_TYPES = { Types.BIGINT, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.BIGINT };
+    private static final String INSERT_FORMATION = "INSERT INTO formations (id, titre, niveau, prerequis, capacite_min, "
+            + "capacite_max, date_debut, date_fin, inscrits, formateur_id, statut, version, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+    private static final int[] INSERT_FORMATION_TYPES = { Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.INTEGER, Types.INTEGER, Types.TIMESTAMP, Types.TIMESTAMP, Types.INTEGER, Types.BIGINT,
+            Types.VARCHAR, Types.TIMESTAMP, Types.TIMESTAMP };
+    private static final String INSERT_ENROLMENT = "INSERT INTO formation_apprenant (formation_id, apprenant_id) "
+            + "VALUES (?, ?)";
+    private static final int[] ENROLMENT_TYPES = { Types.BIGINT, Types.BIGINT };
+
+    private static final String[] PRENOMS = { "Adam", "Alice", "Amine", "Camille", "Chloe", "Emma", "Hamza", "Hugo",
+            "Ines", "Jade", "Karim", "Lea", "Louis", "Lucas", "Manon", "Nadia", "Nathan", "Noah", "Omar", "Salma",
+            "Sara", "Sofia", "Yanis", "Youssef", "Zoe" };
+    private static final String[] NOMS = { "Alaoui", "Benali", "Bernard", "Dubois", "Durand", "El Amrani", "Fontaine",
+            "Garcia", "Lambert", "Laurent", "Lefebvre", "Martin", "Mercier", "Moreau", "Petit", "Richard", "Robert",
+            "Rousseau", "Simon", "Tazi" };
+    private static final String[] SPECIALITES = { "JAVA", "SPRING", "ANGULAR", "DEVOPS", "PYTHON", "DATA", "SECURITE" };
+    private static final int[] SPECIALITE_WEIGHTS = { 30, 20, 15, 10, 10, 10, 5 };
+    private static final String[] SUJETS = { "Java", "Spring Boot", "Angular", "React", "DevOps", "Docker",
+            "Kubernetes", "Python", "Data Science", "SQL", "Securite Web", "Microservices" };
+    private static final String[] PREREQUIS = { "Aucun", "Bases de la programmation", "Deux ans d'experience" };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceIdAllocator sequenceIdAllocator;
+
+    /**
+     * Deletes every classe, formateur, apprenant and formation, with their enrolments.
+     */
+    public void clear() {
+        jdbcTemplate.update("DELETE FROM formation_apprenant");
+        jdbcTemplate.update("DELETE FROM formations");
+        jdbcTemplate.update("DELETE FROM apprenants");
+        jdbcTemplate.update("DELETE FROM formateurs");
+        jdbcTemplate.update("DELETE FROM classes");
+    }
+
+    /**
+     * Whether any classe, formateur, apprenant or formation exists.
+     */
+    public boolean hasRows() {
+        for (String table : new String[] { "classes", "formateurs", "apprenants", "formations" }) {
+            if (!jdbcTemplate.queryForList("SELECT 1 FROM " + table + " FETCH FIRST 1 ROWS ONLY").isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Dataset generate(DatasetSpec spec) {
+        long start = System.nanoTime();
+        SplittableRandom root = new SplittableRandom(spec.getSeed());
+        SplittableRandom classeRandom = root.split();
+        SplittableRandom formateurRandom = root.split();
+        SplittableRandom apprenantRandom = root.split();
+        SplittableRandom formationRandom = root.split();
+        SplittableRandom enrolmentRandom = root.split();
+
+        int classeCount = Math.min(spec.getClasses(), DatasetSpec.MAX_CLASSES);
+        List<Long> classeIds = sequenceIdAllocator.allocate(IdSequences.CLASSES, classeCount);
+        insert("classes", INSERT_CLASSE, INSERT_CLASSE_TYPES, classeCount, spec.getBatchSize(), i -> new Object[] {
+                classeIds.get(i), "Classe " + SUJETS[classeRandom.nextInt(SUJETS.length)] + " " + (i + 1),
+                String.valueOf(i + 1) });
+
+        // the first formateurs get a classe of their own
+        int withClasse = (int) (Math.min(classeCount, spec.getFormateurs()) * spec.getClassesWithFormateur());
+        List<Long> formateurIds = sequenceIdAllocator.allocate(IdSequences.FORMATEURS, spec.getFormateurs());
+        insert("formateurs", INSERT_FORMATEUR, INSERT_FORMATEUR_TYPES, spec.getFormateurs(), spec.getBatchSize(), i -> {
+            String prenom = PRENOMS[formateurRandom.nextInt(PRENOMS.length)];
+            String nom = NOMS[formateurRandom.nextInt(NOMS.length)];
+            return new Object[] { formateurIds.get(i), nom, prenom, email(prenom, nom, i, "formateurs"),
+                    SPECIALITES[pick(formateurRandom, SPECIALITE_WEIGHTS)], i < withClasse ? classeIds.get(i) : null };
+        });
+
+        // classes filled in turn up to classeSize, the remaining apprenants have none
+        int seats = classeCount * Math.min(spec.getClasseSize(), DatasetSpec.CLASSE_CAPACITY);
+        List<Long> apprenantIds = sequenceIdAllocator.allocate(IdSequences.APPRENANTS, spec.getApprenants());
+        byte[] apprenantNiveaux = new byte[spec.getApprenants()];
+        insert("apprenants", INSERT_APPRENANT, INSERT_APPRENANT_TYPES, spec.getApprenants(), spec.getBatchSize(), i -> {
+            String prenom = PRENOMS[apprenantRandom.nextInt(PRENOMS.length)];
+            String nom = NOMS[apprenantRandom.nextInt(NOMS.length)];
+            NiveauFormation niveau = NiveauFormation.values()[pick(apprenantRandom, spec.getNiveauMix())];
+            apprenantNiveaux[i] = (byte) niveau.ordinal();
+            return new Object[] { apprenantIds.get(i), nom, prenom, email(prenom, nom, i, "apprenants"), niveau.name(),
+                    i < seats ? classeIds.get(i % classeCount) : null };
+        });
+        int[][] pools = poolsByNiveau(apprenantNiveaux);
+
+        LocalDateTime reference = spec.getReferenceDate().atStartOfDay();
+        List<Long> formationIds = sequenceIdAllocator.allocate(IdSequences.FORMATIONS, spec.getFormations());
+        byte[] formationNiveaux = new byte[spec.getFormations()];
+        int[] inscrits = new int[spec.getFormations()];
+        insert("formations", INSERT_FORMATION, INSERT_FORMATION_TYPES, spec.getFormations(), spec.getBatchSize(), i -> {
+            NiveauFormation niveau = NiveauFormation.values()[pick(formationRandom, spec.getNiveauMix())];
+            int capaciteMax = 10 + formationRandom.nextInt(31);
+            int capaciteMin = 1 + formationRandom.nextInt(5);
+            LocalDateTime debut = reference
+                    .plusDays(formationRandom.nextInt(2 * spec.getDateSpreadDays() + 1) - spec.getDateSpreadDays())
+                    .withHour(9);
+            // mostly short sessions: exponential length, five days on average
+            int days = 1 + Math.min(59, (int) (-Math.log(1 - formationRandom.nextDouble()) * 5));
+            LocalDateTime fin = debut.plusDays(days).withHour(17);
+            boolean cancelled = formationRandom.nextDouble() < spec.getCancelledRatio();
+            boolean unassigned = formationRandom.nextDouble() < spec.getUnassignedFormations();
+            int formateur = (int) (spec.getFormateurs() * Math.pow(formationRandom.nextDouble(), spec.getFormateurSkew()));
+            double fill = spec.getFillRatio() + (formationRandom.nextDouble() + formationRandom.nextDouble() - 1) * 0.25;
+
+            FormationStatus statut = cancelled ? FormationStatus.ANNULEE
+                    : fin.isBefore(reference) ? FormationStatus.TERMINEE
+                    : debut.isAfter(reference) ? FormationStatus.PLANIFIEE
+                    : FormationStatus.EN_COURS;
+            formationNiveaux[i] = (byte) niveau.ordinal();
+            inscrits[i] = cancelled ? 0 : Math.min((int) Math.round(capaciteMax * Math.max(0, Math.min(1, fill))),
+                    pools[niveau.ordinal()].length);
+            Timestamp createdAt = Timestamp.valueOf(debut.minusDays(30));
+            return new Object[] { formationIds.get(i),
+                    SUJETS[formationRandom.nextInt(SUJETS.length)] + " " + niveau.name().toLowerCase(Locale.ROOT)
+                            + " - session " + (i + 1),
+                    niveau.name(), PREREQUIS[niveau.ordinal()], capaciteMin, capaciteMax, Timestamp.valueOf(debut),
+                    Timestamp.valueOf(fin), inscrits[i],
+                    unassigned || spec.getFormateurs() == 0 ? null : formateurIds.get(Math.min(formateur, spec.getFormateurs() - 1)),
+                    statut.name(), createdAt, createdAt };
+        });
+
+        long enrolments = insertEnrolments(spec, enrolmentRandom, formationIds, formationNiveaux, inscrits,
+                apprenantIds, pools);
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        logger.info("Generated dataset with seed {}: {} classes, {} formateurs, {} apprenants, {} formations, "
+                + "{} enrolments in {} s", spec.getSeed(), classeCount, spec.getFormateurs(), spec.getApprenants(),
+                spec.getFormations(), enrolments, elapsed.getSeconds());
+        return new Dataset(classeIds, formateurIds, apprenantIds, formationIds, enrolments, elapsed);
+    }
+
+    private long insertEnrolments(DatasetSpec spec, SplittableRandom random, List<Long> formationIds,
+            byte[] formationNiveaux, int[] inscrits, List<Long> apprenantIds, int[][] pools) {
+        long start = System.nanoTime();
+        List<Object[]> batch = new ArrayList<>(spec.getBatchSize());
+        Set<Integer> roster = new HashSet<>();
+        long total = 0;
+        for (int f = 0; f < formationIds.size(); f++) {
+            int[] pool = pools[formationNiveaux[f]];
+            roster.clear();
+            while (roster.size() < inscrits[f]) {
+                int apprenant = pool[random.nextInt(pool.length)];
+                if (roster.add(apprenant)) {
+                    batch.add(new Object[] { formationIds.get(f), apprenantIds.get(apprenant) });
+                    if (batch.size() == spec.getBatchSize()) {
+                        jdbcTemplate.batchUpdate(INSERT_ENROLMENT, batch, ENROLMENT_TYPES);
+                        total += batch.size();
+                        batch.clear();
+                    }
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ENROLMENT, batch, ENROLMENT_TYPES);
+            total += batch.size();
+        }
+        logger.info("Inserted {} enrolments in {} ms", total, (System.nanoTime() - start) / 1_000_000);
+        return total;
+    }
+
+    private void insert(String table, String sql, int[] types, int count, int batchSize, IntFunction<Object[]> row) {
+        long start = System.nanoTime();
+        List<Object[]> batch = new ArrayList<>(Math.min(count, batchSize));
+        for (int i = 0; i < count; i++) {
+            batch.add(row.apply(i));
+            if (batch.size() == batchSize) {
+                jdbcTemplate.batchUpdate(sql, batch, types);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch, types);
+        }
+        logger.info("Inserted {} {} in {} ms", count, table, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Indexes of the apprenants of each niveau, the candidates for its formations.
+     */
+    private static int[][] poolsByNiveau(byte[] niveaux) {
+        int[] sizes = new int[NiveauFormation.values().length];
+        for (byte niveau : niveaux) {
+            sizes[niveau]++;
+        }
+        int[][] pools = new int[sizes.length][];
+        for (int n = 0; n < sizes.length; n++) {
+            pools[n] = new int[sizes[n]];
+        }
+        int[] filled = new int[sizes.length];
+        for (int i = 0; i < niveaux.length; i++) {
+            pools[niveaux[i]][filled[niveaux[i]]++] = i;
+        }
+        return pools;
+    }
+
+    private static int pick(SplittableRandom random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int draw = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            draw -= weights[i];
+            if (draw < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * Unique through the row number; lower-case ASCII, as the validators expect.
+     */
+    private static String email(String prenom, String nom, int row, String domain) {
+        return (prenom + "." + nom).toLowerCase(Locale.ROOT).replace(' ', '-') + "." + (row + 1) + "@" + domain
+                + ".dataset.test";
+    }
+}
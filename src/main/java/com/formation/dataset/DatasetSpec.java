@@ -0,0 +1,80 @@
+package com.formation.dataset;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Size and shape of a generated dataset. The defaults are the production volumes;
+ * the same seed and reference date always produce the same rows.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetSpec {
+    /** Numéros de salle are unique integers from 1 to 999. */
+    public static final int MAX_CLASSES = 999;
+    /** Seats of a classe, as enforced by ClasseValidator. */
+    public static final int CLASSE_CAPACITY = 30;
+
+    @Builder.Default
+    private long seed = 42;
+
+    @Builder.Default
+    private int apprenants = 500_000;
+
+    @Builder.Default
+    private int formateurs = 2_000;
+
+    @Builder.Default
+    private int formations = 20_000;
+
+    @Builder.Default
+    private int classes = MAX_CLASSES;
+
+    /** Apprenants seated per classe, the others have none. */
+    @Builder.Default
+    private int classeSize = 25;
+
+    /** Share of the classes that get a formateur (one at most per classe). */
+    @Builder.Default
+    private double classesWithFormateur = 0.8;
+
+    /** Relative weights of DEBUTANT, INTERMEDIAIRE and AVANCE, for apprenants and formations. */
+    @Builder.Default
+    private int[] niveauMix = { 50, 35, 15 };
+
+    /**
+     * Skew of the formations per formateur: 1 spreads them evenly, 2 gives the busiest
+     * tenth of the formateurs about a third of the formations.
+     */
+    @Builder.Default
+    private double formateurSkew = 2.0;
+
+    /** Share of the formations without formateur yet. */
+    @Builder.Default
+    private double unassignedFormations = 0.05;
+
+    /** Mean share of capaciteMax taken by the enrolments, spread by +/- 0.25. */
+    @Builder.Default
+    private double fillRatio = 0.7;
+
+    /** Share of the formations cancelled. */
+    @Builder.Default
+    private double cancelledRatio = 0.05;
+
+    /** Start dates are spread uniformly this many days around the reference date. */
+    @Builder.Default
+    private int dateSpreadDays = 365;
+
+    /** Date the statuses are computed against: past formations are TERMINEE, current ones EN_COURS. */
+    @Builder.Default
+    private LocalDate referenceDate = LocalDate.now();
+
+    @Builder.Default
+    private int batchSize = 1_000;
+}
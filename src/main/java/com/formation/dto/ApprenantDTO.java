@@ -9,6 +9,7 @@ import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import java.util.Set;
 import java.util.HashSet;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import com.formation.models.NiveauFormation;
@@ -18,7 +19,7 @@ import com.formation.models.NiveauFormation;
 @NoArgsConstructor
 @AllArgsConstructor
 @ApiModel(description = "Représentation d'un apprenant dans le système")
-public class ApprenantDTO {
+public class ApprenantDTO implements Versioned {
     @ApiModelProperty(value = "Identifiant unique de l'apprenant", example = "1", position = 1)
     private Long id;
 
@@ -45,4 +46,7 @@ public class ApprenantDTO {
 
     @ApiModelProperty(value = "ID de la classe de l'apprenant", example = "1", position = 7)
     private Long classeId;
+
+    @JsonIgnore
+    private Long version;
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import javax.validation.constraints.NotBlank;
 import java.util.Set;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 
@@ -14,7 +15,7 @@ import io.swagger.annotations.ApiModelProperty;
 @NoArgsConstructor
 @AllArgsConstructor
 @ApiModel(description = "Représentation d'une classe dans le système")
-public class ClasseDTO {
+public class ClasseDTO implements Versioned {
     @ApiModelProperty(value = "Identifiant unique de la classe", example = "1", position = 1)
     private Long id;
 
@@ -31,4 +32,7 @@ public class ClasseDTO {
 
     @ApiModelProperty(value = "IDs des formateurs assignés à la classe", example = "[1, 2]", position = 5)
     private Set<Long> formateurIds;
+
+    @JsonIgnore
+    private Long version;
 }
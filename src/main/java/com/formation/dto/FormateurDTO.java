@@ -7,6 +7,7 @@ import lombok.AllArgsConstructor;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import java.util.Set;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 
@@ -15,7 +16,7 @@ import io.swagger.annotations.ApiModelProperty;
 @NoArgsConstructor
 @AllArgsConstructor
 @ApiModel(description = "Représentation d'un formateur dans le système")
-public class FormateurDTO {
+public class FormateurDTO implements Versioned {
     @ApiModelProperty(value = "Identifiant unique du formateur", example = "1", position = 1)
     private Long id;
 
@@ -48,6 +49,9 @@ public class FormateurDTO {
     @ApiModelProperty(value = "ID de la classe assignée", example = "1", position = 9)
     private Long classeId;
 
+    @JsonIgnore
+    private Long version;
+
     public Long getClasseId() {
         return classeId;
     }
@@ -10,6 +10,7 @@ import javax.validation.constraints.*;
 import java.time.LocalDateTime;
 import java.util.Set;
 import java.util.HashSet;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 
@@ -18,7 +19,7 @@ import io.swagger.annotations.ApiModelProperty;
 @NoArgsConstructor
 @AllArgsConstructor
 @ApiModel(description = "Représentation d'une formation dans le système")
-public class FormationDTO {
+public class FormationDTO implements Versioned {
     @ApiModelProperty(value = "Identifiant unique de la formation", example = "1", position = 1)
     private Long id;
 
@@ -63,4 +64,7 @@ public class FormationDTO {
     @NotNull(message = "Le statut est obligatoire")
     @ApiModelProperty(value = "Statut de la formation", example = "EN_COURS", required = true, allowableValues = "PLANIFIEE,EN_COURS,TERMINEE,ANNULEE", position = 11)
     private FormationStatus statut;
+
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,9 @@
+package com.formation.dto;
+
+/**
+ * A representation that carries the version of the entity it was read from,
+ * served as its ETag.
+ */
+public interface Versioned {
+    Long getVersion();
+}
@@ -0,0 +1,27 @@
+package com.formation.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Statistiques d'une région du cache de second niveau")
+public class CacheRegionStats {
+    @Schema(description = "Nom de la région", example = "formateurs")
+    private String region;
+
+    @Schema(description = "Nombre de lectures servies par le cache", example = "1520")
+    private long hits;
+
+    @Schema(description = "Nombre de lectures absentes du cache (requête en base)", example = "37")
+    private long misses;
+
+    @Schema(description = "Nombre d'entrées ajoutées au cache", example = "37")
+    private long puts;
+
+    @Schema(description = "Taux de succès (hits / (hits + misses))", example = "0.976")
+    private double hitRatio;
+}
@@ -0,0 +1,26 @@
+package com.formation.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Page de résultats parcourue par curseur (pagination par clé)")
+public class CursorPage<T> {
+    @Schema(description = "Éléments de la page")
+    private List<T> content;
+
+    @Schema(description = "Taille de page demandée", example = "20")
+    private int size;
+
+    @Schema(description = "Indique s'il reste des éléments après cette page", example = "true")
+    private boolean hasNext;
+
+    @Schema(description = "Curseur opaque à renvoyer pour obtenir la page suivante", example = "RHVwb250CjQy")
+    private String nextCursor;
+}
@@ -0,0 +1,39 @@
+package com.formation.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@Schema(description = "Résultat d'une suppression en masse")
+public class DeletionReport {
+    @Schema(description = "Nombre d'IDs distincts reçus", example = "30")
+    private int total;
+
+    @Schema(description = "IDs supprimés")
+    private List<Long> deleted = new ArrayList<>();
+
+    @Schema(description = "IDs qui ne correspondent à aucune ressource")
+    private List<Long> notFound = new ArrayList<>();
+
+    /**
+     * Splits the requested ids, in their order, between those that existed and
+     * were deleted and the others.
+     */
+    public static DeletionReport of(Collection<Long> requested, Collection<Long> existing) {
+        Set<Long> found = new HashSet<>(existing);
+        DeletionReport report = new DeletionReport();
+        report.total = requested.size();
+        for (Long id : requested) {
+            (found.contains(id) ? report.deleted : report.notFound).add(id);
+        }
+        return report;
+    }
+}
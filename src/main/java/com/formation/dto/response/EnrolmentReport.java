@@ -0,0 +1,51 @@
+package com.formation.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@Schema(description = "Résultat d'une inscription (ou d'un retrait) en masse d'apprenants à une formation")
+public class EnrolmentReport {
+    @Schema(description = "ID de la formation", example = "1")
+    private Long formationId;
+
+    @Schema(description = "Nombre d'IDs reçus", example = "30")
+    private int total;
+
+    @Schema(description = "IDs des apprenants acceptés")
+    private List<Long> accepted = new ArrayList<>();
+
+    @Schema(description = "Détail des IDs rejetés")
+    private List<Rejection> rejected = new ArrayList<>();
+
+    public EnrolmentReport(Long formationId, int total) {
+        this.formationId = formationId;
+        this.total = total;
+    }
+
+    public void accept(Long apprenantId) {
+        accepted.add(apprenantId);
+    }
+
+    public void reject(Long apprenantId, String message) {
+        rejected.add(new Rejection(apprenantId, message));
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Schema(description = "Apprenant rejeté lors d'une inscription en masse")
+    public static class Rejection {
+        @Schema(description = "ID de l'apprenant", example = "42")
+        private Long apprenantId;
+
+        @Schema(description = "Motif du rejet", example = "La formation a atteint sa capacité maximale")
+        private String message;
+    }
+}
@@ -0,0 +1,49 @@
+package com.formation.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@Schema(description = "Compte rendu d'un import en masse")
+public class ImportReport {
+    @Schema(description = "Nombre de lignes lues", example = "20000")
+    private int total;
+
+    @Schema(description = "Nombre de lignes créées", example = "19950")
+    private int created;
+
+    @Schema(description = "Nombre de lignes mises à jour (email déjà existant)", example = "40")
+    private int updated;
+
+    @Schema(description = "Nombre de lignes rejetées", example = "10")
+    private int rejected;
+
+    @Schema(description = "Détail des lignes rejetées")
+    private List<RowError> errors = new ArrayList<>();
+
+    public void reject(int row, String email, String message) {
+        rejected++;
+        errors.add(new RowError(row, email, message));
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Schema(description = "Ligne rejetée lors d'un import")
+    public static class RowError {
+        @Schema(description = "Numéro de la ligne dans le corps de la requête (à partir de 1)", example = "42")
+        private int row;
+
+        @Schema(description = "Email de la ligne, s'il a pu être lu", example = "jean.dupont@email.com")
+        private String email;
+
+        @Schema(description = "Motif du rejet", example = "Format d'email invalide")
+        private String message;
+    }
+}
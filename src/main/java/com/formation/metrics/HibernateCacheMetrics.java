@@ -0,0 +1,44 @@
+package com.formation.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Hit ratios of the second-level and query caches, next to the raw counters
+ * published by Hibernate's own binder (hibernate.second.level.cache.requests and
+ * so on). The ratios are cumulative since startup; NaN until the first request.
+ */
+@Component
+public class HibernateCacheMetrics implements MeterBinder {
+    private final Statistics statistics;
+
+    public HibernateCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ratio(registry, "hibernate.second.level.cache.hit.ratio", "Second-level cache hits per lookup",
+                stats -> ratio(stats.getSecondLevelCacheHitCount(), stats.getSecondLevelCacheMissCount()));
+        ratio(registry, "hibernate.query.cache.hit.ratio", "Query cache hits per lookup",
+                stats -> ratio(stats.getQueryCacheHitCount(), stats.getQueryCacheMissCount()));
+    }
+
+    private void ratio(MeterRegistry registry, String name, String description, ToDoubleFunction<Statistics> value) {
+        Gauge.builder(name, statistics, value)
+                .description(description)
+                .register(registry);
+    }
+
+    private static double ratio(long hits, long misses) {
+        long lookups = hits + misses;
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,45 @@
+package com.formation.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public method of the four entity services as
+ * {@value #METRIC}{class, method, exception}. Calls between methods of the same
+ * service are not proxied, hence not timed separately.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+    static final String METRIC = "formation.service";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.formation.services.impl.ApprenantServiceImpl.*(..))"
+            + " || execution(public * com.formation.services.impl.FormateurServiceImpl.*(..))"
+            + " || execution(public * com.formation.services.impl.ClasseServiceImpl.*(..))"
+            + " || execution(public * com.formation.services.impl.FormationServiceImpl.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .description("Duration of the service methods")
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -7,6 +7,10 @@ import lombok.Builder;
 import lombok.ToString;
 import lombok.EqualsAndHashCode;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
+
 import javax.persistence.*;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
@@ -19,10 +23,13 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "apprenants")
+@Table(name = "apprenants", indexes = @Index(name = "idx_apprenants_nom_id", columnList = "nom, id"))
+@NamedEntityGraph(name = "Apprenant.formations", attributeNodes = @NamedAttributeNode("formations"))
+@DynamicUpdate
 public class Apprenant {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = IdSequences.APPRENANTS)
+    @SequenceGenerator(name = IdSequences.APPRENANTS, sequenceName = IdSequences.APPRENANTS, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Le nom est obligatoire")
@@ -39,12 +46,19 @@ public class Apprenant {
     @Enumerated(EnumType.STRING)
     private NiveauFormation niveau;
 
+    @OptimisticLock(excluded = true)
     @ManyToMany(mappedBy = "apprenants", fetch = FetchType.LAZY, cascade = { CascadeType.PERSIST, CascadeType.MERGE })
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     @Builder.Default
     private Set<Formation> formations = new HashSet<>();
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @ColumnDefault("0")
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
     @PreRemove
     private void removeFormationAssociations() {
         for (Formation formation : formations) {
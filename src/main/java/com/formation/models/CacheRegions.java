@@ -0,0 +1,21 @@
+package com.formation.models;
+
+/**
+ * Hibernate second-level cache regions for reference data. Each region is a
+ * Caffeine cache whose size bound and time to live are set in
+ * {@code application.conf}.
+ * <p>
+ * Entity regions are kept up to date by Hibernate on every JPA write; query
+ * regions are invalidated whenever one of the tables they read is written.
+ * Writes that bypass Hibernate (JDBC batches) must evict through
+ * {@link com.formation.utils.ReferenceDataCache}.
+ */
+public final class CacheRegions {
+    public static final String FORMATEURS = "formateurs";
+    public static final String CLASSES = "classes";
+    public static final String FORMATEUR_SPECIALITES = "formateur-specialites";
+    public static final String FORMATEURS_BY_SPECIALITE = "formateurs-by-specialite";
+
+    private CacheRegions() {
+    }
+}
@@ -7,6 +7,12 @@ import lombok.Builder;
 import lombok.ToString;
 import lombok.EqualsAndHashCode;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 
@@ -19,9 +25,17 @@ import java.util.Set;
 @AllArgsConstructor
 @Entity
 @Table(name = "classes")
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = "Classe.apprenants", attributeNodes = @NamedAttributeNode("apprenants")),
+        @NamedEntityGraph(name = "Classe.formateurs", attributeNodes = @NamedAttributeNode("formateurs"))
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CLASSES)
+@DynamicUpdate
 public class Classe {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = IdSequences.CLASSES)
+    @SequenceGenerator(name = IdSequences.CLASSES, sequenceName = IdSequences.CLASSES, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Le nom est obligatoire")
@@ -30,30 +44,29 @@ public class Classe {
     @NotBlank(message = "Le numéro de salle est obligatoire")
     private String numSalle;
 
+    @OptimisticLock(excluded = true)
     @OneToMany(mappedBy = "classe", fetch = FetchType.LAZY)
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     @Builder.Default
     private Set<Apprenant> apprenants = new HashSet<>();
 
+    @OptimisticLock(excluded = true)
     @OneToMany(mappedBy = "classe", fetch = FetchType.LAZY)
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     @Builder.Default
     private Set<Formateur> formateurs = new HashSet<>();
 
-    @OneToOne(mappedBy = "classe")
-    private Formateur formateur;
-
-    public void setFormateur(Formateur formateur) {
-        this.formateur = formateur;
-    }
+    @Version
+    @Column(name = "version", nullable = false)
+    @ColumnDefault("0")
+    @EqualsAndHashCode.Exclude
+    private Long version;
 
     @PreRemove
     private void removeAssociations() {
-        if (formateur != null) {
-            formateur.setClasse(null);
-        }
+        formateurs.forEach(formateur -> formateur.setClasse(null));
         apprenants.forEach(apprenant -> apprenant.setClasse(null));
     }
 }
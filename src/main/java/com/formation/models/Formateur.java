@@ -4,6 +4,14 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
 
 import javax.persistence.*;
 import javax.validation.constraints.Email;
@@ -19,10 +27,15 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "formateurs")
+@Table(name = "formateurs", indexes = @Index(name = "idx_formateurs_nom_id", columnList = "nom, id"))
+@NamedEntityGraph(name = "Formateur.formations", attributeNodes = @NamedAttributeNode("formations"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.FORMATEURS)
+@DynamicUpdate
 public class Formateur {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = IdSequences.FORMATEURS)
+    @SequenceGenerator(name = IdSequences.FORMATEURS, sequenceName = IdSequences.FORMATEURS, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Le nom est obligatoire")
@@ -39,18 +52,29 @@ public class Formateur {
     @NotBlank(message = "La spécialité est obligatoire")
     private String specialite;
 
+    @OptimisticLock(excluded = true)
     @OneToMany(mappedBy = "formateur")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Set<Formation> formations = new HashSet<>();
 
     @JsonManagedReference
     @ManyToOne
     @JoinColumn(name = "classe_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Classe classe;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @ColumnDefault("0")
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
     @PreRemove
     private void removeAssociations() {
         if (classe != null) {
-            classe.setFormateur(null);
+            classe.getFormateurs().remove(this);
         }
         formations.forEach(formation -> formation.setFormateur(null));
     }
@@ -15,6 +15,9 @@ import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -26,11 +29,16 @@ import javax.validation.constraints.Future;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "formations")
+@Table(name = "formations", indexes = {
+        @Index(name = "idx_formations_date_debut_id", columnList = "dateDebut, id"),
+        @Index(name = "idx_formations_statut_inscrits", columnList = "statut, inscrits")
+})
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate
 public class Formation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = IdSequences.FORMATIONS)
+    @SequenceGenerator(name = IdSequences.FORMATIONS, sequenceName = IdSequences.FORMATIONS, allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Le titre est obligatoire")
@@ -57,12 +65,22 @@ public class Formation {
     @Future
     private LocalDateTime dateFin;
 
+    /**
+     * Number of apprenants enrolled, kept in step with the formation_apprenant rows.
+     * Only moved by the atomic UPDATE statements of FormationRepository, never by an
+     * entity flush, so a stale copy in the persistence context cannot overwrite it.
+     */
+    @Column(name = "inscrits", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private int inscrits;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "formateur_id")
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     private Formateur formateur;
 
+    @OptimisticLock(excluded = true)
     @ManyToMany(cascade = { CascadeType.PERSIST, CascadeType.MERGE })
     @JoinTable(name = "formation_apprenant", joinColumns = @JoinColumn(name = "formation_id"), inverseJoinColumns = @JoinColumn(name = "apprenant_id"))
     @ToString.Exclude
@@ -91,6 +109,17 @@ public class Formation {
     @NotNull(message = "Le statut est obligatoire")
     private FormationStatus statut;
 
+    /**
+     * Optimistic lock, also served as the ETag of the formation. The roster is
+     * excluded from it so that concurrent enrolments do not conflict with each
+     * other; the services bump it explicitly when the roster changes.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    @ColumnDefault("0")
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     @CreatedDate
     private LocalDateTime createdAt;
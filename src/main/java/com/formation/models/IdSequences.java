@@ -0,0 +1,21 @@
+package com.formation.models;
+
+/**
+ * Database sequences used to generate entity identifiers.
+ * <p>
+ * Ids are allocated in blocks of {@value #ALLOCATION_SIZE}: one call to the
+ * sequence returns the first id of a block the caller owns entirely (Hibernate
+ * "pooled-lo" optimizer), so Hibernate can batch inserts and JDBC writers can
+ * reserve ids without a round trip per row.
+ */
+public final class IdSequences {
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String APPRENANTS = "apprenants_seq";
+    public static final String FORMATEURS = "formateurs_seq";
+    public static final String FORMATIONS = "formations_seq";
+    public static final String CLASSES = "classes_seq";
+
+    private IdSequences() {
+    }
+}
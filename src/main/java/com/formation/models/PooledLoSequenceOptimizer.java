@@ -0,0 +1,72 @@
+package com.formation.models;
+
+import org.hibernate.HibernateException;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.Optimizer;
+
+import java.io.Serializable;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hibernate's "pooled-lo" optimizer guarded by a ReentrantLock instead of a
+ * synchronized method. The built-in one calls the sequence while holding its
+ * monitor, which pins a virtual thread to its carrier for the whole database
+ * round trip.
+ * <p>
+ * The semantics are those of {@code PooledLoOptimizer}, see {@link IdSequences}.
+ * There is a single generation state: multi-tenancy is not supported.
+ */
+public class PooledLoSequenceOptimizer implements Optimizer {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int incrementSize;
+
+    private IntegralDataTypeHolder lastSourceValue;
+    private IntegralDataTypeHolder value;
+    private IntegralDataTypeHolder upperLimitValue;
+
+    public PooledLoSequenceOptimizer(Class<?> returnClass, int incrementSize) {
+        if (incrementSize < 1) {
+            throw new HibernateException("increment size cannot be less than 1");
+        }
+        this.incrementSize = incrementSize;
+    }
+
+    @Override
+    public Serializable generate(AccessCallback callback) {
+        lock.lock();
+        try {
+            if (lastSourceValue == null || !value.lt(upperLimitValue)) {
+                lastSourceValue = callback.getNextValue();
+                upperLimitValue = lastSourceValue.copy().add(incrementSize);
+                value = lastSourceValue.copy();
+                while (value.lt(1)) {
+                    value.increment();
+                }
+            }
+            return value.makeValueThenIncrement();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public IntegralDataTypeHolder getLastSourceValue() {
+        lock.lock();
+        try {
+            return lastSourceValue;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getIncrementSize() {
+        return incrementSize;
+    }
+
+    @Override
+    public boolean applyIncrementSizeToSourceValues() {
+        return true;
+    }
+}
@@ -1,21 +1,39 @@
 package com.formation.repositories;
 
 import com.formation.models.Apprenant;
+import com.formation.models.FormationStatus;
 import com.formation.models.NiveauFormation;
+import com.formation.repositories.projections.AssociationLink;
+import com.formation.repositories.projections.EnrolmentCandidate;
+import com.formation.repositories.projections.IdLabel;
+import com.formation.repositories.projections.PersonName;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface ApprenantRepository extends JpaRepository<Apprenant, Long> {
     Optional<Apprenant> findByEmail(String email);
 
+    @EntityGraph("Apprenant.formations")
+    Optional<Apprenant> findWithFormationsById(Long id);
+
     List<Apprenant> findByNiveau(NiveauFormation niveau);
 
     Page<Apprenant> findByNomContainingOrPrenomContaining(String nom, String prenom, Pageable pageable);
@@ -30,4 +48,57 @@ public interface ApprenantRepository extends JpaRepository<Apprenant, Long> {
 
     @Query("SELECT COUNT(a) FROM Apprenant a WHERE a.classe.id = :classeId")
     long countByClasseId(@Param("classeId") Long classeId);
+
+    @Query("SELECT a FROM Apprenant a WHERE (a.nom LIKE %:term% OR a.prenom LIKE %:term%) ORDER BY a.nom ASC, a.id ASC")
+    List<Apprenant> findFirstPageByNom(@Param("term") String term, Pageable limit);
+
+    @Query("SELECT a FROM Apprenant a WHERE (a.nom LIKE %:term% OR a.prenom LIKE %:term%) "
+            + "AND (a.nom > :nom OR (a.nom = :nom AND a.id > :id)) ORDER BY a.nom ASC, a.id ASC")
+    List<Apprenant> findNextPageByNom(@Param("term") String term, @Param("nom") String nom, @Param("id") Long id,
+            Pageable limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT a.id AS id, a.nom AS nom, a.prenom AS prenom FROM Apprenant a ORDER BY a.id")
+    Stream<PersonName> streamAllNames();
+
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true") })
+    @Query("SELECT a FROM Apprenant a ORDER BY a.id")
+    Stream<Apprenant> streamAll();
+
+    @Query("SELECT a.id AS id, a.email AS label FROM Apprenant a WHERE a.email IN :emails")
+    List<IdLabel> findIdsByEmailIn(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT a.id AS id, a.niveau AS niveau FROM Apprenant a WHERE a.id IN :ids")
+    List<EnrolmentCandidate> findEnrolmentCandidates(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT a.id FROM Apprenant a JOIN a.formations f WHERE a.id IN :ids AND f.statut = :statut")
+    List<Long> findIdsEnrolledWithStatut(@Param("ids") Collection<Long> ids, @Param("statut") FormationStatus statut);
+
+    @Query("SELECT a.version FROM Apprenant a WHERE a.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT a.classe.id FROM Apprenant a WHERE a.id IN :ids AND a.classe IS NOT NULL")
+    List<Long> findClasseIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * One link per existing id, with the classe id as target or null when the
+     * apprenant is not assigned to a classe.
+     */
+    @Query("SELECT a.id AS ownerId, c.id AS targetId FROM Apprenant a LEFT JOIN a.classe c WHERE a.id IN :ids")
+    List<AssociationLink> findClasseLinks(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT a.id AS ownerId, f.id AS targetId FROM Apprenant a JOIN a.formations f WHERE a.id IN :ids")
+    List<AssociationLink> findFormationLinks(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Apprenant a SET a.classe = null WHERE a.classe.id IN :classeIds")
+    int detachFromClasses(@Param("classeIds") Collection<Long> classeIds);
+
+    /**
+     * Deletes the rows without loading them: the enrolments must be deleted first,
+     * and the persistence context is cleared so that no stale copy is flushed back.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Apprenant a WHERE a.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
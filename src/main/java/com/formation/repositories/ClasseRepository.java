@@ -1,17 +1,38 @@
 package com.formation.repositories;
 
 import com.formation.models.Classe;
+import com.formation.repositories.projections.AssociationLink;
+import com.formation.repositories.projections.IdLabel;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface ClasseRepository extends JpaRepository<Classe, Long> {
+    @EntityGraph("Classe.apprenants")
+    @Query("SELECT DISTINCT c FROM Classe c WHERE c.id IN :ids")
+    List<Classe> fetchApprenantsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph("Classe.formateurs")
+    @Query("SELECT DISTINCT c FROM Classe c WHERE c.id IN :ids")
+    List<Classe> fetchFormateursByIdIn(@Param("ids") Collection<Long> ids);
+
     List<Classe> findByNomContaining(String nom);
 
     @Query("SELECT c FROM Classe c WHERE SIZE(c.apprenants) < :maxCapacity")
@@ -19,7 +40,37 @@ public interface ClasseRepository extends JpaRepository<Classe, Long> {
 
     boolean existsByNumSalle(String numSalle);
 
+    boolean existsByNumSalleAndIdNot(String numSalle, Long id);
+
     @Query("SELECT c FROM Classe c WHERE SIZE(c.formateurs) < :maxFormateurs")
     Page<Classe> findClassesWithAvailableFormateurSpots(@Param("maxFormateurs") int maxFormateurs,
             Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.id AS id, c.nom AS label FROM Classe c ORDER BY c.id")
+    Stream<IdLabel> streamAllNoms();
+
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true") })
+    @Query("SELECT c FROM Classe c ORDER BY c.id")
+    Stream<Classe> streamAll();
+
+    @Query("SELECT a.classe.id AS ownerId, a.id AS targetId FROM Apprenant a WHERE a.classe.id IN :classeIds")
+    List<AssociationLink> findApprenantLinks(@Param("classeIds") Collection<Long> classeIds);
+
+    @Query("SELECT f.classe.id AS ownerId, f.id AS targetId FROM Formateur f WHERE f.classe.id IN :classeIds")
+    List<AssociationLink> findFormateurLinks(@Param("classeIds") Collection<Long> classeIds);
+
+    @Query("SELECT c.id FROM Classe c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c.version FROM Classe c WHERE c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Deletes the rows without loading them, once the apprenants and formateurs are
+     * detached; the persistence context is cleared.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Classe c WHERE c.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,30 +1,123 @@
 package com.formation.repositories;
 
+import com.formation.models.CacheRegions;
 import com.formation.models.Formateur;
+import com.formation.repositories.projections.AssociationLink;
+import com.formation.repositories.projections.IdLabel;
+import com.formation.repositories.projections.PersonName;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface FormateurRepository extends JpaRepository<Formateur, Long> {
+    @Override
+    @EntityGraph(attributePaths = "classe")
+    List<Formateur> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "classe")
+    Page<Formateur> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "classe")
+    List<Formateur> findAllById(Iterable<Long> ids);
+
+    @EntityGraph("Formateur.formations")
+    @Query("SELECT DISTINCT f FROM Formateur f WHERE f.id IN :ids")
+    List<Formateur> fetchFormationsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "classe")
     Optional<Formateur> findByEmail(String email);
 
+    @EntityGraph(attributePaths = "classe")
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.FORMATEURS_BY_SPECIALITE) })
     List<Formateur> findBySpecialite(String specialite);
 
+    @EntityGraph(attributePaths = "classe")
     Page<Formateur> findByNomContainingOrPrenomContaining(String nom, String prenom, Pageable pageable);
 
+    @EntityGraph(attributePaths = "classe")
     @Query("SELECT f FROM Formateur f WHERE f.specialite = :specialite AND SIZE(f.formations) < :maxFormations")
     List<Formateur> findAvailableFormateursBySpecialite(@Param("specialite") String specialite,
             @Param("maxFormations") int maxFormations);
 
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.FORMATEUR_SPECIALITES) })
     @Query("SELECT DISTINCT f.specialite FROM Formateur f")
     List<String> findAllSpecialites();
 
     boolean existsByEmail(String email);
+
+    @EntityGraph(attributePaths = "classe")
+    @Query("SELECT f FROM Formateur f WHERE (f.nom LIKE %:term% OR f.prenom LIKE %:term%) ORDER BY f.nom ASC, f.id ASC")
+    List<Formateur> findFirstPageByNom(@Param("term") String term, Pageable limit);
+
+    @EntityGraph(attributePaths = "classe")
+    @Query("SELECT f FROM Formateur f WHERE (f.nom LIKE %:term% OR f.prenom LIKE %:term%) "
+            + "AND (f.nom > :nom OR (f.nom = :nom AND f.id > :id)) ORDER BY f.nom ASC, f.id ASC")
+    List<Formateur> findNextPageByNom(@Param("term") String term, @Param("nom") String nom, @Param("id") Long id,
+            Pageable limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT f.id AS id, f.nom AS nom, f.prenom AS prenom FROM Formateur f ORDER BY f.id")
+    Stream<PersonName> streamAllNames();
+
+    @EntityGraph(attributePaths = "classe")
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true") })
+    @Query("SELECT f FROM Formateur f ORDER BY f.id")
+    Stream<Formateur> streamAll();
+
+    @Query("SELECT f.formateur.id AS ownerId, f.id AS targetId FROM Formation f WHERE f.formateur.id IN :formateurIds")
+    List<AssociationLink> findFormationLinks(@Param("formateurIds") Collection<Long> formateurIds);
+
+    @Query("SELECT f.id AS id, f.email AS label FROM Formateur f WHERE f.email IN :emails")
+    List<IdLabel> findIdsByEmailIn(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT f.version FROM Formateur f WHERE f.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT f.classe.id FROM Formateur f WHERE f.id IN :ids AND f.classe IS NOT NULL")
+    List<Long> findClasseIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * See {@link ApprenantRepository#findClasseLinks}; an id without a row does not exist.
+     */
+    @Query("SELECT f.id AS ownerId, c.id AS targetId FROM Formateur f LEFT JOIN f.classe c WHERE f.id IN :ids")
+    List<AssociationLink> findClasseLinks(@Param("ids") Collection<Long> ids);
+
+    /**
+     * As a bulk statement, evicts the whole formateurs region of the second-level
+     * cache once the transaction commits.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Formateur f SET f.classe = null WHERE f.classe.id IN :classeIds")
+    int detachFromClasses(@Param("classeIds") Collection<Long> classeIds);
+
+    /**
+     * Deletes the rows without loading them, once no formation points to them any
+     * more; the persistence context is cleared.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Formateur f WHERE f.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -2,19 +2,37 @@ package com.formation.repositories;
 
 import com.formation.models.Formation;
 import com.formation.models.FormationStatus;
+import com.formation.models.NiveauFormation;
+import com.formation.repositories.projections.AssociationLink;
+import com.formation.repositories.projections.FormationSummary;
+import com.formation.repositories.projections.IdLabel;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface FormationRepository extends JpaRepository<Formation, Long> {
+    String SUMMARY_SELECT = "SELECT f.id AS id, f.titre AS titre, f.niveau AS niveau, f.prerequis AS prerequis, "
+            + "f.capaciteMin AS capaciteMin, f.capaciteMax AS capaciteMax, f.dateDebut AS dateDebut, "
+            + "f.dateFin AS dateFin, f.statut AS statut, f.formateur.id AS formateurId FROM Formation f";
+
     List<Formation> findByStatut(FormationStatus statut);
 
     Page<Formation> findByTitreContaining(String titre, Pageable pageable);
@@ -25,17 +43,164 @@ public interface FormationRepository extends JpaRepository<Formation, Long> {
 
     List<Formation> findByFormateurId(Long formateurId);
 
-    @Query("SELECT f FROM Formation f WHERE SIZE(f.apprenants) < f.capaciteMax")
+    @Query("SELECT f FROM Formation f WHERE f.inscrits < f.capaciteMax")
     List<Formation> findFormationsWithAvailablePlaces();
 
     @Query("SELECT f FROM Formation f WHERE f.niveau = :niveau AND f.statut = 'PLANIFIEE'")
-    List<Formation> findPlannedFormationsByNiveau(@Param("niveau") String niveau);
+    List<Formation> findPlannedFormationsByNiveau(@Param("niveau") NiveauFormation niveau);
 
     @Query("SELECT f FROM Formation f WHERE f.statut = :statut AND f.dateDebut > CURRENT_DATE")
     Page<Formation> findUpcomingFormationsByStatus(@Param("statut") FormationStatus statut, Pageable pageable);
 
-    @Query("SELECT f FROM Formation f WHERE SIZE(f.apprenants) < f.capaciteMax AND f.statut = 'PLANIFIEE'")
+    @Query("SELECT f FROM Formation f WHERE f.statut = 'PLANIFIEE' AND f.inscrits < f.capaciteMax")
     List<Formation> findAvailableFormations();
 
     Optional<Formation> findByTitreAndDateDebut(String titre, LocalDateTime dateDebut);
+
+    @Query(SUMMARY_SELECT)
+    List<FormationSummary> findAllSummaries();
+
+    @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(f) FROM Formation f")
+    Page<FormationSummary> findAllSummaries(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + " WHERE f.statut = :statut")
+    List<FormationSummary> findSummariesByStatut(@Param("statut") FormationStatus statut);
+
+    @Query(SUMMARY_SELECT + " WHERE f.formateur.id = :formateurId")
+    List<FormationSummary> findSummariesByFormateurId(@Param("formateurId") Long formateurId);
+
+    @Query(value = SUMMARY_SELECT + " WHERE f.titre LIKE %:titre%",
+            countQuery = "SELECT COUNT(f) FROM Formation f WHERE f.titre LIKE %:titre%")
+    Page<FormationSummary> findSummariesByTitreContaining(@Param("titre") String titre, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + " WHERE f.dateDebut BETWEEN :debut AND :fin")
+    List<FormationSummary> findSummariesBetweenDates(@Param("debut") LocalDateTime debut,
+            @Param("fin") LocalDateTime fin);
+
+    @Query(SUMMARY_SELECT + " WHERE f.inscrits < f.capaciteMax")
+    List<FormationSummary> findSummariesWithAvailablePlaces();
+
+    @Query(SUMMARY_SELECT + " WHERE f.niveau = :niveau AND f.statut = 'PLANIFIEE'")
+    List<FormationSummary> findPlannedSummariesByNiveau(@Param("niveau") NiveauFormation niveau);
+
+    @Query("SELECT f.id AS ownerId, a.id AS targetId FROM Formation f JOIN f.apprenants a WHERE f.id IN :formationIds")
+    List<AssociationLink> findApprenantLinks(@Param("formationIds") Collection<Long> formationIds);
+
+    @Query(SUMMARY_SELECT + " WHERE f.titre LIKE %:titre% ORDER BY f.dateDebut ASC, f.id ASC")
+    List<FormationSummary> findFirstPageByDateDebut(@Param("titre") String titre, Pageable limit);
+
+    @Query(SUMMARY_SELECT + " WHERE f.titre LIKE %:titre% "
+            + "AND (f.dateDebut > :dateDebut OR (f.dateDebut = :dateDebut AND f.id > :id)) "
+            + "ORDER BY f.dateDebut ASC, f.id ASC")
+    List<FormationSummary> findNextPageByDateDebut(@Param("titre") String titre,
+            @Param("dateDebut") LocalDateTime dateDebut, @Param("id") Long id, Pageable limit);
+
+    @Query(SUMMARY_SELECT + " WHERE f.inscrits < f.capaciteMax ORDER BY f.dateDebut ASC, f.id ASC")
+    List<FormationSummary> findFirstAvailablePage(Pageable limit);
+
+    @Query(SUMMARY_SELECT + " WHERE f.inscrits < f.capaciteMax "
+            + "AND (f.dateDebut > :dateDebut OR (f.dateDebut = :dateDebut AND f.id > :id)) "
+            + "ORDER BY f.dateDebut ASC, f.id ASC")
+    List<FormationSummary> findNextAvailablePage(@Param("dateDebut") LocalDateTime dateDebut,
+            @Param("id") Long id, Pageable limit);
+
+    @Query("SELECT CASE WHEN COUNT(a) > 0 THEN true ELSE false END FROM Formation f JOIN f.apprenants a "
+            + "WHERE f.id = :formationId AND a.id = :apprenantId")
+    boolean isApprenantEnrolled(@Param("formationId") Long formationId, @Param("apprenantId") Long apprenantId);
+
+    @Query("SELECT a.id FROM Formation f JOIN f.apprenants a WHERE f.id = :formationId AND a.id IN :apprenantIds")
+    List<Long> findEnrolledApprenantIds(@Param("formationId") Long formationId,
+            @Param("apprenantIds") Collection<Long> apprenantIds);
+
+    /**
+     * Takes {@code count} places only if they are all still free. Check and
+     * increment are a single statement, so concurrent enrolments only queue on
+     * this formation's row; 0 rows updated means the formation would overflow.
+     */
+    @Modifying
+    @Query("UPDATE Formation f SET f.inscrits = f.inscrits + :count WHERE f.id = :id "
+            + "AND f.inscrits + :count <= f.capaciteMax")
+    int reservePlaces(@Param("id") Long id, @Param("count") int count);
+
+    /**
+     * Sets the capacity only if the places already taken still fit, in the same
+     * statement as the check, so that it cannot race with {@link #reservePlaces};
+     * 0 rows updated means there are more inscrits than {@code capaciteMax}.
+     */
+    @Modifying
+    @Query("UPDATE Formation f SET f.capaciteMax = :capaciteMax WHERE f.id = :id AND f.inscrits <= :capaciteMax")
+    int updateCapaciteMax(@Param("id") Long id, @Param("capaciteMax") int capaciteMax);
+
+    @Query("SELECT f.capaciteMax - f.inscrits FROM Formation f WHERE f.id = :id")
+    Integer findRemainingPlaces(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Formation f SET f.inscrits = f.inscrits - :count WHERE f.id = :id AND f.inscrits >= :count")
+    int removeInscrits(@Param("id") Long id, @Param("count") int count);
+
+    @Modifying
+    @Query("UPDATE Formation f SET f.inscrits = f.inscrits - 1 WHERE f.id IN :ids AND f.inscrits > 0")
+    int decrementInscrits(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "formations"))
+    @Query(value = "UPDATE formations SET inscrits = (SELECT COUNT(*) FROM formation_apprenant fa "
+            + "WHERE fa.formation_id = formations.id) WHERE id = :id", nativeQuery = true)
+    int resyncInscrits(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "formations"))
+    @Query(value = "UPDATE formations SET inscrits = (SELECT COUNT(*) FROM formation_apprenant fa "
+            + "WHERE fa.formation_id = formations.id)", nativeQuery = true)
+    int resyncAllInscrits();
+
+    @Query(SUMMARY_SELECT + " WHERE f.id IN :ids")
+    List<FormationSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT f.id AS id, f.titre AS label FROM Formation f ORDER BY f.id")
+    Stream<IdLabel> streamAllTitres();
+
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true") })
+    @Query("SELECT f FROM Formation f ORDER BY f.id")
+    Stream<Formation> streamAll();
+
+    @Query("SELECT f.version FROM Formation f WHERE f.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * One link per existing id, with the formateur id as target or null.
+     */
+    @Query("SELECT f.id AS ownerId, fo.id AS targetId FROM Formation f LEFT JOIN f.formateur fo WHERE f.id IN :ids")
+    List<AssociationLink> findFormateurLinks(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Recounts the formations of these apprenants without them, before their
+     * enrolments are deleted.
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "formations"))
+    @Query(value = "UPDATE formations SET inscrits = (SELECT COUNT(*) FROM formation_apprenant fa "
+            + "WHERE fa.formation_id = formations.id AND fa.apprenant_id NOT IN (:apprenantIds)) "
+            + "WHERE id IN (SELECT fa.formation_id FROM formation_apprenant fa WHERE fa.apprenant_id IN (:apprenantIds))",
+            nativeQuery = true)
+    int resyncInscritsWithout(@Param("apprenantIds") Collection<Long> apprenantIds);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "formation_apprenant"))
+    @Query(value = "DELETE FROM formation_apprenant WHERE apprenant_id IN (:apprenantIds)", nativeQuery = true)
+    int deleteEnrolmentsOf(@Param("apprenantIds") Collection<Long> apprenantIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Formation f SET f.formateur = null WHERE f.formateur.id IN :formateurIds")
+    int detachFromFormateurs(@Param("formateurIds") Collection<Long> formateurIds);
+
+    /**
+     * Deletes the rows without loading them. Formation owns the enrolments, so
+     * Hibernate deletes their join rows first, in one statement as well; the
+     * persistence context is cleared.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Formation f WHERE f.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
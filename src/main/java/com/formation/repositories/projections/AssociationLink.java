@@ -0,0 +1,11 @@
+package com.formation.repositories.projections;
+
+/**
+ * One row of an association (owner id, target id), used to resolve the ids of a
+ * collection for a whole batch of owners in a single query.
+ */
+public interface AssociationLink {
+    Long getOwnerId();
+
+    Long getTargetId();
+}
@@ -0,0 +1,12 @@
+package com.formation.repositories.projections;
+
+import com.formation.models.NiveauFormation;
+
+/**
+ * The columns of an apprenant needed to decide whether it can join a formation.
+ */
+public interface EnrolmentCandidate {
+    Long getId();
+
+    NiveauFormation getNiveau();
+}
@@ -0,0 +1,32 @@
+package com.formation.repositories.projections;
+
+import com.formation.models.FormationStatus;
+import com.formation.models.NiveauFormation;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a formation limited to the columns exposed by FormationDTO.
+ * The formateur is reduced to its foreign key so no proxy is created.
+ */
+public interface FormationSummary {
+    Long getId();
+
+    String getTitre();
+
+    NiveauFormation getNiveau();
+
+    String getPrerequis();
+
+    int getCapaciteMin();
+
+    int getCapaciteMax();
+
+    LocalDateTime getDateDebut();
+
+    LocalDateTime getDateFin();
+
+    FormationStatus getStatut();
+
+    Long getFormateurId();
+}
@@ -0,0 +1,11 @@
+package com.formation.repositories.projections;
+
+/**
+ * Identifier and one text column of an entity: display label (formation title,
+ * classe name) or natural key (email).
+ */
+public interface IdLabel {
+    Long getId();
+
+    String getLabel();
+}
@@ -0,0 +1,12 @@
+package com.formation.repositories.projections;
+
+/**
+ * Identifier and name columns of an apprenant or a formateur.
+ */
+public interface PersonName {
+    Long getId();
+
+    String getNom();
+
+    String getPrenom();
+}
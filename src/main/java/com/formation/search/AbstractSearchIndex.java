@@ -0,0 +1,149 @@
+package com.formation.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Base class of the in-memory search indexes.
+ * <p>
+ * The index is built in the background once the application is ready; until then
+ * {@link #search(String)} returns an empty Optional and callers query the database.
+ * Changes made while the index is being built are queued and replayed before it is
+ * published, and changes made inside a transaction are applied only after commit.
+ * <p>
+ * The index therefore only holds committed rows. A search made from a read-write
+ * transaction, which may have written rows of its own, goes to the database too, as
+ * does a query shorter than a trigram.
+ */
+public abstract class AbstractSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(AbstractSearchIndex.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final Object monitor = new Object();
+
+    @Value("${formation.search.index.enabled:true}")
+    private boolean enabled;
+
+    private NGramIndex index;
+    private List<Consumer<NGramIndex>> pending;
+    private volatile boolean ready;
+
+    protected AbstractSearchIndex(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Adds every document to the given index. Runs inside a read-only transaction so
+     * repository streams can be consumed.
+     */
+    protected abstract void load(NGramIndex target);
+
+    protected abstract String name();
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the ids matching the query, best match first, or an empty Optional if
+     * the index cannot answer it: not ready yet, query too short, or called from a
+     * read-write transaction.
+     */
+    public Optional<List<Long>> search(String query) {
+        if (!ready || !NGramIndex.supports(query) || isReadWriteTransaction()) {
+            return Optional.empty();
+        }
+        return Optional.of(index.search(query));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            logger.info("Search index {} disabled", name());
+            return;
+        }
+        synchronized (monitor) {
+            if (ready || pending != null) {
+                return;
+            }
+            pending = new ArrayList<>();
+        }
+        Thread thread = new Thread(this::build, "search-index-" + name());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    protected void put(Long id, String... fields) {
+        if (id != null) {
+            afterCommit(target -> target.put(id, fields));
+        }
+    }
+
+    protected void delete(Long id) {
+        if (id != null) {
+            afterCommit(target -> target.remove(id));
+        }
+    }
+
+    private void build() {
+        long start = System.currentTimeMillis();
+        try {
+            NGramIndex fresh = new NGramIndex();
+            transactionTemplate.executeWithoutResult(status -> load(fresh));
+            synchronized (monitor) {
+                pending.forEach(mutation -> mutation.accept(fresh));
+                pending = null;
+                index = fresh;
+                ready = true;
+            }
+            logger.info("Search index {} ready: {} documents in {} ms", name(), index.size(),
+                    System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            synchronized (monitor) {
+                pending = null;
+            }
+            logger.error("Failed to build search index {}, searches will use the database", name(), e);
+        }
+    }
+
+    private static boolean isReadWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private void afterCommit(Consumer<NGramIndex> mutation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(mutation);
+                }
+            });
+        } else {
+            apply(mutation);
+        }
+    }
+
+    private void apply(Consumer<NGramIndex> mutation) {
+        synchronized (monitor) {
+            if (ready) {
+                mutation.accept(index);
+            } else if (pending != null) {
+                pending.add(mutation);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.formation.search;
+
+import com.formation.models.Apprenant;
+import com.formation.repositories.ApprenantRepository;
+import com.formation.repositories.projections.PersonName;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+/**
+ * Search index over the nom and prenom of the apprenants.
+ */
+@Component
+public class ApprenantSearchIndex extends AbstractSearchIndex {
+    private final ApprenantRepository apprenantRepository;
+
+    public ApprenantSearchIndex(ApprenantRepository apprenantRepository, PlatformTransactionManager transactionManager) {
+        super(transactionManager);
+        this.apprenantRepository = apprenantRepository;
+    }
+
+    public void index(Apprenant apprenant) {
+        put(apprenant.getId(), apprenant.getNom(), apprenant.getPrenom());
+    }
+
+    public void index(Long id, String nom, String prenom) {
+        put(id, nom, prenom);
+    }
+
+    public void remove(Long id) {
+        delete(id);
+    }
+
+    @Override
+    protected void load(NGramIndex target) {
+        try (Stream<PersonName> names = apprenantRepository.streamAllNames()) {
+            names.forEach(name -> target.put(name.getId(), name.getNom(), name.getPrenom()));
+        }
+    }
+
+    @Override
+    protected String name() {
+        return "apprenants";
+    }
+}
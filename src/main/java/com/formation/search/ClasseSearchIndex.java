@@ -0,0 +1,42 @@
+package com.formation.search;
+
+import com.formation.models.Classe;
+import com.formation.repositories.ClasseRepository;
+import com.formation.repositories.projections.IdLabel;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+/**
+ * Search index over the nom of the classes.
+ */
+@Component
+public class ClasseSearchIndex extends AbstractSearchIndex {
+    private final ClasseRepository classeRepository;
+
+    public ClasseSearchIndex(ClasseRepository classeRepository, PlatformTransactionManager transactionManager) {
+        super(transactionManager);
+        this.classeRepository = classeRepository;
+    }
+
+    public void index(Classe classe) {
+        put(classe.getId(), classe.getNom());
+    }
+
+    public void remove(Long id) {
+        delete(id);
+    }
+
+    @Override
+    protected void load(NGramIndex target) {
+        try (Stream<IdLabel> noms = classeRepository.streamAllNoms()) {
+            noms.forEach(nom -> target.put(nom.getId(), nom.getLabel()));
+        }
+    }
+
+    @Override
+    protected String name() {
+        return "classes";
+    }
+}
@@ -0,0 +1,46 @@
+package com.formation.search;
+
+import com.formation.models.Formateur;
+import com.formation.repositories.FormateurRepository;
+import com.formation.repositories.projections.PersonName;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+/**
+ * Search index over the nom and prenom of the formateurs.
+ */
+@Component
+public class FormateurSearchIndex extends AbstractSearchIndex {
+    private final FormateurRepository formateurRepository;
+
+    public FormateurSearchIndex(FormateurRepository formateurRepository, PlatformTransactionManager transactionManager) {
+        super(transactionManager);
+        this.formateurRepository = formateurRepository;
+    }
+
+    public void index(Formateur formateur) {
+        put(formateur.getId(), formateur.getNom(), formateur.getPrenom());
+    }
+
+    public void index(Long id, String nom, String prenom) {
+        put(id, nom, prenom);
+    }
+
+    public void remove(Long id) {
+        delete(id);
+    }
+
+    @Override
+    protected void load(NGramIndex target) {
+        try (Stream<PersonName> names = formateurRepository.streamAllNames()) {
+            names.forEach(name -> target.put(name.getId(), name.getNom(), name.getPrenom()));
+        }
+    }
+
+    @Override
+    protected String name() {
+        return "formateurs";
+    }
+}
@@ -0,0 +1,42 @@
+package com.formation.search;
+
+import com.formation.models.Formation;
+import com.formation.repositories.FormationRepository;
+import com.formation.repositories.projections.IdLabel;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+/**
+ * Search index over the titre of the formations.
+ */
+@Component
+public class FormationSearchIndex extends AbstractSearchIndex {
+    private final FormationRepository formationRepository;
+
+    public FormationSearchIndex(FormationRepository formationRepository, PlatformTransactionManager transactionManager) {
+        super(transactionManager);
+        this.formationRepository = formationRepository;
+    }
+
+    public void index(Formation formation) {
+        put(formation.getId(), formation.getTitre());
+    }
+
+    public void remove(Long id) {
+        delete(id);
+    }
+
+    @Override
+    protected void load(NGramIndex target) {
+        try (Stream<IdLabel> titres = formationRepository.streamAllTitres()) {
+            titres.forEach(titre -> target.put(titre.getId(), titre.getLabel()));
+        }
+    }
+
+    @Override
+    protected String name() {
+        return "formations";
+    }
+}
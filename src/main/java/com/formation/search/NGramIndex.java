@@ -0,0 +1,209 @@
+package com.formation.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory trigram inverted index over the text fields of a set of documents.
+ * <p>
+ * Text is normalized (accents stripped, lower case, blanks collapsed) so "Hélène"
+ * matches "helene". A query returns every document having one field that contains
+ * the normalized query, like {@code LIKE '%term%'}, ranked exact match first, then
+ * prefix, then word prefix, then plain substring. A query shorter than a trigram
+ * cannot be answered from the postings; see {@link #supports(String)}.
+ * <p>
+ * Reads run concurrently; writes take an exclusive lock.
+ */
+public class NGramIndex {
+    static final int GRAM_SIZE = 3;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern BLANKS = Pattern.compile("\\s+");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, LongList> postings = new HashMap<>();
+    private final Map<Long, String[]> documents = new HashMap<>();
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return BLANKS.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Whether the normalized query is long enough to be looked up in the postings.
+     */
+    public static boolean supports(String query) {
+        return normalize(query).length() >= GRAM_SIZE;
+    }
+
+    public void put(Long id, String... fields) {
+        String[] normalized = Arrays.stream(fields)
+                .map(NGramIndex::normalize)
+                .toArray(String[]::new);
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            documents.put(id, normalized);
+            for (String gram : grams(normalized)) {
+                postings.computeIfAbsent(gram, key -> new LongList()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of all matching documents, best match first, or none when the
+     * query is too short to be {@linkplain #supports(String) supported}.
+     */
+    public List<Long> search(String query) {
+        String term = normalize(query);
+        if (term.length() < GRAM_SIZE) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            List<Long> candidates = candidates(term);
+            List<Hit> hits = new ArrayList<>();
+            for (Long id : candidates) {
+                Hit hit = score(id, documents.get(id), term);
+                if (hit != null) {
+                    hits.add(hit);
+                }
+            }
+            return hits.stream()
+                    .sorted(Comparator.comparingInt((Hit hit) -> hit.rank)
+                            .thenComparingInt(hit -> hit.length)
+                            .thenComparingLong(hit -> hit.id))
+                    .map(hit -> hit.id)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> candidates(String term) {
+        List<LongList> lists = new ArrayList<>();
+        for (String gram : grams(new String[] { term })) {
+            LongList list = postings.get(gram);
+            if (list == null) {
+                return new ArrayList<>();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(LongList::size));
+        LongList smallest = lists.get(0);
+        List<Long> result = new ArrayList<>();
+        for (int i = 0; i < smallest.size(); i++) {
+            long id = smallest.get(i);
+            boolean inAll = true;
+            for (int j = 1; j < lists.size() && inAll; j++) {
+                inAll = lists.get(j).contains(id);
+            }
+            if (inAll) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private static Hit score(Long id, String[] fields, String term) {
+        Hit best = null;
+        for (String field : fields) {
+            int position = field.indexOf(term);
+            if (position < 0) {
+                continue;
+            }
+            int rank;
+            if (field.length() == term.length()) {
+                rank = 0;
+            } else if (position == 0) {
+                rank = 1;
+            } else if (isWordStart(field, position) || isWordStart(field, field.indexOf(" " + term) + 1)) {
+                rank = 2;
+            } else {
+                rank = 3;
+            }
+            if (best == null || rank < best.rank || (rank == best.rank && field.length() < best.length)) {
+                best = new Hit(id, rank, field.length());
+            }
+        }
+        return best;
+    }
+
+    private static boolean isWordStart(String field, int position) {
+        if (position <= 0) {
+            return false;
+        }
+        char previous = field.charAt(position - 1);
+        return previous == ' ' || previous == '-' || previous == '\'';
+    }
+
+    private void removeInternal(Long id) {
+        String[] previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : grams(previous)) {
+            LongList list = postings.get(gram);
+            if (list != null && list.remove(id) && list.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static Set<String> grams(String[] fields) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String field : fields) {
+            for (int i = 0; i + GRAM_SIZE <= field.length(); i++) {
+                grams.add(field.substring(i, i + GRAM_SIZE));
+            }
+        }
+        return grams;
+    }
+
+    private static final class Hit {
+        private final long id;
+        private final int rank;
+        private final int length;
+
+        private Hit(long id, int rank, int length) {
+            this.id = id;
+            this.rank = rank;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.formation.search;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Turns a ranked list of ids returned by a search index into a page of entities.
+ */
+public final class SearchResults {
+    private SearchResults() {
+    }
+
+    /**
+     * Loads only the ids of the requested page and returns the rows in ranking order.
+     */
+    public static <T> List<T> slice(List<Long> rankedIds, Pageable pageable, Function<List<Long>, List<T>> loader,
+            Function<T, Long> idExtractor) {
+        List<Long> ids = rankedIds;
+        if (pageable.isPaged()) {
+            int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+            int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+            ids = rankedIds.subList(from, to);
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, T> rows = new HashMap<>();
+        for (T row : loader.apply(new ArrayList<>(ids))) {
+            rows.put(idExtractor.apply(row), row);
+        }
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T row = rows.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+
+    public static <T> Page<T> page(List<Long> rankedIds, Pageable pageable, Function<List<Long>, List<T>> loader,
+            Function<T, Long> idExtractor) {
+        return new PageImpl<>(slice(rankedIds, pageable, loader, idExtractor), pageable, rankedIds.size());
+    }
+}
@@ -1,6 +1,12 @@
 package com.formation.services.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.formation.cache.CachedResource;
+import com.formation.cache.EntityResponseCache;
+import com.formation.cache.ResourceVersions;
 import com.formation.dto.ApprenantDTO;
+import com.formation.dto.response.CursorPage;
+import com.formation.dto.response.DeletionReport;
 import com.formation.exceptions.ResourceNotFoundException;
 import com.formation.models.Apprenant;
 import com.formation.models.Classe;
@@ -10,20 +16,32 @@ import com.formation.models.NiveauFormation;
 import com.formation.repositories.ApprenantRepository;
 import com.formation.repositories.ClasseRepository;
 import com.formation.repositories.FormationRepository;
+import com.formation.repositories.projections.AssociationLink;
+import com.formation.search.ApprenantSearchIndex;
+import com.formation.search.SearchResults;
 import com.formation.services.interfaces.IApprenantService;
 import com.formation.utils.ApprenantMapper;
+import com.formation.utils.BulkDeletes;
+import com.formation.utils.CursorPagination;
+import com.formation.utils.ETags;
+import com.formation.utils.MergePatch;
 import com.formation.validation.ApprenantValidator;
 import com.formation.validation.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,6 +55,10 @@ public class ApprenantServiceImpl implements IApprenantService {
     private final FormationRepository formationRepository;
     private final ApprenantMapper apprenantMapper;
     private final ApprenantValidator apprenantValidator;
+    private final ApprenantSearchIndex apprenantSearchIndex;
+    private final EntityResponseCache responseCache;
+    private final ResourceVersions resourceVersions;
+    private final MergePatch mergePatch;
 
     @Override
     @Transactional
@@ -45,6 +67,8 @@ public class ApprenantServiceImpl implements IApprenantService {
         apprenantValidator.validateForCreate(apprenantDTO);
         Apprenant apprenant = apprenantMapper.toEntity(apprenantDTO);
         apprenant = apprenantRepository.save(apprenant);
+        apprenantSearchIndex.index(apprenant);
+        resourceVersions.touch(CachedResource.CLASSE, classeId(apprenant));
         ApprenantDTO savedDTO = apprenantMapper.toDTO(apprenant);
         logger.debug("Saved apprenant with ID: {}", savedDTO.getId());
         return savedDTO;
@@ -52,14 +76,19 @@ public class ApprenantServiceImpl implements IApprenantService {
 
     @Override
     @Transactional
-    public ApprenantDTO update(Long id, ApprenantDTO apprenantDTO) {
+    public ApprenantDTO update(Long id, ApprenantDTO apprenantDTO, Long expectedVersion) {
         logger.info("Updating apprenant with id: {}", id);
         apprenantValidator.validateForUpdate(id, apprenantDTO);
 
         return apprenantRepository.findById(id)
                 .map(existingApprenant -> {
+                    ETags.checkVersion(expectedVersion, existingApprenant.getVersion());
+                    Long previousClasseId = classeId(existingApprenant);
                     apprenantMapper.updateApprenantFromDTO(apprenantDTO, existingApprenant);
                     Apprenant savedApprenant = apprenantRepository.save(existingApprenant);
+                    apprenantSearchIndex.index(savedApprenant);
+                    responseCache.evict(CachedResource.APPRENANT, id);
+                    resourceVersions.touch(CachedResource.CLASSE, previousClasseId, classeId(savedApprenant));
                     return apprenantMapper.toDTO(savedApprenant);
                 })
                 .orElseThrow(() -> new ResourceNotFoundException(APPRENANT_NOT_FOUND_MESSAGE + id));
@@ -67,35 +96,92 @@ public class ApprenantServiceImpl implements IApprenantService {
 
     @Override
     @Transactional
-    public void delete(Long id) {
-        logger.info("Deleting apprenant with id: {}", id);
+    public ApprenantDTO patch(Long id, JsonNode patch, Long expectedVersion) {
+        logger.info("Patching apprenant with id: {}", id);
         Apprenant apprenant = apprenantRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(APPRENANT_NOT_FOUND_MESSAGE + id));
-
-        // Remove from classe if any
-        if (apprenant.getClasse() != null) {
-            apprenant.setClasse(null);
+        ETags.checkVersion(expectedVersion, apprenant.getVersion());
+        Set<String> fields = MergePatch.fields(patch);
+        ApprenantDTO patched = mergePatch.apply(apprenantMapper.toDTO(apprenant), patch, ApprenantDTO.class,
+                ApprenantMapper.PATCHABLE_FIELDS);
+        apprenantValidator.validateForPatch(id, patched, fields);
+
+        Long previousClasseId = classeId(apprenant);
+        apprenantMapper.patchApprenant(patched, fields, apprenant);
+        apprenantSearchIndex.index(apprenant);
+        responseCache.evict(CachedResource.APPRENANT, id);
+        if (!Objects.equals(previousClasseId, classeId(apprenant))) {
+            resourceVersions.touch(CachedResource.CLASSE, previousClasseId, classeId(apprenant));
         }
+        return apprenantMapper.toDTO(apprenant);
+    }
 
-        // Clear formations
-        apprenant.getFormations().clear();
-        apprenantRepository.save(apprenant);
-        apprenantRepository.flush();
+    @Override
+    @Transactional
+    public void delete(Long id, Long expectedVersion) {
+        logger.info("Deleting apprenant with id: {}", id);
+        Long version = apprenantRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(APPRENANT_NOT_FOUND_MESSAGE + id));
+        ETags.checkVersion(expectedVersion, version);
+        List<Long> ids = Collections.singletonList(id);
+        deleteExisting(ids, apprenantRepository.findClasseIds(ids));
+    }
 
-        apprenantRepository.delete(apprenant);
+    @Override
+    @Transactional
+    public DeletionReport deleteAll(List<Long> ids) {
+        List<Long> requested = BulkDeletes.distinctIds(ids);
+        logger.info("Deleting {} apprenants", requested.size());
+        List<AssociationLink> classeLinks = apprenantRepository.findClasseLinks(requested);
+        List<Long> existing = classeLinks.stream()
+                .map(AssociationLink::getOwnerId)
+                .collect(Collectors.toList());
+        if (!existing.isEmpty()) {
+            deleteExisting(existing, classeLinks.stream()
+                    .map(AssociationLink::getTargetId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet()));
+        }
+        return DeletionReport.of(requested, existing);
+    }
+
+    /**
+     * Deletes existing apprenants with a fixed number of statements, whatever the
+     * number of their formations: the inscrits of these formations are recounted
+     * and the enrolments deleted in one statement each, then the apprenants.
+     */
+    private void deleteExisting(List<Long> ids, Collection<Long> classeIds) {
+        List<Long> formationIds = apprenantRepository.findFormationLinks(ids).stream()
+                .map(AssociationLink::getTargetId)
+                .distinct()
+                .collect(Collectors.toList());
+        responseCache.evict(CachedResource.APPRENANT, ids);
+        resourceVersions.touch(CachedResource.CLASSE, classeIds);
+        if (!formationIds.isEmpty()) {
+            formationRepository.resyncInscritsWithout(ids);
+            formationRepository.deleteEnrolmentsOf(ids);
+            resourceVersions.touch(CachedResource.FORMATION, formationIds);
+        }
+        apprenantRepository.deleteByIdIn(ids);
+        ids.forEach(apprenantSearchIndex::remove);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<ApprenantDTO> findById(Long id) {
-        return apprenantRepository.findById(id)
+        return responseCache.dto(CachedResource.APPRENANT, id, key -> apprenantRepository.findWithFormationsById(key)
                 .map(apprenant -> {
                     ApprenantDTO dto = apprenantMapper.toDTO(apprenant);
                     dto.setFormationIds(apprenant.getFormations().stream()
                             .map(Formation::getId)
                             .collect(Collectors.toSet()));
                     return dto;
-                });
+                }));
+    }
+
+    @Override
+    public Optional<Long> findVersion(Long id) {
+        return apprenantRepository.findVersionById(id);
     }
 
     @Override
@@ -111,6 +197,20 @@ public class ApprenantServiceImpl implements IApprenantService {
                 .map(apprenantMapper::toDTO);
     }
 
+    @Override
+    public CursorPage<ApprenantDTO> findAllByCursor(String term, String cursor, int size) {
+        String filter = term != null ? term : "";
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Apprenant> rows;
+        if (cursor == null) {
+            rows = apprenantRepository.findFirstPageByNom(filter, limit);
+        } else {
+            CursorPagination.Cursor position = CursorPagination.decode(cursor);
+            rows = apprenantRepository.findNextPageByNom(filter, position.getSortKey(), position.getId(), limit);
+        }
+        return CursorPagination.toPage(rows, size, Apprenant::getNom, Apprenant::getId, apprenantMapper::toDTO);
+    }
+
     @Override
     public Optional<ApprenantDTO> findByEmail(String email) {
         return apprenantRepository.findByEmail(email)
@@ -133,6 +233,13 @@ public class ApprenantServiceImpl implements IApprenantService {
 
     @Override
     public Page<ApprenantDTO> searchByNomOrPrenom(String searchTerm, Pageable pageable) {
+        Optional<List<Long>> rankedIds = pageable.getSort().isSorted()
+                ? Optional.empty()
+                : apprenantSearchIndex.search(searchTerm);
+        if (rankedIds.isPresent()) {
+            return SearchResults.page(rankedIds.get(), pageable, apprenantRepository::findAllById, Apprenant::getId)
+                    .map(apprenantMapper::toDTO);
+        }
         return apprenantRepository.findByNomContainingOrPrenomContaining(searchTerm, searchTerm, pageable)
                 .map(apprenantMapper::toDTO);
     }
@@ -158,6 +265,8 @@ public class ApprenantServiceImpl implements IApprenantService {
 
         apprenant.setClasse(classe);
         apprenantRepository.save(apprenant);
+        responseCache.evict(CachedResource.APPRENANT, apprenantId);
+        resourceVersions.touch(CachedResource.CLASSE, classeId);
     }
 
     @Override
@@ -167,8 +276,11 @@ public class ApprenantServiceImpl implements IApprenantService {
         Apprenant apprenant = apprenantRepository.findById(apprenantId)
                 .orElseThrow(() -> new ResourceNotFoundException(APPRENANT_NOT_FOUND_MESSAGE + apprenantId));
 
+        Long previousClasseId = classeId(apprenant);
         apprenant.setClasse(null);
         apprenantRepository.save(apprenant);
+        responseCache.evict(CachedResource.APPRENANT, apprenantId);
+        resourceVersions.touch(CachedResource.CLASSE, previousClasseId);
     }
 
     @Override
@@ -185,14 +297,19 @@ public class ApprenantServiceImpl implements IApprenantService {
             throw new ValidationException("Les apprenants ne peuvent être assignés qu'aux formations planifiées");
         }
 
-        if (formation.getApprenants().size() >= formation.getCapaciteMax()) {
+        if (formation.getInscrits() >= formation.getCapaciteMax()) {
             throw new ValidationException("La formation a atteint sa capacité maximale");
         }
 
         apprenant.getFormations().add(formation);
-        formation.getApprenants().add(apprenant);
+        boolean added = formation.getApprenants().add(apprenant);
+        if (added && formationRepository.reservePlaces(formationId, 1) == 0) {
+            throw new ValidationException("La formation a atteint sa capacité maximale");
+        }
         apprenantRepository.save(apprenant);
         apprenantRepository.flush();
+        resourceVersions.touch(CachedResource.APPRENANT, apprenantId);
+        resourceVersions.touch(CachedResource.FORMATION, formationId);
     }
 
     @Override
@@ -205,8 +322,17 @@ public class ApprenantServiceImpl implements IApprenantService {
                 .orElseThrow(() -> new ResourceNotFoundException("Formation not found"));
 
         apprenant.getFormations().remove(formation);
-        formation.getApprenants().remove(apprenant);
+        boolean removed = formation.getApprenants().remove(apprenant);
 
         apprenantRepository.save(apprenant);
+        if (removed) {
+            formationRepository.decrementInscrits(Collections.singleton(formationId));
+        }
+        resourceVersions.touch(CachedResource.APPRENANT, apprenantId);
+        resourceVersions.touch(CachedResource.FORMATION, formationId);
+    }
+
+    private static Long classeId(Apprenant apprenant) {
+        return apprenant.getClasse() != null ? apprenant.getClasse().getId() : null;
     }
 }
@@ -1,6 +1,12 @@
 package com.formation.services.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.formation.cache.CachedResource;
+import com.formation.cache.EntityResponseCache;
+import com.formation.cache.ResourceVersions;
 import com.formation.dto.ClasseDTO;
+import com.formation.dto.response.DeletionReport;
+import com.formation.exceptions.PreconditionFailedException;
 import com.formation.exceptions.ResourceNotFoundException;
 import com.formation.models.Classe;
 import com.formation.models.Apprenant;
@@ -8,8 +14,14 @@ import com.formation.models.Formateur;
 import com.formation.repositories.ClasseRepository;
 import com.formation.repositories.ApprenantRepository;
 import com.formation.repositories.FormateurRepository;
+import com.formation.repositories.projections.AssociationLink;
+import com.formation.search.ClasseSearchIndex;
+import com.formation.search.SearchResults;
 import com.formation.services.interfaces.IClasseService;
+import com.formation.utils.BulkDeletes;
 import com.formation.utils.ClasseMapper;
+import com.formation.utils.ETags;
+import com.formation.utils.MergePatch;
 import com.formation.validation.ClasseValidator;
 import com.formation.validation.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
@@ -20,8 +32,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,6 +54,10 @@ public class ClasseServiceImpl implements IClasseService {
     private final FormateurRepository formateurRepository;
     private final ClasseMapper classeMapper;
     private final ClasseValidator classeValidator;
+    private final ClasseSearchIndex classeSearchIndex;
+    private final EntityResponseCache responseCache;
+    private final ResourceVersions resourceVersions;
+    private final MergePatch mergePatch;
 
     @Override
     @Transactional
@@ -47,8 +65,11 @@ public class ClasseServiceImpl implements IClasseService {
         try {
             logger.info("Saving new classe: {}", classeDTO.getNom());
             classeValidator.validateForCreate(classeDTO);
-            Classe classe = classeMapper.toEntity(classeDTO);
-            return classeMapper.toDTO(classeRepository.save(classe));
+            Classe classe = classeRepository.save(classeMapper.toEntity(classeDTO));
+            classeSearchIndex.index(classe);
+            return classeMapper.toDTO(classe);
+        } catch (ValidationException e) {
+            throw e;
         } catch (Exception e) {
             String errorMessage = String.format("Failed to save classe with name '%s'", classeDTO.getNom());
             logger.error(errorMessage, e);
@@ -56,19 +77,24 @@ public class ClasseServiceImpl implements IClasseService {
         }
     }
 
+    @Override
     @Transactional
-    public ClasseDTO update(Long id, ClasseDTO classeDTO) {
+    public ClasseDTO update(Long id, ClasseDTO classeDTO, Long expectedVersion) {
         try {
             logger.info("Updating classe with id: {}", id);
             classeValidator.validateForUpdate(id, classeDTO);
 
             return classeRepository.findById(id)
                     .map(existingClasse -> {
+                        ETags.checkVersion(expectedVersion, existingClasse.getVersion());
                         classeMapper.updateClasseFromDTO(classeDTO, existingClasse);
-                        return classeMapper.toDTO(classeRepository.save(existingClasse));
+                        Classe savedClasse = classeRepository.save(existingClasse);
+                        classeSearchIndex.index(savedClasse);
+                        responseCache.evict(CachedResource.CLASSE, id);
+                        return classeMapper.toDTO(savedClasse);
                     })
                     .orElseThrow(() -> new ResourceNotFoundException(CLASSE_NOT_FOUND_MESSAGE + id));
-        } catch (ResourceNotFoundException e) {
+        } catch (ResourceNotFoundException | PreconditionFailedException | ValidationException e) {
             throw e;
         } catch (Exception e) {
             logger.error("Error updating classe: {}", e.getMessage(), e);
@@ -78,38 +104,86 @@ public class ClasseServiceImpl implements IClasseService {
 
     @Override
     @Transactional
-    public void delete(Long id) {
-        logger.info("Deleting classe with id: {}", id);
+    public ClasseDTO patch(Long id, JsonNode patch, Long expectedVersion) {
+        logger.info("Patching classe with id: {}", id);
         Classe classe = classeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(CLASSE_NOT_FOUND_MESSAGE + id));
+        ETags.checkVersion(expectedVersion, classe.getVersion());
+        Set<String> fields = MergePatch.fields(patch);
+        ClasseDTO patched = mergePatch.apply(classeMapper.toDTO(classe, null, null), patch, ClasseDTO.class,
+                ClasseMapper.PATCHABLE_FIELDS);
+        classeValidator.validateForPatch(id, patched, fields);
+
+        classeMapper.patchClasse(patched, fields, classe);
+        classeSearchIndex.index(classe);
+        responseCache.evict(CachedResource.CLASSE, id);
+        return classeMapper.toDTO(classe);
+    }
 
-        // Remove all apprenants from classe
-        classe.getApprenants().forEach(apprenant -> {
-            apprenant.setClasse(null);
-        });
-        classe.getApprenants().clear();
+    @Override
+    @Transactional
+    public void delete(Long id, Long expectedVersion) {
+        logger.info("Deleting classe with id: {}", id);
+        Long version = classeRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(CLASSE_NOT_FOUND_MESSAGE + id));
+        ETags.checkVersion(expectedVersion, version);
+        deleteExisting(Collections.singletonList(id));
+    }
 
-        // Remove formateur from classe if any
-        if (classe.getFormateur() != null) {
-            classe.getFormateur().setClasse(null);
-            classe.setFormateur(null);
+    @Override
+    @Transactional
+    public DeletionReport deleteAll(List<Long> ids) {
+        List<Long> requested = BulkDeletes.distinctIds(ids);
+        logger.info("Deleting {} classes", requested.size());
+        List<Long> existing = classeRepository.findExistingIds(requested);
+        if (!existing.isEmpty()) {
+            deleteExisting(existing);
         }
+        return DeletionReport.of(requested, existing);
+    }
 
-        classeRepository.save(classe);
-        classeRepository.flush();
-        classeRepository.delete(classe);
+    /**
+     * Detaches the apprenants and formateurs of existing classes with one UPDATE
+     * per table, then deletes the classes. The bulk statements evict the classes
+     * and formateurs regions of the second-level cache.
+     */
+    private void deleteExisting(List<Long> ids) {
+        List<Long> apprenantIds = classeRepository.findApprenantLinks(ids).stream()
+                .map(AssociationLink::getTargetId)
+                .collect(Collectors.toList());
+        List<Long> formateurIds = classeRepository.findFormateurLinks(ids).stream()
+                .map(AssociationLink::getTargetId)
+                .collect(Collectors.toList());
+        responseCache.evict(CachedResource.CLASSE, ids);
+        if (!apprenantIds.isEmpty()) {
+            apprenantRepository.detachFromClasses(ids);
+            resourceVersions.touch(CachedResource.APPRENANT, apprenantIds);
+        }
+        if (!formateurIds.isEmpty()) {
+            formateurRepository.detachFromClasses(ids);
+            resourceVersions.touch(CachedResource.FORMATEUR, formateurIds);
+        }
+        classeRepository.deleteByIdIn(ids);
+        ids.forEach(classeSearchIndex::remove);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<ClasseDTO> findById(Long id) {
-        return classeRepository.findById(id).map(classeMapper::toDTO);
+        return responseCache.dto(CachedResource.CLASSE, id, key -> classeRepository.findById(key)
+                .map(classeMapper::toDTO));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersion(Long id) {
+        return classeRepository.findVersionById(id);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ClasseDTO> findAll() {
-        return classeRepository.findAll().stream()
+        return fetchAssociations(classeRepository.findAll()).stream()
                 .map(classeMapper::toDTO)
                 .collect(Collectors.toList());
     }
@@ -117,19 +191,25 @@ public class ClasseServiceImpl implements IClasseService {
     @Override
     @Transactional(readOnly = true)
     public Page<ClasseDTO> findAll(Pageable pageable) {
-        return classeRepository.findAll(pageable).map(classeMapper::toDTO);
+        Page<Classe> classes = classeRepository.findAll(pageable);
+        fetchAssociations(classes.getContent());
+        return classes.map(classeMapper::toDTO);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ClasseDTO> findByNomContaining(String nom) {
-        return classeRepository.findByNomContaining(nom).stream()
+        List<Classe> classes = classeSearchIndex.search(nom)
+                .map(ids -> SearchResults.slice(ids, Pageable.unpaged(), classeRepository::findAllById, Classe::getId))
+                .orElseGet(() -> classeRepository.findByNomContaining(nom));
+        return fetchAssociations(classes).stream()
                 .map(classeMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<ClasseDTO> findAvailableClasses(int maxCapacity) {
-        return classeRepository.findAvailableClasses(maxCapacity).stream()
+        return fetchAssociations(classeRepository.findAvailableClasses(maxCapacity)).stream()
                 .map(classeMapper::toDTO)
                 .collect(Collectors.toList());
     }
@@ -152,8 +232,11 @@ public class ClasseServiceImpl implements IClasseService {
             Apprenant apprenant = apprenantRepository.findById(apprenantId)
                     .orElseThrow(() -> new ResourceNotFoundException(APPRENANT_NOT_FOUND_MESSAGE + apprenantId));
 
+            Long previousClasseId = apprenant.getClasse() != null ? apprenant.getClasse().getId() : null;
             apprenant.setClasse(classe);
             apprenantRepository.save(apprenant);
+            responseCache.evict(CachedResource.APPRENANT, apprenantId);
+            resourceVersions.touch(CachedResource.CLASSE, previousClasseId, classeId);
         } catch (ResourceNotFoundException | ValidationException e) {
             throw e;
         } catch (Exception e) {
@@ -178,6 +261,8 @@ public class ClasseServiceImpl implements IClasseService {
 
             apprenant.setClasse(null);
             apprenantRepository.save(apprenant);
+            responseCache.evict(CachedResource.APPRENANT, apprenantId);
+            resourceVersions.touch(CachedResource.CLASSE, classeId);
         } catch (ResourceNotFoundException | ValidationException e) {
             throw e;
         } catch (Exception e) {
@@ -204,6 +289,8 @@ public class ClasseServiceImpl implements IClasseService {
 
             formateur.setClasse(classe);
             formateurRepository.save(formateur);
+            responseCache.evict(CachedResource.FORMATEUR, formateurId);
+            resourceVersions.touch(CachedResource.CLASSE, classeId);
         } catch (ResourceNotFoundException | ValidationException e) {
             throw e;
         } catch (Exception e) {
@@ -226,6 +313,8 @@ public class ClasseServiceImpl implements IClasseService {
 
             formateur.setClasse(null);
             formateurRepository.save(formateur);
+            responseCache.evict(CachedResource.FORMATEUR, formateurId);
+            resourceVersions.touch(CachedResource.CLASSE, classeId);
         } catch (ResourceNotFoundException | ValidationException e) {
             throw e;
         } catch (Exception e) {
@@ -233,4 +322,20 @@ public class ClasseServiceImpl implements IClasseService {
             throw new ValidationException("Error removing formateur from classe: " + e.getMessage());
         }
     }
+
+    /**
+     * Initializes the apprenants and formateurs of the given classes with one query
+     * per association, whatever the number of classes. Pagination stays in the
+     * database because the page itself is loaded without any collection fetch join.
+     */
+    private List<Classe> fetchAssociations(List<Classe> classes) {
+        if (!classes.isEmpty()) {
+            List<Long> ids = classes.stream()
+                    .map(Classe::getId)
+                    .collect(Collectors.toList());
+            classeRepository.fetchApprenantsByIdIn(ids);
+            classeRepository.fetchFormateursByIdIn(ids);
+        }
+        return classes;
+    }
 }
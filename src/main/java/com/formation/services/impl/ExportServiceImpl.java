@@ -0,0 +1,201 @@
+package com.formation.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.formation.dto.ApprenantDTO;
+import com.formation.dto.ClasseDTO;
+import com.formation.dto.FormateurDTO;
+import com.formation.dto.FormationDTO;
+import com.formation.models.Apprenant;
+import com.formation.models.Classe;
+import com.formation.models.Formateur;
+import com.formation.models.Formation;
+import com.formation.repositories.ApprenantRepository;
+import com.formation.repositories.ClasseRepository;
+import com.formation.repositories.FormateurRepository;
+import com.formation.repositories.FormationRepository;
+import com.formation.repositories.projections.AssociationLink;
+import com.formation.services.interfaces.IExportService;
+import com.formation.utils.ApprenantMapper;
+import com.formation.utils.ClasseMapper;
+import com.formation.utils.CsvWriter;
+import com.formation.utils.ExportFormat;
+import com.formation.utils.FormateurMapper;
+import com.formation.utils.FormationMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams whole tables to an output stream without materializing them.
+ * <p>
+ * Rows are read through a forward-only cursor and processed in chunks of
+ * {@value #CHUNK_SIZE}: the association ids of a chunk are resolved with one
+ * query per association, the chunk is written and flushed, then its entities are
+ * detached so the persistence context does not grow with the table.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ExportServiceImpl implements IExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ExportServiceImpl.class);
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String[] APPRENANT_COLUMNS = { "id", "nom", "prenom", "email", "niveau", "classeId" };
+    private static final String[] FORMATEUR_COLUMNS = { "id", "nom", "prenom", "email", "specialite", "classeId",
+            "formationIds" };
+    private static final String[] FORMATION_COLUMNS = { "id", "titre", "niveau", "prerequis", "capaciteMin",
+            "capaciteMax", "dateDebut", "dateFin", "statut", "formateurId", "apprenantIds" };
+    private static final String[] CLASSE_COLUMNS = { "id", "nom", "numSalle", "apprenantIds", "formateurIds" };
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ApprenantRepository apprenantRepository;
+    private final FormateurRepository formateurRepository;
+    private final FormationRepository formationRepository;
+    private final ClasseRepository classeRepository;
+    private final ApprenantMapper apprenantMapper;
+    private final FormateurMapper formateurMapper;
+    private final FormationMapper formationMapper;
+    private final ClasseMapper classeMapper;
+
+    @Override
+    public void exportApprenants(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<Apprenant> apprenants = apprenantRepository.streamAll()) {
+            export("apprenants", apprenants, chunk -> chunk.stream()
+                    .map(apprenantMapper::toDTO)
+                    .collect(Collectors.toList()),
+                    format, APPRENANT_COLUMNS, this::toApprenantRow, out);
+        }
+    }
+
+    @Override
+    public void exportFormateurs(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<Formateur> formateurs = formateurRepository.streamAll()) {
+            export("formateurs", formateurs, chunk -> {
+                Map<Long, Set<Long>> formationIds = groupByOwner(
+                        formateurRepository.findFormationLinks(ids(chunk, Formateur::getId)));
+                return chunk.stream()
+                        .map(formateur -> formateurMapper.toDTO(formateur, formationIds.get(formateur.getId())))
+                        .collect(Collectors.toList());
+            }, format, FORMATEUR_COLUMNS, this::toFormateurRow, out);
+        }
+    }
+
+    @Override
+    public void exportFormations(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<Formation> formations = formationRepository.streamAll()) {
+            export("formations", formations, chunk -> {
+                Map<Long, Set<Long>> apprenantIds = groupByOwner(
+                        formationRepository.findApprenantLinks(ids(chunk, Formation::getId)));
+                return chunk.stream()
+                        .map(formation -> formationMapper.toDTO(formation, apprenantIds.get(formation.getId())))
+                        .collect(Collectors.toList());
+            }, format, FORMATION_COLUMNS, this::toFormationRow, out);
+        }
+    }
+
+    @Override
+    public void exportClasses(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<Classe> classes = classeRepository.streamAll()) {
+            export("classes", classes, chunk -> {
+                List<Long> classeIds = ids(chunk, Classe::getId);
+                Map<Long, Set<Long>> apprenantIds = groupByOwner(classeRepository.findApprenantLinks(classeIds));
+                Map<Long, Set<Long>> formateurIds = groupByOwner(classeRepository.findFormateurLinks(classeIds));
+                return chunk.stream()
+                        .map(classe -> classeMapper.toDTO(classe, apprenantIds.get(classe.getId()),
+                                formateurIds.get(classe.getId())))
+                        .collect(Collectors.toList());
+            }, format, CLASSE_COLUMNS, this::toClasseRow, out);
+        }
+    }
+
+    private <E, D> void export(String name, Stream<E> entities, Function<List<E>, List<D>> toDTOs,
+            ExportFormat format, String[] columns, Function<D, Object[]> toRow, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ObjectWriter json = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        CsvWriter csv = format == ExportFormat.CSV ? new CsvWriter(writer) : null;
+        if (csv != null) {
+            csv.writeRow((Object[]) columns);
+        }
+
+        List<E> chunk = new ArrayList<>(CHUNK_SIZE);
+        long count = 0;
+        Iterator<E> iterator = entities.iterator();
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() < CHUNK_SIZE && iterator.hasNext()) {
+                continue;
+            }
+            for (D dto : toDTOs.apply(chunk)) {
+                if (csv != null) {
+                    csv.writeRow(toRow.apply(dto));
+                } else {
+                    writer.write(json.writeValueAsString(dto));
+                    writer.write('\n');
+                }
+            }
+            writer.flush();
+            chunk.forEach(entityManager::detach);
+            count += chunk.size();
+            chunk.clear();
+        }
+        writer.flush();
+        logger.info("Exported {} {} as {} in {} ms", count, name, format, System.currentTimeMillis() - start);
+    }
+
+    private static <E> List<Long> ids(List<E> entities, Function<E, Long> id) {
+        return entities.stream().map(id).collect(Collectors.toList());
+    }
+
+    private static Map<Long, Set<Long>> groupByOwner(List<AssociationLink> links) {
+        Map<Long, Set<Long>> targets = new HashMap<>();
+        for (AssociationLink link : links) {
+            targets.computeIfAbsent(link.getOwnerId(), id -> new HashSet<>()).add(link.getTargetId());
+        }
+        return targets;
+    }
+
+    private Object[] toApprenantRow(ApprenantDTO dto) {
+        return new Object[] { dto.getId(), dto.getNom(), dto.getPrenom(), dto.getEmail(), dto.getNiveau(),
+                dto.getClasseId() };
+    }
+
+    private Object[] toFormateurRow(FormateurDTO dto) {
+        return new Object[] { dto.getId(), dto.getNom(), dto.getPrenom(), dto.getEmail(), dto.getSpecialite(),
+                dto.getClasseId(), dto.getFormationIds() };
+    }
+
+    private Object[] toFormationRow(FormationDTO dto) {
+        return new Object[] { dto.getId(), dto.getTitre(), dto.getNiveau(), dto.getPrerequis(),
+                dto.getCapaciteMin(), dto.getCapaciteMax(), dto.getDateDebut(), dto.getDateFin(), dto.getStatut(),
+                dto.getFormateurId(), dto.getApprenantIds() };
+    }
+
+    private Object[] toClasseRow(ClasseDTO dto) {
+        return new Object[] { dto.getId(), dto.getNom(), dto.getNumSalle(), dto.getApprenantIds(),
+                dto.getFormateurIds() };
+    }
+}
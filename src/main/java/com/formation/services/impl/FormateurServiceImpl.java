@@ -1,6 +1,12 @@
 package com.formation.services.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.formation.cache.CachedResource;
+import com.formation.cache.EntityResponseCache;
+import com.formation.cache.ResourceVersions;
 import com.formation.dto.FormateurDTO;
+import com.formation.dto.response.DeletionReport;
+import com.formation.dto.response.CursorPage;
 import com.formation.exceptions.BadRequestException;
 import com.formation.exceptions.ResourceNotFoundException;
 import com.formation.models.Classe;
@@ -10,20 +16,32 @@ import com.formation.models.FormationStatus;
 import com.formation.repositories.ClasseRepository;
 import com.formation.repositories.FormateurRepository;
 import com.formation.repositories.FormationRepository;
+import com.formation.repositories.projections.AssociationLink;
+import com.formation.search.FormateurSearchIndex;
+import com.formation.search.SearchResults;
 import com.formation.services.interfaces.IFormateurService;
+import com.formation.utils.BulkDeletes;
+import com.formation.utils.CursorPagination;
+import com.formation.utils.ETags;
 import com.formation.utils.FormateurMapper;
+import com.formation.utils.MergePatch;
 import com.formation.validation.FormateurValidator;
 import com.formation.validation.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,26 +57,36 @@ public class FormateurServiceImpl implements IFormateurService {
     private final FormationRepository formationRepository;
     private final FormateurMapper formateurMapper;
     private final FormateurValidator formateurValidator;
+    private final FormateurSearchIndex formateurSearchIndex;
+    private final EntityResponseCache responseCache;
+    private final ResourceVersions resourceVersions;
+    private final MergePatch mergePatch;
 
     @Override
     @Transactional
     public FormateurDTO save(FormateurDTO formateurDTO) {
         logger.info("Saving new formateur: {}", formateurDTO.getEmail());
         formateurValidator.validateForCreate(formateurDTO);
-        Formateur formateur = formateurMapper.toEntity(formateurDTO);
-        return formateurMapper.toDTO(formateurRepository.save(formateur));
+        Formateur formateur = formateurRepository.save(formateurMapper.toEntity(formateurDTO));
+        formateurSearchIndex.index(formateur);
+        resourceVersions.touch(CachedResource.CLASSE, classeId(formateur));
+        return formateurMapper.toDTO(formateur);
     }
 
     @Override
     @Transactional
-    public FormateurDTO update(Long id, FormateurDTO formateurDTO) {
+    public FormateurDTO update(Long id, FormateurDTO formateurDTO, Long expectedVersion) {
         logger.info("Updating formateur with id: {}", id);
         formateurValidator.validateForUpdate(id, formateurDTO);
 
         return formateurRepository.findById(id)
                 .map(existingFormateur -> {
+                    ETags.checkVersion(expectedVersion, existingFormateur.getVersion());
                     formateurMapper.updateFormateurFromDTO(formateurDTO, existingFormateur);
-                    return formateurMapper.toDTO(formateurRepository.save(existingFormateur));
+                    Formateur savedFormateur = formateurRepository.save(existingFormateur);
+                    formateurSearchIndex.index(savedFormateur);
+                    responseCache.evict(CachedResource.FORMATEUR, id);
+                    return formateurMapper.toDTO(savedFormateur);
                 })
                 .orElseThrow(() -> new ResourceNotFoundException("Formateur", "id", id));
     }
@@ -86,49 +114,118 @@ public class FormateurServiceImpl implements IFormateurService {
         formateur.getFormations().add(formation);
         formateurRepository.save(formateur);
         formationRepository.save(formation);
+        resourceVersions.touch(CachedResource.FORMATEUR, formateurId);
+        responseCache.evict(CachedResource.FORMATION, formationId);
     }
 
     @Override
     @Transactional
-    public void delete(Long id) {
-        logger.info("Deleting formateur with id: {}", id);
+    public FormateurDTO patch(Long id, JsonNode patch, Long expectedVersion) {
+        logger.info("Patching formateur with id: {}", id);
         Formateur formateur = formateurRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException(FORMATEUR_NOT_FOUND + id));
+                .orElseThrow(() -> new ResourceNotFoundException("Formateur", "id", id));
+        ETags.checkVersion(expectedVersion, formateur.getVersion());
+        Set<String> fields = MergePatch.fields(patch);
+        FormateurDTO patched = mergePatch.apply(formateurMapper.toDTO(formateur, Collections.emptySet()), patch,
+                FormateurDTO.class, FormateurMapper.PATCHABLE_FIELDS);
+        formateurValidator.validateForPatch(id, patched, fields);
+
+        Long previousClasseId = classeId(formateur);
+        formateurMapper.patchFormateur(patched, fields, formateur);
+        formateurSearchIndex.index(formateur);
+        responseCache.evict(CachedResource.FORMATEUR, id);
+        if (!Objects.equals(previousClasseId, classeId(formateur))) {
+            resourceVersions.touch(CachedResource.CLASSE, previousClasseId, classeId(formateur));
+        }
+        return formateurMapper.toDTO(formateur);
+    }
 
-        // Remove formateur from all formations
-        formateur.getFormations().forEach(formation -> {
-            formation.setFormateur(null);
-        });
-        formateur.getFormations().clear();
+    @Override
+    @Transactional
+    public void delete(Long id, Long expectedVersion) {
+        logger.info("Deleting formateur with id: {}", id);
+        Long version = formateurRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(FORMATEUR_NOT_FOUND + id));
+        ETags.checkVersion(expectedVersion, version);
+        List<Long> ids = Collections.singletonList(id);
+        deleteExisting(ids, formateurRepository.findClasseIds(ids));
+    }
 
-        // Remove formateur from classe if any
-        if (formateur.getClasse() != null) {
-            formateur.getClasse().setFormateur(null);
-            formateur.setClasse(null);
+    @Override
+    @Transactional
+    public DeletionReport deleteAll(List<Long> ids) {
+        List<Long> requested = BulkDeletes.distinctIds(ids);
+        logger.info("Deleting {} formateurs", requested.size());
+        List<AssociationLink> classeLinks = formateurRepository.findClasseLinks(requested);
+        List<Long> existing = classeLinks.stream()
+                .map(AssociationLink::getOwnerId)
+                .collect(Collectors.toList());
+        if (!existing.isEmpty()) {
+            deleteExisting(existing, classeLinks.stream()
+                    .map(AssociationLink::getTargetId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet()));
         }
+        return DeletionReport.of(requested, existing);
+    }
 
-        formateurRepository.save(formateur);
-        formateurRepository.flush();
-        formateurRepository.delete(formateur);
+    /**
+     * Unassigns the formations of existing formateurs with one UPDATE, then deletes
+     * the formateurs; their classe link is their own column. The classes lose their
+     * formateur, so their versions move as well.
+     */
+    private void deleteExisting(List<Long> ids, Collection<Long> classeIds) {
+        List<Long> formationIds = formateurRepository.findFormationLinks(ids).stream()
+                .map(AssociationLink::getTargetId)
+                .collect(Collectors.toList());
+        responseCache.evict(CachedResource.FORMATEUR, ids);
+        resourceVersions.touch(CachedResource.CLASSE, classeIds);
+        if (!formationIds.isEmpty()) {
+            formationRepository.detachFromFormateurs(ids);
+            resourceVersions.touch(CachedResource.FORMATION, formationIds);
+        }
+        formateurRepository.deleteByIdIn(ids);
+        ids.forEach(formateurSearchIndex::remove);
     }
 
     @Override
     public Optional<FormateurDTO> findById(Long id) {
-        return formateurRepository.findById(id)
-                .map(formateurMapper::toDTO);
+        return responseCache.dto(CachedResource.FORMATEUR, id, key -> formateurRepository.findById(key)
+                .map(formateurMapper::toDTO));
+    }
+
+    @Override
+    public Optional<Long> findVersion(Long id) {
+        return formateurRepository.findVersionById(id);
     }
 
     @Override
     public List<FormateurDTO> findAll() {
-        return formateurRepository.findAll().stream()
+        return fetchFormations(formateurRepository.findAll()).stream()
                 .map(formateurMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
     public Page<FormateurDTO> findAll(Pageable pageable) {
-        return formateurRepository.findAll(pageable)
-                .map(formateurMapper::toDTO);
+        Page<Formateur> formateurs = formateurRepository.findAll(pageable);
+        fetchFormations(formateurs.getContent());
+        return formateurs.map(formateurMapper::toDTO);
+    }
+
+    @Override
+    public CursorPage<FormateurDTO> findAllByCursor(String term, String cursor, int size) {
+        String filter = term != null ? term : "";
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Formateur> rows;
+        if (cursor == null) {
+            rows = formateurRepository.findFirstPageByNom(filter, limit);
+        } else {
+            CursorPagination.Cursor position = CursorPagination.decode(cursor);
+            rows = formateurRepository.findNextPageByNom(filter, position.getSortKey(), position.getId(), limit);
+        }
+        fetchFormations(rows);
+        return CursorPagination.toPage(rows, size, Formateur::getNom, Formateur::getId, formateurMapper::toDTO);
     }
 
     @Override
@@ -139,15 +236,26 @@ public class FormateurServiceImpl implements IFormateurService {
 
     @Override
     public List<FormateurDTO> findBySpecialite(String specialite) {
-        return formateurRepository.findBySpecialite(specialite).stream()
+        return fetchFormations(formateurRepository.findBySpecialite(specialite)).stream()
                 .map(formateurMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<String> findAllSpecialites() {
+        return formateurRepository.findAllSpecialites();
+    }
+
     @Override
     public Page<FormateurDTO> searchByNomOrPrenom(String searchTerm, Pageable pageable) {
-        return formateurRepository.findByNomContainingOrPrenomContaining(searchTerm, searchTerm, pageable)
-                .map(formateurMapper::toDTO);
+        Optional<List<Long>> rankedIds = pageable.getSort().isSorted()
+                ? Optional.empty()
+                : formateurSearchIndex.search(searchTerm);
+        Page<Formateur> formateurs = rankedIds.isPresent()
+                ? SearchResults.page(rankedIds.get(), pageable, formateurRepository::findAllById, Formateur::getId)
+                : formateurRepository.findByNomContainingOrPrenomContaining(searchTerm, searchTerm, pageable);
+        fetchFormations(formateurs.getContent());
+        return formateurs.map(formateurMapper::toDTO);
     }
 
     @Override
@@ -167,8 +275,11 @@ public class FormateurServiceImpl implements IFormateurService {
         Classe classe = classeRepository.findById(classeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Classe not found with id: " + classeId));
 
+        Long previousClasseId = classeId(formateur);
         formateur.setClasse(classe);
         formateurRepository.save(formateur);
+        responseCache.evict(CachedResource.FORMATEUR, formateurId);
+        resourceVersions.touch(CachedResource.CLASSE, previousClasseId, classeId);
     }
 
     @Override
@@ -178,8 +289,11 @@ public class FormateurServiceImpl implements IFormateurService {
         Formateur formateur = formateurRepository.findById(formateurId)
                 .orElseThrow(() -> new ResourceNotFoundException(FORMATEUR_NOT_FOUND + formateurId));
 
+        Long previousClasseId = classeId(formateur);
         formateur.setClasse(null);
         formateurRepository.save(formateur);
+        responseCache.evict(CachedResource.FORMATEUR, formateurId);
+        resourceVersions.touch(CachedResource.CLASSE, previousClasseId);
     }
 
     @Override
@@ -204,5 +318,24 @@ public class FormateurServiceImpl implements IFormateurService {
         formateur.getFormations().remove(formation);
         formateurRepository.save(formateur);
         formationRepository.save(formation);
+        resourceVersions.touch(CachedResource.FORMATEUR, formateurId);
+        responseCache.evict(CachedResource.FORMATION, formationId);
+    }
+
+    private static Long classeId(Formateur formateur) {
+        return formateur.getClasse() != null ? formateur.getClasse().getId() : null;
+    }
+
+    /**
+     * Initializes the formations of the given formateurs with a single query so that
+     * mapping a page does not trigger one lazy load per row.
+     */
+    private List<Formateur> fetchFormations(List<Formateur> formateurs) {
+        if (!formateurs.isEmpty()) {
+            formateurRepository.fetchFormationsByIdIn(formateurs.stream()
+                    .map(Formateur::getId)
+                    .collect(Collectors.toList()));
+        }
+        return formateurs;
     }
 }
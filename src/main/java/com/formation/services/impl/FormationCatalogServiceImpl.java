@@ -0,0 +1,53 @@
+package com.formation.services.impl;
+
+import com.formation.dto.FormationDTO;
+import com.formation.dto.response.CursorPage;
+import com.formation.services.interfaces.IFormationCatalogService;
+import com.formation.services.interfaces.IFormationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.function.Function;
+
+/**
+ * Read-only catalog streams over the blocking formation service.
+ * <p>
+ * A stream is a chain of keyset pages: each page is read in its own short
+ * transaction on the bounded-elastic scheduler, and the next one is only read
+ * once the subscriber has asked for the elements of the previous one. A slow
+ * client therefore holds neither a request thread nor a connection, and never
+ * makes the server buffer more than one page ahead.
+ */
+@Service
+@RequiredArgsConstructor
+public class FormationCatalogServiceImpl implements IFormationCatalogService {
+    private final IFormationService formationService;
+
+    @Value("${formation.catalog.page-size:100}")
+    private int pageSize;
+
+    @Override
+    public Flux<FormationDTO> streamAvailable() {
+        return stream(cursor -> formationService.findAvailableByCursor(cursor, pageSize));
+    }
+
+    @Override
+    public Flux<FormationDTO> streamByTitre(String titre) {
+        return stream(cursor -> formationService.findAllByCursor(titre, cursor, pageSize));
+    }
+
+    private Flux<FormationDTO> stream(Function<String, CursorPage<FormationDTO>> pages) {
+        return page(pages, null)
+                .expand(previous -> previous.isHasNext() ? page(pages, previous.getNextCursor()) : Mono.empty())
+                .concatMapIterable(CursorPage::getContent, 1);
+    }
+
+    private Mono<CursorPage<FormationDTO>> page(Function<String, CursorPage<FormationDTO>> pages, String cursor) {
+        return Mono.fromCallable(() -> pages.apply(cursor))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -1,29 +1,60 @@
 package com.formation.services.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.formation.cache.CachedResource;
+import com.formation.cache.EntityResponseCache;
+import com.formation.cache.ResourceVersions;
 import com.formation.dto.FormationDTO;
+import com.formation.dto.response.CursorPage;
+import com.formation.dto.response.DeletionReport;
+import com.formation.dto.response.EnrolmentReport;
+import com.formation.exceptions.BadRequestException;
 import com.formation.exceptions.ResourceNotFoundException;
 import com.formation.models.Apprenant;
 import com.formation.models.Formation;
 
 import com.formation.models.FormationStatus;
+import com.formation.models.NiveauFormation;
 import com.formation.repositories.ApprenantRepository;
 import com.formation.repositories.FormationRepository;
 import com.formation.repositories.FormateurRepository;
+import com.formation.repositories.projections.AssociationLink;
+import com.formation.repositories.projections.EnrolmentCandidate;
+import com.formation.repositories.projections.FormationSummary;
+import com.formation.search.FormationSearchIndex;
+import com.formation.search.SearchResults;
 import com.formation.services.interfaces.IFormationService;
+import com.formation.utils.BulkDeletes;
+import com.formation.utils.CursorPagination;
+import com.formation.utils.ETags;
 import com.formation.utils.FormationMapper;
+import com.formation.utils.MergePatch;
 import com.formation.validation.FormationValidator;
 import com.formation.validation.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Types;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,12 +63,25 @@ import java.util.stream.Collectors;
 public class FormationServiceImpl implements IFormationService {
     private static final Logger logger = LoggerFactory.getLogger(FormationServiceImpl.class);
     private static final String FORMATION_NOT_FOUND = "Formation not found with id: ";
+    private static final int IN_CLAUSE_BATCH_SIZE = 500;
+    private static final int MAX_ENROLMENT_BATCH = 1000;
+
+    private static final String INSERT_ENROLMENT = "INSERT INTO formation_apprenant (formation_id, apprenant_id) "
+            + "VALUES (?, ?)";
+    private static final String DELETE_ENROLMENT = "DELETE FROM formation_apprenant "
+            + "WHERE formation_id = ? AND apprenant_id = ?";
+    private static final int[] ENROLMENT_TYPES = { Types.BIGINT, Types.BIGINT };
 
     private final FormationRepository formationRepository;
     private final ApprenantRepository apprenantRepository;
     private final FormateurRepository formateurRepository;
     private final FormationMapper formationMapper;
     private final FormationValidator formationValidator;
+    private final FormationSearchIndex formationSearchIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityResponseCache responseCache;
+    private final ResourceVersions resourceVersions;
+    private final MergePatch mergePatch;
 
     @Override
     @Transactional
@@ -47,7 +91,13 @@ public class FormationServiceImpl implements IFormationService {
             formationValidator.validateForCreate(formationDTO);
             Formation formation = formationMapper.toEntity(formationDTO);
             Formation savedFormation = formationRepository.save(formation);
+            formationSearchIndex.index(savedFormation);
+            if (savedFormation.getFormateur() != null) {
+                resourceVersions.touch(CachedResource.FORMATEUR, savedFormation.getFormateur().getId());
+            }
             return formationMapper.toDTO(savedFormation);
+        } catch (ValidationException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error while saving formation", e);
             throw new ValidationException("Erreur lors de la sauvegarde de la formation", e);
@@ -55,83 +105,177 @@ public class FormationServiceImpl implements IFormationService {
     }
 
     @Override
-    public FormationDTO update(Long id, FormationDTO formationDTO) {
+    @Transactional
+    public FormationDTO update(Long id, FormationDTO formationDTO, Long expectedVersion) {
         logger.info("Updating formation with id: {}", id);
         formationValidator.validateForUpdate(id, formationDTO);
         return formationRepository.findById(id)
                 .map(existingFormation -> {
+                    ETags.checkVersion(expectedVersion, existingFormation.getVersion());
+                    // the roster is replaced by the DTO's: its previous apprenants change too
+                    touchAssociations(existingFormation);
                     Formation formation = formationMapper.toEntity(formationDTO);
                     formation.setId(id);
-                    return formationMapper.toDTO(formationRepository.save(formation));
+                    formation.setVersion(existingFormation.getVersion());
+                    Formation savedFormation = formationRepository.save(formation);
+                    formationRepository.resyncInscrits(id);
+                    formationSearchIndex.index(savedFormation);
+                    if (savedFormation.getFormateur() != null) {
+                        resourceVersions.touch(CachedResource.FORMATEUR, savedFormation.getFormateur().getId());
+                    }
+                    return formationMapper.toDTO(savedFormation);
                 })
                 .orElseThrow(() -> new ResourceNotFoundException(FORMATION_NOT_FOUND + id));
     }
 
+    /**
+     * Unlike {@link #update}, leaves the roster alone and writes only the fields of
+     * the patch, so changing a titre or a statut is one short UPDATE.
+     */
     @Override
     @Transactional
-    public void delete(Long id) {
-        logger.info("Deleting formation with id: {}", id);
+    public FormationDTO patch(Long id, JsonNode patch, Long expectedVersion) {
+        logger.info("Patching formation with id: {}", id);
         Formation formation = formationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(FORMATION_NOT_FOUND + id));
+        ETags.checkVersion(expectedVersion, formation.getVersion());
+        Set<String> fields = MergePatch.fields(patch);
+        FormationDTO patched = mergePatch.apply(formationMapper.toDTO(formation, Collections.emptySet()), patch,
+                FormationDTO.class, FormationMapper.PATCHABLE_FIELDS);
+        formationValidator.validateForPatch(id, patched, fields);
+        if (patched.getStatut() != formation.getStatut()) {
+            formationValidator.validateStatusTransition(formation.getStatut(), patched.getStatut());
+        }
+        if (fields.contains("capaciteMax")
+                && formationRepository.updateCapaciteMax(id, patched.getCapaciteMax()) == 0) {
+            throw new ValidationException("La capacité maximale ne peut pas être inférieure au nombre d'inscrits");
+        }
 
-        // Clear formateur if any
-        if (formation.getFormateur() != null) {
-            formation.setFormateur(null);
+        Long previousFormateurId = formation.getFormateur() != null ? formation.getFormateur().getId() : null;
+        formationMapper.patchFormation(patched, fields, formation);
+        formationSearchIndex.index(formation);
+        responseCache.evict(CachedResource.FORMATION, id);
+        if (!Objects.equals(previousFormateurId, patched.getFormateurId())) {
+            resourceVersions.touch(CachedResource.FORMATEUR, previousFormateurId, patched.getFormateurId());
         }
+        return formationMapper.toDTO(formation);
+    }
 
-        // Clear apprenants
-        formation.getApprenants().clear();
-        formationRepository.save(formation);
-        formationRepository.flush();
+    @Override
+    @Transactional
+    public void delete(Long id, Long expectedVersion) {
+        logger.info("Deleting formation with id: {}", id);
+        Long version = formationRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(FORMATION_NOT_FOUND + id));
+        ETags.checkVersion(expectedVersion, version);
+        deleteExisting(formationRepository.findFormateurLinks(Collections.singleton(id)));
+    }
 
-        formationRepository.delete(formation);
+    @Override
+    @Transactional
+    public DeletionReport deleteAll(List<Long> ids) {
+        List<Long> requested = BulkDeletes.distinctIds(ids);
+        logger.info("Deleting {} formations", requested.size());
+        List<AssociationLink> formateurLinks = formationRepository.findFormateurLinks(requested);
+        if (!formateurLinks.isEmpty()) {
+            deleteExisting(formateurLinks);
+        }
+        return DeletionReport.of(requested, formateurLinks.stream()
+                .map(AssociationLink::getOwnerId)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Deletes existing formations, given as links to their formateur, with their
+     * enrolments: the formations are deleted by one statement and Hibernate deletes
+     * their join rows by another, without loading any collection.
+     */
+    private void deleteExisting(List<AssociationLink> formateurLinks) {
+        List<Long> ids = formateurLinks.stream()
+                .map(AssociationLink::getOwnerId)
+                .collect(Collectors.toList());
+        responseCache.evict(CachedResource.FORMATION, ids);
+        resourceVersions.touch(CachedResource.FORMATEUR, formateurLinks.stream()
+                .map(AssociationLink::getTargetId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        resourceVersions.touch(CachedResource.APPRENANT, formationRepository.findApprenantLinks(ids).stream()
+                .map(AssociationLink::getTargetId)
+                .collect(Collectors.toSet()));
+        formationRepository.deleteByIdIn(ids);
+        ids.forEach(formationSearchIndex::remove);
     }
 
     @Override
     public Optional<FormationDTO> findById(Long id) {
-        return formationRepository.findById(id)
-                .map(formationMapper::toDTO);
+        return responseCache.dto(CachedResource.FORMATION, id, key -> formationRepository.findById(key)
+                .map(formationMapper::toDTO));
+    }
+
+    @Override
+    public Optional<Long> findVersion(Long id) {
+        return formationRepository.findVersionById(id);
     }
 
     @Override
     public List<FormationDTO> findAll() {
-        return formationRepository.findAll().stream()
-                .map(formationMapper::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(formationRepository.findAllSummaries());
     }
 
     @Override
     public Page<FormationDTO> findAll(Pageable pageable) {
-        return formationRepository.findAll(pageable)
-                .map(formationMapper::toDTO);
+        Page<FormationSummary> summaries = formationRepository.findAllSummaries(pageable);
+        Map<Long, Set<Long>> apprenantIds = loadApprenantIds(summaries.getContent());
+        return summaries.map(summary -> formationMapper.toDTO(summary, apprenantIds.get(summary.getId())));
+    }
+
+    @Override
+    public CursorPage<FormationDTO> findAllByCursor(String titre, String cursor, int size) {
+        String filter = titre != null ? titre : "";
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<FormationSummary> rows;
+        if (cursor == null) {
+            rows = formationRepository.findFirstPageByDateDebut(filter, limit);
+        } else {
+            CursorPagination.Cursor position = CursorPagination.decode(cursor);
+            rows = formationRepository.findNextPageByDateDebut(filter, parseDateDebut(cursor, position),
+                    position.getId(), limit);
+        }
+        return toCursorPage(rows, size);
     }
 
     @Override
     public List<FormationDTO> findByStatut(FormationStatus statut) {
-        return formationRepository.findByStatut(statut).stream()
-                .map(formationMapper::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(formationRepository.findSummariesByStatut(statut));
     }
 
     @Override
     public List<FormationDTO> findBetweenDates(LocalDateTime debut, LocalDateTime fin) {
-        return formationRepository.findFormationsBetweenDates(debut, fin).stream()
-                .map(formationMapper::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(formationRepository.findSummariesBetweenDates(debut, fin));
     }
 
     @Override
     public List<FormationDTO> findByFormateurId(Long formateurId) {
-        return formationRepository.findByFormateurId(formateurId).stream()
-                .map(formationMapper::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(formationRepository.findSummariesByFormateurId(formateurId));
     }
 
     @Override
     public List<FormationDTO> findWithAvailablePlaces() {
-        return formationRepository.findFormationsWithAvailablePlaces().stream()
-                .map(formationMapper::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(formationRepository.findSummariesWithAvailablePlaces());
+    }
+
+    @Override
+    public CursorPage<FormationDTO> findAvailableByCursor(String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<FormationSummary> rows;
+        if (cursor == null) {
+            rows = formationRepository.findFirstAvailablePage(limit);
+        } else {
+            CursorPagination.Cursor position = CursorPagination.decode(cursor);
+            rows = formationRepository.findNextAvailablePage(parseDateDebut(cursor, position), position.getId(),
+                    limit);
+        }
+        return toCursorPage(rows, size);
     }
 
     @Override
@@ -147,8 +291,12 @@ public class FormationServiceImpl implements IFormationService {
 
             formationValidator.validateAddApprenant(formation, apprenant);
 
-            formation.getApprenants().add(apprenant);
-            formationRepository.save(formation);
+            if (formationRepository.reservePlaces(formationId, 1) == 0) {
+                throw new ValidationException("La formation a atteint sa capacité maximale");
+            }
+            // the join row is written directly, the roster of the formation is not loaded
+            jdbcTemplate.update(INSERT_ENROLMENT, formationId, apprenantId);
+            touchEnrolment(formationId, Collections.singleton(apprenantId));
             return true;
         } catch (ResourceNotFoundException | ValidationException e) {
             logger.error("Error in apprenant assignment", e);
@@ -176,10 +324,115 @@ public class FormationServiceImpl implements IFormationService {
         boolean removed = formation.getApprenants().remove(apprenant);
         if (removed) {
             formationRepository.save(formation);
+            formationRepository.decrementInscrits(Collections.singleton(formationId));
+            touchEnrolment(formationId, Collections.singleton(apprenantId));
         }
         return removed;
     }
 
+    /**
+     * Enrols a batch of apprenants in one transaction: candidates, existing
+     * enrolments and "already in a running formation" flags are fetched with one
+     * query each, eligibility is decided in memory, then the join rows are written
+     * as a single JDBC batch after the places were reserved on the counter.
+     * Ineligible ids are reported, never fatal; the free places go to the eligible
+     * ids in request order.
+     */
+    @Override
+    @Transactional
+    public EnrolmentReport addApprenantsToFormation(Long formationId, List<Long> apprenantIds) {
+        logger.info("Adding {} apprenants to formation {}", apprenantIds == null ? 0 : apprenantIds.size(),
+                formationId);
+        Formation formation = findPlannedForEnrolment(formationId, apprenantIds,
+                "Les apprenants ne peuvent être ajoutés qu'aux formations planifiées");
+        EnrolmentReport report = new EnrolmentReport(formationId, apprenantIds.size());
+        Set<Long> requested = distinctIds(apprenantIds, report);
+        if (requested.isEmpty()) {
+            return report;
+        }
+
+        Map<Long, NiveauFormation> niveaux = new HashMap<>();
+        for (EnrolmentCandidate candidate : apprenantRepository.findEnrolmentCandidates(requested)) {
+            niveaux.put(candidate.getId(), candidate.getNiveau());
+        }
+        Set<Long> enrolled = new HashSet<>(formationRepository.findEnrolledApprenantIds(formationId, requested));
+        Set<Long> enCours = new HashSet<>(
+                apprenantRepository.findIdsEnrolledWithStatut(requested, FormationStatus.EN_COURS));
+
+        List<Long> eligible = new ArrayList<>();
+        for (Long apprenantId : requested) {
+            String rejection;
+            if (!niveaux.containsKey(apprenantId)) {
+                rejection = "Apprenant non trouvé";
+            } else if (enrolled.contains(apprenantId)) {
+                rejection = "L'apprenant est déjà inscrit à cette formation";
+            } else if (enCours.contains(apprenantId)) {
+                rejection = "L'apprenant ne peut pas être inscrit car il est déjà en formation";
+            } else if (formation.getNiveau() != null && niveaux.get(apprenantId) != null
+                    && formation.getNiveau() != niveaux.get(apprenantId)) {
+                rejection = "Le niveau de l'apprenant ne correspond pas au niveau requis pour la formation";
+            } else {
+                rejection = null;
+            }
+
+            if (rejection != null) {
+                report.reject(apprenantId, rejection);
+            } else {
+                eligible.add(apprenantId);
+            }
+        }
+
+        int granted = reservePlaces(formationId, eligible.size());
+        List<Object[]> rows = new ArrayList<>(granted);
+        for (Long apprenantId : eligible) {
+            if (rows.size() < granted) {
+                rows.add(new Object[] { formationId, apprenantId });
+                report.accept(apprenantId);
+            } else {
+                report.reject(apprenantId, "La formation a atteint sa capacité maximale");
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ENROLMENT, rows, ENROLMENT_TYPES);
+            touchEnrolment(formationId, report.getAccepted());
+        }
+        logger.info("Formation {}: {} apprenants enrolled, {} rejected", formationId, rows.size(),
+                report.getRejected().size());
+        return report;
+    }
+
+    @Override
+    @Transactional
+    public EnrolmentReport removeApprenantsFromFormation(Long formationId, List<Long> apprenantIds) {
+        logger.info("Removing {} apprenants from formation {}", apprenantIds == null ? 0 : apprenantIds.size(),
+                formationId);
+        findPlannedForEnrolment(formationId, apprenantIds,
+                "Les apprenants ne peuvent être retirés que des formations planifiées");
+        EnrolmentReport report = new EnrolmentReport(formationId, apprenantIds.size());
+        Set<Long> requested = distinctIds(apprenantIds, report);
+        if (requested.isEmpty()) {
+            return report;
+        }
+
+        Set<Long> enrolled = new HashSet<>(formationRepository.findEnrolledApprenantIds(formationId, requested));
+        List<Object[]> rows = new ArrayList<>();
+        for (Long apprenantId : requested) {
+            if (enrolled.contains(apprenantId)) {
+                rows.add(new Object[] { formationId, apprenantId });
+                report.accept(apprenantId);
+            } else {
+                report.reject(apprenantId, "L'apprenant n'est pas inscrit à cette formation");
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_ENROLMENT, rows, ENROLMENT_TYPES);
+            formationRepository.removeInscrits(formationId, rows.size());
+            touchEnrolment(formationId, report.getAccepted());
+        }
+        return report;
+    }
+
     @Override
     @Transactional
     public void updateStatus(Long id, FormationStatus newStatus) {
@@ -189,27 +442,33 @@ public class FormationServiceImpl implements IFormationService {
         formationValidator.validateStatusTransition(formation.getStatut(), newStatus);
         formation.setStatut(newStatus);
         formationRepository.save(formation);
+        responseCache.evict(CachedResource.FORMATION, id);
     }
 
     @Override
-    public List<FormationDTO> findPlannedFormationsByNiveau(String niveau) {
-        return formationRepository.findPlannedFormationsByNiveau(niveau).stream()
-                .map(formationMapper::toDTO)
-                .collect(Collectors.toList());
+    public List<FormationDTO> findPlannedFormationsByNiveau(NiveauFormation niveau) {
+        return toDTOs(formationRepository.findPlannedSummariesByNiveau(niveau));
     }
 
     @Override
     public Page<FormationDTO> searchByTitre(String titre, Pageable pageable) {
         logger.info("Searching formations by titre containing: {}", titre);
-        return formationRepository.findByTitreContaining(titre, pageable)
-                .map(formationMapper::toDTO);
+        Optional<List<Long>> rankedIds = pageable.getSort().isSorted()
+                ? Optional.empty()
+                : formationSearchIndex.search(titre);
+        Page<FormationSummary> summaries = rankedIds.isPresent()
+                ? SearchResults.page(rankedIds.get(), pageable,
+                        formationRepository::findSummariesByIdIn, FormationSummary::getId)
+                : formationRepository.findSummariesByTitreContaining(titre, pageable);
+        Map<Long, Set<Long>> apprenantIds = loadApprenantIds(summaries.getContent());
+        return summaries.map(summary -> formationMapper.toDTO(summary, apprenantIds.get(summary.getId())));
     }
 
     @Override
     public boolean isFormationFull(Long formationId) {
         logger.info("Checking if formation {} is full", formationId);
         return formationRepository.findById(formationId)
-                .map(formation -> formation.getApprenants().size() >= formation.getCapaciteMax())
+                .map(formation -> formation.getInscrits() >= formation.getCapaciteMax())
                 .orElseThrow(() -> new ResourceNotFoundException(FORMATION_NOT_FOUND + formationId));
     }
 
@@ -237,4 +496,121 @@ public class FormationServiceImpl implements IFormationService {
             throw new ValidationException("Erreur lors de la récupération des formations à venir", e);
         }
     }
+
+    /**
+     * Reserves up to {@code wanted} places and returns how many were taken. When
+     * the all-or-nothing update loses a race, it is retried with what is left,
+     * strictly fewer places each round.
+     */
+    private int reservePlaces(Long formationId, int wanted) {
+        int count = wanted;
+        while (count > 0) {
+            if (formationRepository.reservePlaces(formationId, count) > 0) {
+                return count;
+            }
+            Integer remaining = formationRepository.findRemainingPlaces(formationId);
+            count = Math.min(count - 1, remaining != null ? remaining : 0);
+        }
+        return 0;
+    }
+
+    /**
+     * Neither side of an enrolment is written through its own row, so both
+     * versions are moved explicitly.
+     */
+    private void touchEnrolment(Long formationId, Collection<Long> apprenantIds) {
+        resourceVersions.touch(CachedResource.FORMATION, formationId);
+        resourceVersions.touch(CachedResource.APPRENANT, apprenantIds);
+    }
+
+    /**
+     * Marks the formation and everything linked to it as changed, before a write
+     * that may change those links.
+     */
+    private void touchAssociations(Formation formation) {
+        resourceVersions.touch(CachedResource.FORMATION, formation.getId());
+        if (formation.getFormateur() != null) {
+            resourceVersions.touch(CachedResource.FORMATEUR, formation.getFormateur().getId());
+        }
+        resourceVersions.touch(CachedResource.APPRENANT, formationRepository
+                .findApprenantLinks(Collections.singleton(formation.getId())).stream()
+                .map(AssociationLink::getTargetId)
+                .collect(Collectors.toList()));
+    }
+
+    private Formation findPlannedForEnrolment(Long formationId, List<Long> apprenantIds, String notPlannedMessage) {
+        if (apprenantIds == null || apprenantIds.isEmpty()) {
+            throw new BadRequestException("La liste des apprenants est obligatoire", "apprenantIds", apprenantIds);
+        }
+        if (apprenantIds.size() > MAX_ENROLMENT_BATCH) {
+            throw new BadRequestException("Au plus " + MAX_ENROLMENT_BATCH + " apprenants par requête",
+                    "apprenantIds", apprenantIds.size());
+        }
+        Formation formation = formationRepository.findById(formationId)
+                .orElseThrow(() -> new ResourceNotFoundException(FORMATION_NOT_FOUND + formationId));
+        if (formation.getStatut() != FormationStatus.PLANIFIEE) {
+            throw new ValidationException(notPlannedMessage);
+        }
+        return formation;
+    }
+
+    /**
+     * Keeps the first occurrence of every id, in request order; null and repeated
+     * ids are rejected in the report.
+     */
+    private Set<Long> distinctIds(List<Long> apprenantIds, EnrolmentReport report) {
+        Set<Long> distinct = new LinkedHashSet<>();
+        for (Long apprenantId : apprenantIds) {
+            if (apprenantId == null) {
+                report.reject(null, "ID d'apprenant manquant");
+            } else if (!distinct.add(apprenantId)) {
+                report.reject(apprenantId, "ID en double dans la requête");
+            }
+        }
+        return distinct;
+    }
+
+    private LocalDateTime parseDateDebut(String cursor, CursorPagination.Cursor position) {
+        try {
+            return LocalDateTime.parse(position.getSortKey());
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Curseur invalide", "cursor", cursor);
+        }
+    }
+
+    private CursorPage<FormationDTO> toCursorPage(List<FormationSummary> rows, int size) {
+        Map<Long, Set<Long>> apprenantIds = loadApprenantIds(rows);
+        return CursorPagination.toPage(rows, size, summary -> summary.getDateDebut().toString(),
+                FormationSummary::getId, summary -> formationMapper.toDTO(summary, apprenantIds.get(summary.getId())));
+    }
+
+    private List<FormationDTO> toDTOs(List<FormationSummary> summaries) {
+        Map<Long, Set<Long>> apprenantIds = loadApprenantIds(summaries);
+        return summaries.stream()
+                .map(summary -> formationMapper.toDTO(summary, apprenantIds.get(summary.getId())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Resolves the apprenant ids of all the given formations with one join-table
+     * query per batch of {@value #IN_CLAUSE_BATCH_SIZE} formations.
+     */
+    private Map<Long, Set<Long>> loadApprenantIds(Collection<FormationSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Long> formationIds = summaries.stream()
+                .map(FormationSummary::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, Set<Long>> apprenantIds = new HashMap<>();
+        for (int from = 0; from < formationIds.size(); from += IN_CLAUSE_BATCH_SIZE) {
+            List<Long> batch = new ArrayList<>(
+                    formationIds.subList(from, Math.min(from + IN_CLAUSE_BATCH_SIZE, formationIds.size())));
+            for (AssociationLink link : formationRepository.findApprenantLinks(batch)) {
+                apprenantIds.computeIfAbsent(link.getOwnerId(), id -> new HashSet<>()).add(link.getTargetId());
+            }
+        }
+        return apprenantIds;
+    }
 }
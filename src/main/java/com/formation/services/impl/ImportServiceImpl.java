@@ -0,0 +1,640 @@
+package com.formation.services.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.formation.cache.CachedResource;
+import com.formation.cache.EntityResponseCache;
+import com.formation.cache.ResourceVersions;
+import com.formation.dto.ApprenantDTO;
+import com.formation.dto.FormateurDTO;
+import com.formation.dto.response.ImportReport;
+import com.formation.exceptions.BadRequestException;
+import com.formation.models.IdSequences;
+import com.formation.models.NiveauFormation;
+import com.formation.repositories.ApprenantRepository;
+import com.formation.repositories.ClasseRepository;
+import com.formation.repositories.FormateurRepository;
+import com.formation.repositories.projections.IdLabel;
+import com.formation.search.ApprenantSearchIndex;
+import com.formation.search.FormateurSearchIndex;
+import com.formation.services.interfaces.IImportService;
+import com.formation.utils.CsvReader;
+import com.formation.utils.ImportFormat;
+import com.formation.utils.ReferenceDataCache;
+import com.formation.utils.SequenceIdAllocator;
+import com.formation.validation.ApprenantValidator;
+import com.formation.validation.FormateurValidator;
+import com.formation.validation.base.Violations;
+import com.formation.validation.exception.ValidationException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of apprenants and formateurs.
+ * <p>
+ * The body is parsed as a stream and handled in chunks of {@value #CHUNK_SIZE}
+ * rows. For each chunk the field checks run in parallel, email uniqueness and
+ * classe existence are checked with one query each, then the rows are written
+ * with JDBC batches in their own transaction: unknown emails are inserted, with
+ * ids reserved by blocks from the entity sequence, and known ones updated
+ * (upsert by email). Invalid rows are reported, never fatal.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImportServiceImpl implements IImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ImportServiceImpl.class);
+    static final int CHUNK_SIZE = 1000;
+
+    private static final String INSERT_APPRENANT = "INSERT INTO apprenants (id, nom, prenom, email, niveau, classe_id, "
+            + "version) VALUES (?, ?, ?, ?, ?, ?, 0)";
+    private static final int[] INSERT_APPRENANT_TYPES = { Types.BIGINT, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.BIGINT };
+    private static final String UPDATE_APPRENANT = "UPDATE apprenants SET nom = ?, prenom = ?, niveau = ?, "
+            + "classe_id = COALESCE(?, classe_id), version = version + 1 WHERE id = ?";
+    private static final int[] UPDATE_APPRENANT_TYPES = { Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BIGINT,
+            Types.BIGINT };
+
+    private static final String INSERT_FORMATEUR = "INSERT INTO formateurs (id, nom, prenom, email, specialite, "
+            + "classe_id, version) VALUES (?, ?, ?, ?, ?, ?, 0)";
+    private static final int[] INSERT_FORMATEUR_TYPES = { Types.BIGINT, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.BIGINT };
+    private static final String UPDATE_FORMATEUR = "UPDATE formateurs SET nom = ?, prenom = ?, specialite = ?, "
+            + "classe_id = COALESCE(?, classe_id), version = version + 1 WHERE id = ?";
+    private static final int[] UPDATE_FORMATEUR_TYPES = { Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BIGINT,
+            Types.BIGINT };
+
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApprenantRepository apprenantRepository;
+    private final FormateurRepository formateurRepository;
+    private final ClasseRepository classeRepository;
+    private final ApprenantValidator apprenantValidator;
+    private final FormateurValidator formateurValidator;
+    private final ApprenantSearchIndex apprenantSearchIndex;
+    private final FormateurSearchIndex formateurSearchIndex;
+    private final SequenceIdAllocator sequenceIdAllocator;
+    private final ReferenceDataCache referenceDataCache;
+    private final EntityResponseCache responseCache;
+    private final ResourceVersions resourceVersions;
+
+    private final Importer<ApprenantDTO> apprenantImporter = new ApprenantImporter();
+    private final Importer<FormateurDTO> formateurImporter = new FormateurImporter();
+
+    @Override
+    public ImportReport importApprenants(InputStream body, ImportFormat format) throws IOException {
+        return run(apprenantImporter, body, format);
+    }
+
+    @Override
+    public ImportReport importFormateurs(InputStream body, ImportFormat format) throws IOException {
+        return run(formateurImporter, body, format);
+    }
+
+    private <D> ImportReport run(Importer<D> importer, InputStream body, ImportFormat format) throws IOException {
+        long start = System.currentTimeMillis();
+        ImportReport report = new ImportReport();
+        Set<String> seenEmails = new HashSet<>();
+        RowSource<D> source = format == ImportFormat.CSV
+                ? new CsvRowSource<>(importer, body)
+                : new JsonRowSource<>(importer, body);
+
+        List<Row<D>> chunk = new ArrayList<>(CHUNK_SIZE);
+        Row<D> row;
+        while ((row = source.next()) != null) {
+            chunk.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                processChunk(importer, chunk, seenEmails, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(importer, chunk, seenEmails, report);
+        }
+
+        logger.info("Imported {}: {} rows, {} created, {} updated, {} rejected in {} ms", importer.name(),
+                report.getTotal(), report.getCreated(), report.getUpdated(), report.getRejected(),
+                System.currentTimeMillis() - start);
+        return report;
+    }
+
+    private <D> void processChunk(Importer<D> importer, List<Row<D>> chunk, Set<String> seenEmails,
+            ImportReport report) {
+        chunk.parallelStream()
+                .filter(Row::isValid)
+                .forEach(row -> {
+                    Violations violations = new Violations();
+                    importer.validate(row.dto, violations);
+                    if (!violations.isEmpty()) {
+                        row.error = violations.message();
+                    }
+                });
+
+        for (Row<D> row : chunk) {
+            if (row.isValid() && !seenEmails.add(importer.email(row.dto))) {
+                row.error = "Email en double dans le fichier";
+            }
+        }
+
+        Set<Long> classeIds = chunk.stream()
+                .filter(Row::isValid)
+                .map(row -> importer.classeId(row.dto))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (!classeIds.isEmpty()) {
+            Set<Long> existingClasses = new HashSet<>(classeRepository.findExistingIds(classeIds));
+            for (Row<D> row : chunk) {
+                Long classeId = row.isValid() ? importer.classeId(row.dto) : null;
+                if (classeId != null && !existingClasses.contains(classeId)) {
+                    row.error = "Classe introuvable avec l'id " + classeId;
+                }
+            }
+        }
+
+        List<Row<D>> valid = chunk.stream()
+                .filter(Row::isValid)
+                .collect(Collectors.toList());
+        if (!valid.isEmpty()) {
+            write(importer, valid, report);
+        }
+
+        for (Row<D> row : chunk) {
+            report.setTotal(report.getTotal() + 1);
+            if (!row.isValid()) {
+                report.reject(row.number, row.dto != null ? importer.email(row.dto) : null, row.error);
+            }
+        }
+    }
+
+    private <D> void write(Importer<D> importer, List<Row<D>> rows, ImportReport report) {
+        List<String> emails = rows.stream()
+                .map(row -> importer.email(row.dto))
+                .collect(Collectors.toList());
+        List<Long> writtenIds = new ArrayList<>(rows.size());
+        try {
+            int[] counts = transactionTemplate.execute(status -> {
+                Map<String, Long> ids = idsByEmail(importer.findIdsByEmail(emails));
+                List<Row<D>> newRows = rows.stream()
+                        .filter(row -> !ids.containsKey(importer.email(row.dto)))
+                        .collect(Collectors.toList());
+                List<Object[]> updates = new ArrayList<>();
+                List<Long> reassigned = new ArrayList<>();
+                Set<Long> classeIds = new HashSet<>();
+                for (Row<D> row : rows) {
+                    Long id = ids.get(importer.email(row.dto));
+                    Long classeId = importer.classeId(row.dto);
+                    if (classeId != null) {
+                        classeIds.add(classeId);
+                    }
+                    if (id != null) {
+                        updates.add(importer.updateArgs(row.dto, id));
+                        if (classeId != null) {
+                            reassigned.add(id);
+                        }
+                    }
+                }
+                if (!reassigned.isEmpty()) {
+                    // the classes these rows move out of change as well
+                    classeIds.addAll(importer.findClasseIds(reassigned));
+                }
+                List<Long> newIds = sequenceIdAllocator.allocate(importer.sequence(), newRows.size());
+                List<Object[]> inserts = new ArrayList<>(newRows.size());
+                for (int i = 0; i < newRows.size(); i++) {
+                    D dto = newRows.get(i).dto;
+                    ids.put(importer.email(dto), newIds.get(i));
+                    inserts.add(importer.insertArgs(dto, newIds.get(i)));
+                }
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(importer.insertSql(), inserts, importer.insertTypes());
+                }
+                if (!updates.isEmpty()) {
+                    jdbcTemplate.batchUpdate(importer.updateSql(), updates, importer.updateTypes());
+                }
+
+                for (Row<D> row : rows) {
+                    Long id = ids.get(importer.email(row.dto));
+                    importer.index(id, row.dto);
+                    writtenIds.add(id);
+                }
+                resourceVersions.touch(CachedResource.CLASSE, classeIds);
+                return new int[] { inserts.size(), updates.size() };
+            });
+            importer.afterWrite(writtenIds);
+            report.setCreated(report.getCreated() + counts[0]);
+            report.setUpdated(report.getUpdated() + counts[1]);
+        } catch (DataAccessException e) {
+            logger.error("Failed to write a chunk of {} {}", rows.size(), importer.name(), e);
+            for (Row<D> row : rows) {
+                row.error = "Échec de l'écriture du lot : " + e.getMostSpecificCause().getMessage();
+            }
+        }
+    }
+
+    private static Map<String, Long> idsByEmail(List<IdLabel> rows) {
+        Map<String, Long> ids = new HashMap<>();
+        for (IdLabel row : rows) {
+            ids.put(row.getLabel(), row.getId());
+        }
+        return ids;
+    }
+
+    private static String cell(Map<String, String> cells, String column) {
+        String value = cells.get(column);
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    private static Long parseId(String value, String column) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Valeur invalide pour " + column + " : " + value);
+        }
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+
+    /**
+     * One parsed row of the body: a DTO, or the reason it could not be read.
+     */
+    private static final class Row<D> {
+        private final int number;
+        private final D dto;
+        private volatile String error;
+
+        private Row(int number, D dto, String error) {
+            this.number = number;
+            this.dto = dto;
+            this.error = error;
+        }
+
+        private boolean isValid() {
+            return error == null;
+        }
+    }
+
+    private interface RowSource<D> {
+        Row<D> next() throws IOException;
+    }
+
+    /**
+     * Reads a JSON array element by element; a malformed element is reported and
+     * ends the import, rows already written are kept.
+     */
+    private final class JsonRowSource<D> implements RowSource<D> {
+        private final Importer<D> importer;
+        private final JsonParser parser;
+        private int number;
+        private boolean finished;
+
+        private JsonRowSource(Importer<D> importer, InputStream body) throws IOException {
+            this.importer = importer;
+            this.parser = objectMapper.getFactory().createParser(body);
+            try {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new BadRequestException("Le corps de la requête doit être un tableau JSON");
+                }
+            } catch (JsonProcessingException e) {
+                throw new BadRequestException("Le corps de la requête doit être un tableau JSON");
+            }
+        }
+
+        @Override
+        public Row<D> next() throws IOException {
+            if (finished) {
+                return null;
+            }
+            number++;
+            JsonNode node;
+            try {
+                JsonToken token = parser.nextToken();
+                if (token == null || token == JsonToken.END_ARRAY) {
+                    finished = true;
+                    return null;
+                }
+                node = parser.readValueAsTree();
+            } catch (JsonProcessingException e) {
+                finished = true;
+                return new Row<>(number, null, "JSON invalide, lecture interrompue : " + e.getOriginalMessage());
+            }
+            try {
+                return new Row<>(number, objectMapper.treeToValue(node, importer.type()), null);
+            } catch (JsonProcessingException e) {
+                return new Row<>(number, null, "Ligne invalide : " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads CSV records; the first record is the header naming the DTO fields.
+     */
+    private static final class CsvRowSource<D> implements RowSource<D> {
+        private final Importer<D> importer;
+        private final CsvReader reader;
+        private final List<String> header;
+        private int number;
+
+        private CsvRowSource(Importer<D> importer, InputStream body) throws IOException {
+            this.importer = importer;
+            this.reader = new CsvReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            List<String> columns = reader.readRow();
+            if (columns == null) {
+                throw new BadRequestException("Le fichier CSV doit commencer par une ligne d'en-tête");
+            }
+            this.header = columns.stream()
+                    .map(column -> column.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public Row<D> next() throws IOException {
+            List<String> cells;
+            do {
+                cells = reader.readRow();
+            } while (cells != null && cells.size() == 1 && cells.get(0).trim().isEmpty());
+            if (cells == null) {
+                return null;
+            }
+            number++;
+            if (cells.size() != header.size()) {
+                return new Row<>(number, null, "Nombre de colonnes incorrect : " + cells.size() + " au lieu de "
+                        + header.size());
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                values.put(header.get(i), cells.get(i));
+            }
+            try {
+                return new Row<>(number, importer.fromCsv(values), null);
+            } catch (ValidationException e) {
+                return new Row<>(number, null, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * What differs between the apprenant and formateur imports.
+     */
+    private abstract static class Importer<D> {
+        abstract String name();
+
+        abstract Class<D> type();
+
+        abstract D fromCsv(Map<String, String> cells);
+
+        abstract void validate(D dto, Violations violations);
+
+        abstract String email(D dto);
+
+        abstract Long classeId(D dto);
+
+        abstract List<IdLabel> findIdsByEmail(List<String> emails);
+
+        abstract List<Long> findClasseIds(Collection<Long> ids);
+
+        abstract String insertSql();
+
+        abstract int[] insertTypes();
+
+        abstract String sequence();
+
+        abstract Object[] insertArgs(D dto, Long id);
+
+        abstract String updateSql();
+
+        abstract int[] updateTypes();
+
+        abstract Object[] updateArgs(D dto, Long id);
+
+        abstract void index(Long id, D dto);
+
+        /** Called once a chunk is committed, for caches the JDBC writes went around. */
+        abstract void afterWrite(List<Long> ids);
+    }
+
+    private final class ApprenantImporter extends Importer<ApprenantDTO> {
+        @Override
+        String name() {
+            return "apprenants";
+        }
+
+        @Override
+        Class<ApprenantDTO> type() {
+            return ApprenantDTO.class;
+        }
+
+        @Override
+        ApprenantDTO fromCsv(Map<String, String> cells) {
+            String niveau = cell(cells, "niveau");
+            NiveauFormation parsedNiveau = null;
+            if (niveau != null) {
+                try {
+                    parsedNiveau = NiveauFormation.valueOf(niveau.toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new ValidationException("Valeur invalide pour niveau : " + niveau);
+                }
+            }
+            return ApprenantDTO.builder()
+                    .nom(cell(cells, "nom"))
+                    .prenom(cell(cells, "prenom"))
+                    .email(cell(cells, "email"))
+                    .niveau(parsedNiveau)
+                    .classeId(parseId(cell(cells, "classeid"), "classeId"))
+                    .build();
+        }
+
+        @Override
+        void validate(ApprenantDTO dto, Violations violations) {
+            apprenantValidator.checkFields(dto, violations);
+        }
+
+        @Override
+        String email(ApprenantDTO dto) {
+            return trim(dto.getEmail());
+        }
+
+        @Override
+        Long classeId(ApprenantDTO dto) {
+            return dto.getClasseId();
+        }
+
+        @Override
+        List<IdLabel> findIdsByEmail(List<String> emails) {
+            return apprenantRepository.findIdsByEmailIn(emails);
+        }
+
+        @Override
+        List<Long> findClasseIds(Collection<Long> ids) {
+            return apprenantRepository.findClasseIds(ids);
+        }
+
+        @Override
+        String insertSql() {
+            return INSERT_APPRENANT;
+        }
+
+        @Override
+        int[] insertTypes() {
+            return INSERT_APPRENANT_TYPES;
+        }
+
+        @Override
+        String sequence() {
+            return IdSequences.APPRENANTS;
+        }
+
+        @Override
+        Object[] insertArgs(ApprenantDTO dto, Long id) {
+            return new Object[] { id, dto.getNom(), dto.getPrenom(), email(dto), dto.getNiveau().name(),
+                    dto.getClasseId() };
+        }
+
+        @Override
+        String updateSql() {
+            return UPDATE_APPRENANT;
+        }
+
+        @Override
+        int[] updateTypes() {
+            return UPDATE_APPRENANT_TYPES;
+        }
+
+        @Override
+        Object[] updateArgs(ApprenantDTO dto, Long id) {
+            return new Object[] { dto.getNom(), dto.getPrenom(), dto.getNiveau().name(), dto.getClasseId(), id };
+        }
+
+        @Override
+        void index(Long id, ApprenantDTO dto) {
+            apprenantSearchIndex.index(id, dto.getNom(), dto.getPrenom());
+        }
+
+        @Override
+        void afterWrite(List<Long> ids) {
+            responseCache.evict(CachedResource.APPRENANT, ids);
+        }
+    }
+
+    private final class FormateurImporter extends Importer<FormateurDTO> {
+        @Override
+        String name() {
+            return "formateurs";
+        }
+
+        @Override
+        Class<FormateurDTO> type() {
+            return FormateurDTO.class;
+        }
+
+        @Override
+        FormateurDTO fromCsv(Map<String, String> cells) {
+            return FormateurDTO.builder()
+                    .nom(cell(cells, "nom"))
+                    .prenom(cell(cells, "prenom"))
+                    .email(cell(cells, "email"))
+                    .specialite(cell(cells, "specialite"))
+                    .classeId(parseId(cell(cells, "classeid"), "classeId"))
+                    .build();
+        }
+
+        @Override
+        void validate(FormateurDTO dto, Violations violations) {
+            formateurValidator.checkFields(dto, violations);
+        }
+
+        @Override
+        String email(FormateurDTO dto) {
+            return trim(dto.getEmail());
+        }
+
+        @Override
+        Long classeId(FormateurDTO dto) {
+            return dto.getClasseId();
+        }
+
+        @Override
+        List<IdLabel> findIdsByEmail(List<String> emails) {
+            return formateurRepository.findIdsByEmailIn(emails);
+        }
+
+        @Override
+        List<Long> findClasseIds(Collection<Long> ids) {
+            return formateurRepository.findClasseIds(ids);
+        }
+
+        @Override
+        String insertSql() {
+            return INSERT_FORMATEUR;
+        }
+
+        @Override
+        int[] insertTypes() {
+            return INSERT_FORMATEUR_TYPES;
+        }
+
+        @Override
+        String sequence() {
+            return IdSequences.FORMATEURS;
+        }
+
+        @Override
+        Object[] insertArgs(FormateurDTO dto, Long id) {
+            return new Object[] { id, dto.getNom(), dto.getPrenom(), email(dto), trim(dto.getSpecialite()),
+                    dto.getClasseId() };
+        }
+
+        @Override
+        String updateSql() {
+            return UPDATE_FORMATEUR;
+        }
+
+        @Override
+        int[] updateTypes() {
+            return UPDATE_FORMATEUR_TYPES;
+        }
+
+        @Override
+        Object[] updateArgs(FormateurDTO dto, Long id) {
+            return new Object[] { dto.getNom(), dto.getPrenom(), trim(dto.getSpecialite()), dto.getClasseId(), id };
+        }
+
+        @Override
+        void index(Long id, FormateurDTO dto) {
+            formateurSearchIndex.index(id, dto.getNom(), dto.getPrenom());
+        }
+
+        @Override
+        void afterWrite(List<Long> ids) {
+            referenceDataCache.evictFormateurs();
+            responseCache.evict(CachedResource.FORMATEUR, ids);
+        }
+    }
+}
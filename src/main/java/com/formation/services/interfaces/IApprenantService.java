@@ -1,6 +1,9 @@
 package com.formation.services.interfaces;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.formation.dto.ApprenantDTO;
+import com.formation.dto.response.CursorPage;
+import com.formation.dto.response.DeletionReport;
 import com.formation.models.NiveauFormation;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,16 +14,32 @@ import java.util.Optional;
 public interface IApprenantService {
     ApprenantDTO save(ApprenantDTO apprenantDTO);
 
-    ApprenantDTO update(Long id, ApprenantDTO apprenantDTO);
+    default ApprenantDTO update(Long id, ApprenantDTO apprenantDTO) {
+        return update(id, apprenantDTO, null);
+    }
 
-    void delete(Long id);
+    ApprenantDTO update(Long id, ApprenantDTO apprenantDTO, Long expectedVersion);
+
+    ApprenantDTO patch(Long id, JsonNode patch, Long expectedVersion);
+
+    default void delete(Long id) {
+        delete(id, null);
+    }
+
+    void delete(Long id, Long expectedVersion);
+
+    DeletionReport deleteAll(List<Long> ids);
 
     Optional<ApprenantDTO> findById(Long id);
 
+    Optional<Long> findVersion(Long id);
+
     List<ApprenantDTO> findAll();
 
     Page<ApprenantDTO> findAll(Pageable pageable);
 
+    CursorPage<ApprenantDTO> findAllByCursor(String term, String cursor, int size);
+
     Optional<ApprenantDTO> findByEmail(String email);
 
     List<ApprenantDTO> findByNiveau(NiveauFormation niveau);
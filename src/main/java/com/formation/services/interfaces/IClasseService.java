@@ -1,6 +1,8 @@
 package com.formation.services.interfaces;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.formation.dto.ClasseDTO;
+import com.formation.dto.response.DeletionReport;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -10,12 +12,26 @@ import java.util.Optional;
 public interface IClasseService {
     ClasseDTO save(ClasseDTO classeDTO);
 
-    ClasseDTO update(Long id, ClasseDTO classeDTO);
+    default ClasseDTO update(Long id, ClasseDTO classeDTO) {
+        return update(id, classeDTO, null);
+    }
 
-    void delete(Long id);
+    ClasseDTO update(Long id, ClasseDTO classeDTO, Long expectedVersion);
+
+    ClasseDTO patch(Long id, JsonNode patch, Long expectedVersion);
+
+    default void delete(Long id) {
+        delete(id, null);
+    }
+
+    void delete(Long id, Long expectedVersion);
+
+    DeletionReport deleteAll(List<Long> ids);
 
     Optional<ClasseDTO> findById(Long id);
 
+    Optional<Long> findVersion(Long id);
+
     List<ClasseDTO> findAll();
 
     Page<ClasseDTO> findAll(Pageable pageable);
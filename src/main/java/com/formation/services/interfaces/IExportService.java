@@ -0,0 +1,16 @@
+package com.formation.services.interfaces;
+
+import com.formation.utils.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface IExportService {
+    void exportApprenants(ExportFormat format, OutputStream out) throws IOException;
+
+    void exportFormateurs(ExportFormat format, OutputStream out) throws IOException;
+
+    void exportFormations(ExportFormat format, OutputStream out) throws IOException;
+
+    void exportClasses(ExportFormat format, OutputStream out) throws IOException;
+}
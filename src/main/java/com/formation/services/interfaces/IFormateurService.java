@@ -1,6 +1,9 @@
 package com.formation.services.interfaces;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.formation.dto.FormateurDTO;
+import com.formation.dto.response.CursorPage;
+import com.formation.dto.response.DeletionReport;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -10,20 +13,38 @@ import java.util.Optional;
 public interface IFormateurService {
     FormateurDTO save(FormateurDTO formateurDTO);
 
-    FormateurDTO update(Long id, FormateurDTO formateurDTO);
+    default FormateurDTO update(Long id, FormateurDTO formateurDTO) {
+        return update(id, formateurDTO, null);
+    }
 
-    void delete(Long id);
+    FormateurDTO update(Long id, FormateurDTO formateurDTO, Long expectedVersion);
+
+    FormateurDTO patch(Long id, JsonNode patch, Long expectedVersion);
+
+    default void delete(Long id) {
+        delete(id, null);
+    }
+
+    void delete(Long id, Long expectedVersion);
+
+    DeletionReport deleteAll(List<Long> ids);
 
     Optional<FormateurDTO> findById(Long id);
 
+    Optional<Long> findVersion(Long id);
+
     List<FormateurDTO> findAll();
 
     Page<FormateurDTO> findAll(Pageable pageable);
 
+    CursorPage<FormateurDTO> findAllByCursor(String term, String cursor, int size);
+
     Optional<FormateurDTO> findByEmail(String email);
 
     List<FormateurDTO> findBySpecialite(String specialite);
 
+    List<String> findAllSpecialites();
+
     Page<FormateurDTO> searchByNomOrPrenom(String searchTerm, Pageable pageable);
 
     List<FormateurDTO> findAvailableFormateursBySpecialite(String specialite, int maxFormations);
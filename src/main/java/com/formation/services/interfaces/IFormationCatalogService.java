@@ -0,0 +1,10 @@
+package com.formation.services.interfaces;
+
+import com.formation.dto.FormationDTO;
+import reactor.core.publisher.Flux;
+
+public interface IFormationCatalogService {
+    Flux<FormationDTO> streamAvailable();
+
+    Flux<FormationDTO> streamByTitre(String titre);
+}
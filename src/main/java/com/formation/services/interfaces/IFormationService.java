@@ -1,7 +1,12 @@
 package com.formation.services.interfaces;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.formation.dto.FormationDTO;
+import com.formation.dto.response.CursorPage;
+import com.formation.dto.response.DeletionReport;
+import com.formation.dto.response.EnrolmentReport;
 import com.formation.models.FormationStatus;
+import com.formation.models.NiveauFormation;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -12,16 +17,44 @@ import java.util.Optional;
 public interface IFormationService {
     FormationDTO save(FormationDTO formationDTO);
 
-    FormationDTO update(Long id, FormationDTO formationDTO);
+    default FormationDTO update(Long id, FormationDTO formationDTO) {
+        return update(id, formationDTO, null);
+    }
 
-    void delete(Long id);
+    /**
+     * Updates the formation unless its version is no longer {@code expectedVersion}; a
+     * null expected version skips the check.
+     */
+    FormationDTO update(Long id, FormationDTO formationDTO, Long expectedVersion);
+
+    /**
+     * Applies a JSON Merge Patch (RFC 7396): the fields it names are written, the
+     * roster is left as is.
+     */
+    FormationDTO patch(Long id, JsonNode patch, Long expectedVersion);
+
+    default void delete(Long id) {
+        delete(id, null);
+    }
+
+    void delete(Long id, Long expectedVersion);
+
+    DeletionReport deleteAll(List<Long> ids);
 
     Optional<FormationDTO> findById(Long id);
 
+    /**
+     * Reads the version of the formation alone, to answer a conditional GET without
+     * mapping it.
+     */
+    Optional<Long> findVersion(Long id);
+
     List<FormationDTO> findAll();
 
     Page<FormationDTO> findAll(Pageable pageable);
 
+    CursorPage<FormationDTO> findAllByCursor(String titre, String cursor, int size);
+
     List<FormationDTO> findByStatut(FormationStatus statut);
 
     List<FormationDTO> findBetweenDates(LocalDateTime debut, LocalDateTime fin);
@@ -30,13 +63,19 @@ public interface IFormationService {
 
     List<FormationDTO> findWithAvailablePlaces();
 
+    CursorPage<FormationDTO> findAvailableByCursor(String cursor, int size);
+
     boolean addApprenantToFormation(Long formationId, Long apprenantId);
 
     boolean removeApprenantFromFormation(Long formationId, Long apprenantId);
 
+    EnrolmentReport addApprenantsToFormation(Long formationId, List<Long> apprenantIds);
+
+    EnrolmentReport removeApprenantsFromFormation(Long formationId, List<Long> apprenantIds);
+
     void updateStatus(Long id, FormationStatus newStatus);
 
-    List<FormationDTO> findPlannedFormationsByNiveau(String niveau);
+    List<FormationDTO> findPlannedFormationsByNiveau(NiveauFormation niveau);
 
     Page<FormationDTO> searchByTitre(String titre, Pageable pageable);
 
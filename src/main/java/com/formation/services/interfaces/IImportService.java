@@ -0,0 +1,13 @@
+package com.formation.services.interfaces;
+
+import com.formation.dto.response.ImportReport;
+import com.formation.utils.ImportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IImportService {
+    ImportReport importApprenants(InputStream body, ImportFormat format) throws IOException;
+
+    ImportReport importFormateurs(InputStream body, ImportFormat format) throws IOException;
+}
@@ -1,14 +1,23 @@
 package com.formation.utils;
 
 import com.formation.dto.ApprenantDTO;
+import com.formation.exceptions.ResourceNotFoundException;
 import com.formation.models.Apprenant;
 import com.formation.repositories.ClasseRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 @Component
 @RequiredArgsConstructor
 public class ApprenantMapper {
+    public static final Set<String> PATCHABLE_FIELDS = Collections.unmodifiableSet(new LinkedHashSet<>(
+            Arrays.asList("nom", "prenom", "email", "niveau", "classeId")));
+
     private final ClasseRepository classeRepository;
 
     public ApprenantDTO toDTO(Apprenant apprenant) {
@@ -23,6 +32,7 @@ public class ApprenantMapper {
                 .email(apprenant.getEmail())
                 .niveau(apprenant.getNiveau())
                 .classeId(apprenant.getClasse() != null ? apprenant.getClasse().getId() : null)
+                .version(apprenant.getVersion())
                 .build();
     }
 
@@ -47,4 +57,29 @@ public class ApprenantMapper {
                     .ifPresent(apprenant::setClasse);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Copies the fields named by a merge patch; a null classeId removes the apprenant
+     * from its classe, unlike a PUT.
+     */
+    public void patchApprenant(ApprenantDTO dto, Set<String> fields, Apprenant apprenant) {
+        if (fields.contains("nom")) {
+            apprenant.setNom(dto.getNom());
+        }
+        if (fields.contains("prenom")) {
+            apprenant.setPrenom(dto.getPrenom());
+        }
+        if (fields.contains("email")) {
+            apprenant.setEmail(dto.getEmail());
+        }
+        if (fields.contains("niveau")) {
+            apprenant.setNiveau(dto.getNiveau());
+        }
+        if (fields.contains("classeId")) {
+            apprenant.setClasse(dto.getClasseId() != null
+                    ? classeRepository.findById(dto.getClasseId()).orElseThrow(
+                            () -> new ResourceNotFoundException("Classe not found with id: " + dto.getClasseId()))
+                    : null);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.formation.utils;
+
+import com.formation.exceptions.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Checks the ids of a bulk delete. The services delete them with a handful of set
+ * statements whatever their number, but the ids travel as IN lists, hence the cap.
+ */
+public final class BulkDeletes {
+    public static final int MAX_IDS = 1000;
+
+    private BulkDeletes() {
+    }
+
+    /**
+     * The distinct ids, in their order, or a 400 when the list is empty or too long.
+     */
+    public static List<Long> distinctIds(Collection<Long> ids) {
+        if (ids == null || ids.stream().allMatch(Objects::isNull)) {
+            throw new BadRequestException("La liste des IDs est obligatoire", "ids", ids);
+        }
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.size() > MAX_IDS) {
+            throw new BadRequestException("Au plus " + MAX_IDS + " IDs par requête", "ids", distinct.size());
+        }
+        return new ArrayList<>(distinct);
+    }
+}
@@ -10,8 +10,12 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Component
@@ -19,27 +23,43 @@ import java.util.stream.Collectors;
 public class ClasseMapper {
     private static final Logger logger = LoggerFactory.getLogger(ClasseMapper.class);
 
+    /** The rosters have their own endpoints, which check the classe capacity. */
+    public static final Set<String> PATCHABLE_FIELDS = Collections.unmodifiableSet(new LinkedHashSet<>(
+            Arrays.asList("nom", "numSalle")));
+
     public ClasseDTO toDTO(Classe classe) {
         if (classe == null) {
             logger.debug("Converting null Classe to null DTO");
             return null;
         }
 
-        logger.debug("Converting Classe with ID {} to DTO", classe.getId());
-        return ClasseDTO.builder()
-                .id(classe.getId())
-                .nom(classe.getNom())
-                .numSalle(classe.getNumSalle())
-                .apprenantIds(Optional.ofNullable(classe.getApprenants())
+        return toDTO(classe,
+                Optional.ofNullable(classe.getApprenants())
                         .map(apprenants -> apprenants.stream()
                                 .map(Apprenant::getId)
                                 .collect(Collectors.toSet()))
-                        .orElse(new HashSet<>()))
-                .formateurIds(Optional.ofNullable(classe.getFormateurs())
+                        .orElse(null),
+                Optional.ofNullable(classe.getFormateurs())
                         .map(formateurs -> formateurs.stream()
                                 .map(Formateur::getId)
                                 .collect(Collectors.toSet()))
-                        .orElse(new HashSet<>()))
+                        .orElse(null));
+    }
+
+    public ClasseDTO toDTO(Classe classe, Set<Long> apprenantIds, Set<Long> formateurIds) {
+        if (classe == null) {
+            logger.debug("Converting null Classe to null DTO");
+            return null;
+        }
+
+        logger.debug("Converting Classe with ID {} to DTO", classe.getId());
+        return ClasseDTO.builder()
+                .id(classe.getId())
+                .nom(classe.getNom())
+                .numSalle(classe.getNumSalle())
+                .apprenantIds(apprenantIds != null ? apprenantIds : new HashSet<>())
+                .formateurIds(formateurIds != null ? formateurIds : new HashSet<>())
+                .version(classe.getVersion())
                 .build();
     }
 
@@ -72,4 +92,14 @@ public class ClasseMapper {
             classe.setNumSalle(dto.getNumSalle().trim());
         }
     }
-}
\ No newline at end of file
+
+    public void patchClasse(ClasseDTO dto, Set<String> fields, Classe classe) {
+        logger.debug("Patching Classe {} fields {}", classe.getId(), fields);
+        if (fields.contains("nom")) {
+            classe.setNom(dto.getNom().trim());
+        }
+        if (fields.contains("numSalle")) {
+            classe.setNumSalle(dto.getNumSalle().trim());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.formation.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+/**
+ * Minimal RFC 4180 writer. Collections are written as a single cell with their
+ * elements separated by '|'.
+ */
+public final class CsvWriter {
+    private static final char SEPARATOR = ',';
+    private static final String COLLECTION_SEPARATOR = "|";
+
+    private final Writer writer;
+
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public void writeRow(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(SEPARATOR);
+            }
+            writer.write(escape(format(values[i])));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(COLLECTION_SEPARATOR));
+        }
+        return value.toString();
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(SEPARATOR) < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
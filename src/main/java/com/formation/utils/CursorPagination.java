@@ -0,0 +1,75 @@
+package com.formation.utils;
+
+import com.formation.dto.response.CursorPage;
+import com.formation.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers for keyset (seek) pagination. A cursor is the opaque, URL-safe encoding
+ * of the (sort key, id) pair of the last row returned; the next page is read with
+ * a "(key, id) > (:key, :id)" predicate instead of an OFFSET.
+ */
+public final class CursorPagination {
+    private static final char SEPARATOR = '\n';
+
+    private CursorPagination() {
+    }
+
+    public static String encode(String sortKey, Long id) {
+        String raw = sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new BadRequestException("Curseur invalide", "cursor", cursor);
+            }
+            return new Cursor(raw.substring(0, separator), Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Curseur invalide", "cursor", cursor);
+        }
+    }
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code size + 1}: the extra row
+     * only tells whether a next page exists and is not returned.
+     */
+    public static <E, D> CursorPage<D> toPage(List<E> rows, int size, Function<E, String> sortKey,
+            Function<E, Long> id, Function<E, D> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            E last = content.get(content.size() - 1);
+            nextCursor = encode(sortKey.apply(last), id.apply(last));
+        }
+        return new CursorPage<>(content.stream().map(mapper).collect(Collectors.toList()), size, hasNext,
+                nextCursor);
+    }
+
+    public static final class Cursor {
+        private final String sortKey;
+        private final Long id;
+
+        public Cursor(String sortKey, Long id) {
+            this.sortKey = sortKey;
+            this.id = id;
+        }
+
+        public String getSortKey() {
+            return sortKey;
+        }
+
+        public Long getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.formation.utils;
+
+import com.formation.cache.CachedBody;
+import com.formation.exceptions.BadRequestException;
+import com.formation.exceptions.PreconditionFailedException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Strong ETags built from the entity versions, and the conditional request
+ * headers that send them back: {@code If-None-Match} on the reads,
+ * {@code If-Match} on the updates and deletes.
+ */
+public final class ETags {
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETags() {
+    }
+
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header matches the current version, with
+     * the weak comparison that RFC 7232 prescribes for this header.
+     */
+    public static boolean matches(String ifNoneMatch, Long version) {
+        if (ifNoneMatch == null || version == null) {
+            return false;
+        }
+        String current = of(version);
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith(WEAK_PREFIX)) {
+                candidate = candidate.substring(WEAK_PREFIX.length());
+            }
+            if (ANY.equals(candidate) || current.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the version required by an {@code If-Match} header, or null when
+     * there is no header or when it accepts any version. A weak or malformed tag
+     * can never match a strong ETag.
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.contains(",")) {
+            throw new BadRequestException("L'en-tête If-Match doit contenir un seul ETag", "If-Match", ifMatch);
+        }
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("L'ETag " + tag + " ne correspond à aucune version", null);
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("L'ETag " + tag + " ne correspond à aucune version", null);
+        }
+    }
+
+    /**
+     * Throws a 412 unless the current version is the one the client expects; a
+     * null expectation accepts any version.
+     */
+    public static void checkVersion(Long expectedVersion, Long currentVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+            throw new PreconditionFailedException("La ressource a été modifiée depuis la version " + expectedVersion,
+                    currentVersion);
+        }
+    }
+
+    /**
+     * A 200 response for a cached body, revalidated by the client on every use.
+     */
+    public static ResponseEntity<byte[]> ok(CachedBody body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (body.getVersion() != null) {
+            response.eTag(of(body.getVersion()));
+        }
+        return response.contentType(MediaType.APPLICATION_JSON).body(body.getJson());
+    }
+
+    public static <T> ResponseEntity<T> notModified(Long version) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(of(version))
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.formation.utils;
+
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Output formats of the /export endpoints.
+ */
+public enum ExportFormat {
+    NDJSON(new MediaType("application", "x-ndjson", StandardCharsets.UTF_8), "ndjson"),
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String contentDisposition(String baseName) {
+        return "attachment; filename=\"" + baseName + "." + extension + "\"";
+    }
+}
@@ -1,6 +1,7 @@
 package com.formation.utils;
 
 import com.formation.dto.FormateurDTO;
+import com.formation.exceptions.ResourceNotFoundException;
 import com.formation.models.Formateur;
 import com.formation.models.Formation;
 import com.formation.repositories.ClasseRepository;
@@ -8,12 +9,19 @@ import com.formation.repositories.FormationRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 public class FormateurMapper {
+    public static final Set<String> PATCHABLE_FIELDS = Collections.unmodifiableSet(new LinkedHashSet<>(
+            Arrays.asList("nom", "prenom", "email", "specialite", "classeId")));
+
     private final ClasseRepository classeRepository;
     private final FormationRepository formationRepository;
 
@@ -22,15 +30,24 @@ public class FormateurMapper {
             return null;
         }
 
+        return toDTO(formateur, formateur.getFormations().stream()
+                .map(Formation::getId)
+                .collect(Collectors.toSet()));
+    }
+
+    public FormateurDTO toDTO(Formateur formateur, Set<Long> formationIds) {
+        if (formateur == null) {
+            return null;
+        }
+
         FormateurDTO.FormateurDTOBuilder builder = FormateurDTO.builder()
                 .id(formateur.getId())
                 .nom(formateur.getNom())
                 .prenom(formateur.getPrenom())
                 .email(formateur.getEmail())
                 .specialite(formateur.getSpecialite())
-                .formationIds(formateur.getFormations().stream()
-                        .map(Formation::getId)
-                        .collect(Collectors.toSet()));
+                .formationIds(formationIds != null ? formationIds : new HashSet<>())
+                .version(formateur.getVersion());
 
         if (formateur.getClasse() != null) {
             builder.classeId(formateur.getClasse().getId());
@@ -65,4 +82,25 @@ public class FormateurMapper {
         formateur.setEmail(dto.getEmail());
         formateur.setSpecialite(dto.getSpecialite());
     }
-}
\ No newline at end of file
+
+    public void patchFormateur(FormateurDTO dto, Set<String> fields, Formateur formateur) {
+        if (fields.contains("nom")) {
+            formateur.setNom(dto.getNom());
+        }
+        if (fields.contains("prenom")) {
+            formateur.setPrenom(dto.getPrenom());
+        }
+        if (fields.contains("email")) {
+            formateur.setEmail(dto.getEmail());
+        }
+        if (fields.contains("specialite")) {
+            formateur.setSpecialite(dto.getSpecialite());
+        }
+        if (fields.contains("classeId")) {
+            formateur.setClasse(dto.getClasseId() != null
+                    ? classeRepository.findById(dto.getClasseId()).orElseThrow(
+                            () -> new ResourceNotFoundException("Classe not found with id: " + dto.getClasseId()))
+                    : null);
+        }
+    }
+}
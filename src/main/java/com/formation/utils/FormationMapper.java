@@ -6,15 +6,28 @@ import com.formation.models.Apprenant;
 
 import com.formation.repositories.ApprenantRepository;
 import com.formation.repositories.FormateurRepository;
+import com.formation.repositories.projections.FormationSummary;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 public class FormationMapper {
+    /**
+     * Everything but the roster, which the enrolment endpoints change against the
+     * capacity, and the counters derived from it.
+     */
+    public static final Set<String> PATCHABLE_FIELDS = Collections.unmodifiableSet(new LinkedHashSet<>(
+            Arrays.asList("titre", "niveau", "prerequis", "capaciteMin", "capaciteMax", "dateDebut", "dateFin",
+                    "formateurId", "statut")));
+
     private final FormateurRepository formateurRepository;
     private final ApprenantRepository apprenantRepository;
 
@@ -23,6 +36,16 @@ public class FormationMapper {
             return null;
         }
 
+        return toDTO(formation, formation.getApprenants() != null ? formation.getApprenants().stream()
+                .map(Apprenant::getId)
+                .collect(Collectors.toSet()) : null);
+    }
+
+    public FormationDTO toDTO(Formation formation, Set<Long> apprenantIds) {
+        if (formation == null) {
+            return null;
+        }
+
         return FormationDTO.builder()
                 .id(formation.getId())
                 .titre(formation.getTitre())
@@ -34,9 +57,28 @@ public class FormationMapper {
                 .dateFin(formation.getDateFin())
                 .statut(formation.getStatut())
                 .formateurId(formation.getFormateur() != null ? formation.getFormateur().getId() : null)
-                .apprenantIds(formation.getApprenants() != null ? formation.getApprenants().stream()
-                        .map(Apprenant::getId)
-                        .collect(Collectors.toSet()) : new HashSet<>())
+                .apprenantIds(apprenantIds != null ? apprenantIds : new HashSet<>())
+                .version(formation.getVersion())
+                .build();
+    }
+
+    public FormationDTO toDTO(FormationSummary summary, Set<Long> apprenantIds) {
+        if (summary == null) {
+            return null;
+        }
+
+        return FormationDTO.builder()
+                .id(summary.getId())
+                .titre(summary.getTitre())
+                .niveau(summary.getNiveau())
+                .prerequis(summary.getPrerequis())
+                .capaciteMin(summary.getCapaciteMin())
+                .capaciteMax(summary.getCapaciteMax())
+                .dateDebut(summary.getDateDebut())
+                .dateFin(summary.getDateFin())
+                .statut(summary.getStatut())
+                .formateurId(summary.getFormateurId())
+                .apprenantIds(apprenantIds != null ? apprenantIds : new HashSet<>())
                 .build();
     }
 
@@ -64,4 +106,40 @@ public class FormationMapper {
 
         return formation;
     }
-}
\ No newline at end of file
+
+    /**
+     * Copies the fields named by a merge patch onto the managed formation, leaving
+     * its roster and inscrits alone.
+     */
+    public void patchFormation(FormationDTO dto, Set<String> fields, Formation formation) {
+        if (fields.contains("titre")) {
+            formation.setTitre(dto.getTitre());
+        }
+        if (fields.contains("niveau")) {
+            formation.setNiveau(dto.getNiveau());
+        }
+        if (fields.contains("prerequis")) {
+            formation.setPrerequis(dto.getPrerequis());
+        }
+        if (fields.contains("capaciteMin")) {
+            formation.setCapaciteMin(dto.getCapaciteMin());
+        }
+        if (fields.contains("capaciteMax")) {
+            formation.setCapaciteMax(dto.getCapaciteMax());
+        }
+        if (fields.contains("dateDebut")) {
+            formation.setDateDebut(dto.getDateDebut());
+        }
+        if (fields.contains("dateFin")) {
+            formation.setDateFin(dto.getDateFin());
+        }
+        if (fields.contains("statut")) {
+            formation.setStatut(dto.getStatut());
+        }
+        if (fields.contains("formateurId")) {
+            formation.setFormateur(dto.getFormateurId() != null
+                    ? formateurRepository.findById(dto.getFormateurId()).orElse(null)
+                    : null);
+        }
+    }
+}
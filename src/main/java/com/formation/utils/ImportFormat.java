@@ -0,0 +1,31 @@
+package com.formation.utils;
+
+import com.formation.exceptions.BadRequestException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * Body formats accepted by the /import endpoints.
+ */
+public enum ImportFormat {
+    JSON,
+    CSV;
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    public static ImportFormat fromContentType(String contentType) {
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return JSON;
+            }
+            if (mediaType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))) {
+                return CSV;
+            }
+        } catch (InvalidMediaTypeException e) {
+            // reported below
+        }
+        throw new BadRequestException("Type de contenu non supporté, utilisez application/json ou text/csv",
+                "Content-Type", contentType);
+    }
+}
@@ -0,0 +1,79 @@
+package com.formation.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.formation.exceptions.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JSON Merge Patch (RFC 7396) for the PATCH endpoints. The patch is merged into
+ * the current representation, which is read back as a DTO so that the whole result
+ * goes through the update rules; the services then copy only the fields named by
+ * the patch onto the managed entity, and the entities' dynamic updates write only
+ * the columns whose value actually changed.
+ */
+@Component
+@RequiredArgsConstructor
+public class MergePatch {
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The DTO that results from applying the patch to the current one, or a 400
+     * when the patch names a field outside {@code patchable} or does not bind.
+     */
+    public <T> T apply(T current, JsonNode patch, Class<T> type, Set<String> patchable) {
+        for (String field : fields(patch)) {
+            if (!patchable.contains(field)) {
+                throw new BadRequestException("Le champ " + field + " ne peut pas être modifié par PATCH, champs acceptés : "
+                        + patchable, field, patch.get(field));
+            }
+        }
+        JsonNode merged = merge(objectMapper.valueToTree(current), patch);
+        try {
+            return objectMapper.treeToValue(merged, type);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Document de patch invalide : " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * The top-level fields of the patch: the ones to write, null meaning removal.
+     */
+    public static Set<String> fields(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new BadRequestException("Le document de patch doit être un objet JSON");
+        }
+        Set<String> fields = new LinkedHashSet<>();
+        patch.fieldNames().forEachRemaining(fields::add);
+        return fields;
+    }
+
+    static JsonNode merge(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch;
+        }
+        ObjectNode result = target != null && target.isObject()
+                ? (ObjectNode) target
+                : ((ObjectNode) patch).objectNode();
+        Iterator<Map.Entry<String, JsonNode>> entries = patch.fields();
+        while (entries.hasNext()) {
+            Map.Entry<String, JsonNode> entry = entries.next();
+            if (entry.getValue().isNull()) {
+                result.remove(entry.getKey());
+            } else {
+                result.set(entry.getKey(), merge(result.get(entry.getKey()), entry.getValue()));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+package com.formation.utils;
+
+import com.formation.dto.response.CacheRegionStats;
+import com.formation.models.CacheRegions;
+import com.formation.models.Classe;
+import com.formation.models.Formateur;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Access to the second-level cache of the reference data (formateurs, classes
+ * and the formateur queries): eviction for writes made outside Hibernate, and
+ * hit/miss statistics per region.
+ */
+@Component
+public class ReferenceDataCache {
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataCache.class);
+    private static final String[] ENTITY_REGIONS = { CacheRegions.FORMATEURS, CacheRegions.CLASSES };
+    private static final String[] QUERY_REGIONS = { CacheRegions.FORMATEUR_SPECIALITES,
+            CacheRegions.FORMATEURS_BY_SPECIALITE };
+
+    private final SessionFactory sessionFactory;
+
+    public ReferenceDataCache(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Drops the cached formateurs and formateur query results. Call it after
+     * writing the formateurs table with JDBC.
+     */
+    public void evictFormateurs() {
+        sessionFactory.getCache().evictEntityData(Formateur.class);
+        for (String region : QUERY_REGIONS) {
+            sessionFactory.getCache().evictQueryRegion(region);
+        }
+    }
+
+    public void evictClasses() {
+        sessionFactory.getCache().evictEntityData(Classe.class);
+    }
+
+    public void evictAll() {
+        logger.info("Evicting reference data from the second-level cache");
+        evictFormateurs();
+        evictClasses();
+    }
+
+    public List<CacheRegionStats> statistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        List<CacheRegionStats> regions = new ArrayList<>();
+        for (String region : ENTITY_REGIONS) {
+            regions.add(toStats(region, statistics.getDomainDataRegionStatistics(region)));
+        }
+        for (String region : QUERY_REGIONS) {
+            regions.add(toStats(region, statistics.getQueryRegionStatistics(region)));
+        }
+        return regions;
+    }
+
+    private CacheRegionStats toStats(String region, CacheRegionStatistics statistics) {
+        if (statistics == null) {
+            return new CacheRegionStats(region, 0, 0, 0, 0);
+        }
+        long hits = statistics.getHitCount();
+        long misses = statistics.getMissCount();
+        double hitRatio = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        return new CacheRegionStats(region, hits, misses, statistics.getPutCount(), hitRatio);
+    }
+}
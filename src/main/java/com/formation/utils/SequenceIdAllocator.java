@@ -0,0 +1,54 @@
+package com.formation.utils;
+
+import com.formation.models.IdSequences;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reserves entity ids from the {@link IdSequences} sequences for writers that
+ * bypass Hibernate (JDBC batches). Uses the same block semantics as Hibernate's
+ * pooled-lo optimizer so both can share a sequence without collisions.
+ */
+@Component
+public class SequenceIdAllocator {
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public SequenceIdAllocator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    /**
+     * Returns {@code count} unused ids, calling the sequence once per block of
+     * {@value IdSequences#ALLOCATION_SIZE}.
+     */
+    public List<Long> allocate(String sequence, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            long first = nextValue(sequence);
+            for (long id = first; id < first + IdSequences.ALLOCATION_SIZE && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    public long nextValue(String sequence) {
+        Long value = jdbcTemplate.queryForObject(dialect.getSequenceNextValString(sequence), Long.class);
+        if (value == null) {
+            throw new IllegalStateException("Sequence " + sequence + " returned no value");
+        }
+        return value;
+    }
+
+    public void restart(String sequence, long value) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + value);
+    }
+}
@@ -2,30 +2,43 @@ package com.formation.validation;
 
 import com.formation.dto.ApprenantDTO;
 import com.formation.models.Apprenant;
-import com.formation.models.NiveauFormation;
 import com.formation.repositories.ApprenantRepository;
 import com.formation.validation.base.EntityValidator;
+import com.formation.validation.base.RuleSet;
+import com.formation.validation.base.TextChecks;
+import com.formation.validation.base.TextRule;
+import com.formation.validation.base.Violations;
 import com.formation.validation.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
-import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
 public class ApprenantValidator implements EntityValidator<ApprenantDTO> {
-    private static final String EMAIL_REGEX = "^[A-Za-z0-9+_.-]+@(.+)$";
-    private static final String NAME_REGEX = "^[A-Za-z\\s-]{2,50}$";
-    private static final List<String> VALID_NIVEAUX = Arrays.asList("DEBUTANT", "INTERMEDIAIRE", "AVANCE");
+    private static final RuleSet<ApprenantDTO> FIELD_RULES = RuleSet.<ApprenantDTO>builder()
+            .text("nom", ApprenantDTO::getNom,
+                    TextRule.required("Le nom est obligatoire"),
+                    TextRule.of(TextChecks::isName, "Le nom doit contenir entre 2 et 50 caractères alphabétiques"))
+            .text("prenom", ApprenantDTO::getPrenom,
+                    TextRule.required("Le prénom est obligatoire"),
+                    TextRule.of(TextChecks::isName, "Le prénom doit contenir entre 2 et 50 caractères alphabétiques"))
+            .text("email", ApprenantDTO::getEmail,
+                    TextRule.required("Format d'email invalide"),
+                    TextRule.of(TextChecks::isEmail, "Format d'email invalide"))
+            .notNull("niveau", ApprenantDTO::getNiveau, "Le niveau est obligatoire")
+            .build();
 
     private final ApprenantRepository apprenantRepository;
 
     @Override
     public void validateForCreate(ApprenantDTO apprenant) {
-        validateCommon(apprenant);
-        validateUniqueEmail(apprenant.getEmail(), null);
+        Violations violations = new Violations();
+        FIELD_RULES.check(apprenant, violations);
+        checkUniqueEmail(apprenant.getEmail(), null, violations);
+        violations.throwIfAny();
     }
 
     @Override
@@ -33,52 +46,42 @@ public class ApprenantValidator implements EntityValidator<ApprenantDTO> {
         if (id == null) {
             throw new ValidationException("L'ID de l'apprenant est obligatoire pour la mise à jour");
         }
-        validateCommon(apprenant);
-        validateUniqueEmail(apprenant.getEmail(), id);
+        Violations violations = new Violations();
+        FIELD_RULES.check(apprenant, violations);
+        checkUniqueEmail(apprenant.getEmail(), id, violations);
+        violations.throwIfAny();
     }
 
-    private void validateCommon(ApprenantDTO apprenant) {
-        validateNom(apprenant.getNom());
-        validatePrenom(apprenant.getPrenom());
-        validateEmail(apprenant.getEmail());
-        validateNiveau(apprenant.getNiveau());
-    }
-
-    private void validateNom(String nom) {
-        if (nom == null || nom.trim().isEmpty()) {
-            throw new ValidationException("Le nom est obligatoire");
-        }
-        if (!nom.matches(NAME_REGEX)) {
-            throw new ValidationException("Le nom doit contenir entre 2 et 50 caractères alphabétiques");
+    @Override
+    public void validateForPatch(Long id, ApprenantDTO apprenant, Set<String> fields) {
+        Violations violations = new Violations();
+        FIELD_RULES.check(apprenant, violations);
+        if (fields.contains("email")) {
+            checkUniqueEmail(apprenant.getEmail(), id, violations);
         }
+        violations.throwIfAny();
     }
 
-    private void validatePrenom(String prenom) {
-        if (prenom == null || prenom.trim().isEmpty()) {
-            throw new ValidationException("Le prénom est obligatoire");
-        }
-        if (!prenom.matches(NAME_REGEX)) {
-            throw new ValidationException("Le prénom doit contenir entre 2 et 50 caractères alphabétiques");
-        }
+    /**
+     * Checks the fields of an apprenant without querying the database. Used by the
+     * bulk import, which checks email uniqueness for a whole chunk at once.
+     */
+    public void checkFields(ApprenantDTO apprenant, Violations violations) {
+        FIELD_RULES.check(apprenant, violations);
     }
 
-    private void validateEmail(String email) {
-        if (email == null || !email.matches(EMAIL_REGEX)) {
-            throw new ValidationException("Format d'email invalide");
-        }
+    public void validateFields(ApprenantDTO apprenant) {
+        FIELD_RULES.validate(apprenant);
     }
 
-    private void validateUniqueEmail(String email, Long excludeId) {
+    private void checkUniqueEmail(String email, Long excludeId, Violations violations) {
+        if (violations.has("email")) {
+            return;
+        }
         Optional<Apprenant> existingApprenant = apprenantRepository.findByEmail(email);
         if (existingApprenant.isPresent() &&
                 (excludeId == null || !existingApprenant.get().getId().equals(excludeId))) {
-            throw new ValidationException("Cet email est déjà utilisé");
-        }
-    }
-
-    private void validateNiveau(NiveauFormation niveau) {
-        if (niveau == null) {
-            throw new ValidationException("Le niveau est obligatoire");
+            violations.add("email", "Cet email est déjà utilisé");
         }
     }
-}
\ No newline at end of file
+}
@@ -5,28 +5,53 @@ import com.formation.models.FormationStatus;
 import com.formation.repositories.ApprenantRepository;
 import com.formation.repositories.ClasseRepository;
 import com.formation.repositories.FormateurRepository;
+import com.formation.repositories.projections.AssociationLink;
 import com.formation.validation.base.EntityValidator;
+import com.formation.validation.base.RuleSet;
+import com.formation.validation.base.TextChecks;
+import com.formation.validation.base.TextRule;
+import com.formation.validation.base.Violations;
 import com.formation.validation.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
 public class ClasseValidator implements EntityValidator<ClasseDTO> {
+    private static final RuleSet<ClasseDTO> FIELD_RULES = RuleSet.<ClasseDTO>builder()
+            .text("nom", ClasseDTO::getNom,
+                    TextRule.required("Le nom de la classe est obligatoire"),
+                    TextRule.minLength(2, "Le nom de la classe doit contenir au moins 2 caractères"),
+                    TextRule.maxLength(50, "Le nom de la classe ne peut pas dépasser 50 caractères"))
+            .text("numSalle", ClasseDTO::getNumSalle,
+                    TextRule.required("Le numéro de salle est obligatoire"),
+                    TextRule.of(TextChecks::isInt, "Le numéro de salle doit être un nombre valide"),
+                    TextRule.of(numSalle -> TextChecks.parseInt(numSalle) > 0, "Le numéro de salle doit être positif"),
+                    TextRule.of(numSalle -> TextChecks.parseInt(numSalle) <= 999,
+                            "Le numéro de salle ne peut pas dépasser 999"))
+            .build();
+
+    private static final RuleSet<ClasseDTO> CREATE_RULES = RuleSet.<ClasseDTO>builder()
+            .rule("classe", classe -> classe.getApprenantIds() == null && classe.getFormateurIds() == null,
+                    "Une nouvelle classe ne peut pas avoir d'apprenants ou de formateurs à la création")
+            .build();
+
     private final ClasseRepository classeRepository;
     private final ApprenantRepository apprenantRepository;
     private final FormateurRepository formateurRepository;
 
     @Override
     public void validateForCreate(ClasseDTO classe) {
-        validateCommon(classe);
-        validateUniqueNumSalle(classe.getNumSalle(), null);
-        if (classe.getApprenantIds() != null || classe.getFormateurIds() != null) {
-            throw new ValidationException(
-                    "Une nouvelle classe ne peut pas avoir d'apprenants ou de formateurs à la création");
-        }
+        Violations violations = new Violations();
+        FIELD_RULES.check(classe, violations);
+        checkUniqueNumSalle(classe.getNumSalle(), null, violations);
+        CREATE_RULES.check(classe, violations);
+        violations.throwIfAny();
     }
 
     @Override
@@ -34,90 +59,88 @@ public class ClasseValidator implements EntityValidator<ClasseDTO> {
         if (id == null) {
             throw new ValidationException("L'ID de la classe est obligatoire pour la mise à jour");
         }
-        validateCommon(classe);
-        validateUniqueNumSalle(classe.getNumSalle(), id);
+        Violations violations = new Violations();
+        FIELD_RULES.check(classe, violations);
+        checkUniqueNumSalle(classe.getNumSalle(), id, violations);
         if (classe.getApprenantIds() != null) {
-            validateExistingApprenants(classe.getApprenantIds());
+            checkExistingApprenants(id, classe.getApprenantIds(), violations);
         }
         if (classe.getFormateurIds() != null) {
-            validateExistingFormateurs(classe.getFormateurIds());
+            checkExistingFormateurs(id, classe.getFormateurIds(), violations);
         }
+        violations.throwIfAny();
     }
 
-    private void validateCommon(ClasseDTO classe) {
-        validateNom(classe);
-        validateNumSalle(classe);
-    }
-
-    private void validateNom(ClasseDTO classe) {
-        if (classe.getNom() == null || classe.getNom().trim().isEmpty()) {
-            throw new ValidationException("Le nom de la classe est obligatoire");
-        }
-        String nom = classe.getNom().trim();
-        if (nom.length() < 2) {
-            throw new ValidationException("Le nom de la classe doit contenir au moins 2 caractères");
-        }
-        if (nom.length() > 50) {
-            throw new ValidationException("Le nom de la classe ne peut pas dépasser 50 caractères");
+    @Override
+    public void validateForPatch(Long id, ClasseDTO classe, Set<String> fields) {
+        Violations violations = new Violations();
+        FIELD_RULES.check(classe, violations);
+        if (fields.contains("numSalle")) {
+            checkUniqueNumSalle(classe.getNumSalle(), id, violations);
         }
+        violations.throwIfAny();
     }
 
-    private void validateNumSalle(ClasseDTO classe) {
-        if (classe.getNumSalle() == null || classe.getNumSalle().trim().isEmpty()) {
-            throw new ValidationException("Le numéro de salle est obligatoire");
+    private void checkUniqueNumSalle(String numSalle, Long excludeId, Violations violations) {
+        if (violations.has("numSalle")) {
+            return;
         }
-
-        String numSalle = classe.getNumSalle().trim();
-        try {
-            int numSalleInt = Integer.parseInt(numSalle);
-            if (numSalleInt <= 0) {
-                throw new ValidationException("Le numéro de salle doit être positif");
-            }
-            if (numSalleInt > 999) {
-                throw new ValidationException("Le numéro de salle ne peut pas dépasser 999");
-            }
-        } catch (NumberFormatException e) {
-            throw new ValidationException("Le numéro de salle doit être un nombre valide");
+        boolean taken = excludeId == null
+                ? classeRepository.existsByNumSalle(numSalle)
+                : classeRepository.existsByNumSalleAndIdNot(numSalle, excludeId);
+        if (taken) {
+            violations.add("numSalle", "Le numéro de salle " + numSalle + " est déjà utilisé");
         }
     }
 
-    private void validateUniqueNumSalle(String numSalle, Long excludeId) {
-        if (classeRepository.existsByNumSalle(numSalle) &&
-                (excludeId == null || !classeRepository.findById(excludeId)
-                        .map(classe -> classe.getNumSalle().equals(numSalle))
-                        .orElse(false))) {
-            throw new ValidationException("Le numéro de salle " + numSalle + " est déjà utilisé");
+    private void checkExistingApprenants(Long classeId, Set<Long> apprenantIds, Violations violations) {
+        if (apprenantIds.isEmpty()) {
+            return;
         }
-    }
-
-    private void validateExistingApprenants(Set<Long> apprenantIds) {
+        Map<Long, Long> classeIds = toClasseIds(apprenantRepository.findClasseLinks(apprenantIds));
         for (Long apprenantId : apprenantIds) {
-            if (!apprenantRepository.existsById(apprenantId)) {
-                throw new ValidationException("L'apprenant avec l'ID " + apprenantId + " n'existe pas");
-            }
-            if (apprenantRepository.findById(apprenantId)
-                    .map(apprenant -> apprenant.getClasse() != null)
-                    .orElse(false)) {
-                throw new ValidationException(
+            if (!classeIds.containsKey(apprenantId)) {
+                violations.add("apprenantIds", "L'apprenant avec l'ID " + apprenantId + " n'existe pas");
+            } else if (isInAnotherClasse(classeIds.get(apprenantId), classeId)) {
+                violations.add("apprenantIds",
                         "L'apprenant avec l'ID " + apprenantId + " est déjà assigné à une classe");
             }
         }
     }
 
-    private void validateExistingFormateurs(Set<Long> formateurIds) {
+    private void checkExistingFormateurs(Long classeId, Set<Long> formateurIds, Violations violations) {
+        if (formateurIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> classeIds = toClasseIds(formateurRepository.findClasseLinks(formateurIds));
         for (Long formateurId : formateurIds) {
-            if (!formateurRepository.existsById(formateurId)) {
-                throw new ValidationException("Le formateur avec l'ID " + formateurId + " n'existe pas");
-            }
-            if (formateurRepository.findById(formateurId)
-                    .map(formateur -> formateur.getClasse() != null)
-                    .orElse(false)) {
-                throw new ValidationException(
+            if (!classeIds.containsKey(formateurId)) {
+                violations.add("formateurIds", "Le formateur avec l'ID " + formateurId + " n'existe pas");
+            } else if (isInAnotherClasse(classeIds.get(formateurId), classeId)) {
+                violations.add("formateurIds",
                         "Le formateur avec l'ID " + formateurId + " est déjà assigné à une classe");
             }
         }
     }
 
+    /**
+     * Members already in the classe being updated are resent as part of its roster.
+     */
+    private static boolean isInAnotherClasse(Long currentClasseId, Long classeId) {
+        return currentClasseId != null && !currentClasseId.equals(classeId);
+    }
+
+    /**
+     * Existing id to classe id, the value being null for an unassigned person.
+     */
+    private static Map<Long, Long> toClasseIds(List<AssociationLink> links) {
+        Map<Long, Long> classeIds = new HashMap<>(links.size() * 2);
+        for (AssociationLink link : links) {
+            classeIds.put(link.getOwnerId(), link.getTargetId());
+        }
+        return classeIds;
+    }
+
     public void validateAssignApprenant(Long classeId, Long apprenantId) {
         if (classeId == null || apprenantId == null) {
             throw new ValidationException("Les IDs de la classe et de l'apprenant sont obligatoires");
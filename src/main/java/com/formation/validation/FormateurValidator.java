@@ -3,21 +3,42 @@ package com.formation.validation;
 import com.formation.dto.FormateurDTO;
 import com.formation.repositories.FormateurRepository;
 import com.formation.validation.base.EntityValidator;
+import com.formation.validation.base.RuleSet;
+import com.formation.validation.base.TextChecks;
+import com.formation.validation.base.TextRule;
+import com.formation.validation.base.Violations;
 import com.formation.validation.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.Set;
+
 @Component
 @RequiredArgsConstructor
 public class FormateurValidator implements EntityValidator<FormateurDTO> {
-    private static final String EMAIL_REGEX = "^[A-Za-z0-9+_.-]+@(.+)$";
-    private static final String NAME_REGEX = "^[A-Za-z\\s-]{2,50}$";
+    private static final RuleSet<FormateurDTO> FIELD_RULES = RuleSet.<FormateurDTO>builder()
+            .text("nom", FormateurDTO::getNom,
+                    TextRule.required("Le nom est obligatoire"),
+                    TextRule.of(TextChecks::isName, "Le nom doit contenir entre 2 et 50 caractères alphabétiques"))
+            .text("prenom", FormateurDTO::getPrenom,
+                    TextRule.required("Le prénom est obligatoire"),
+                    TextRule.of(TextChecks::isName, "Le prénom doit contenir entre 2 et 50 caractères alphabétiques"))
+            .text("email", FormateurDTO::getEmail,
+                    TextRule.required("L'email est obligatoire"),
+                    TextRule.of(TextChecks::isEmail, "Format d'email invalide"))
+            .text("specialite", FormateurDTO::getSpecialite,
+                    TextRule.required("La spécialité est obligatoire"),
+                    TextRule.length(2, 50, "La spécialité doit contenir entre 2 et 50 caractères"))
+            .build();
+
     private final FormateurRepository formateurRepository;
 
     @Override
     public void validateForCreate(FormateurDTO formateur) {
-        validateCommon(formateur);
-        validateUniqueEmail(formateur.getEmail(), null);
+        Violations violations = new Violations();
+        FIELD_RULES.check(formateur, violations);
+        checkUniqueEmail(formateur.getEmail(), null, violations);
+        violations.throwIfAny();
     }
 
     @Override
@@ -25,56 +46,43 @@ public class FormateurValidator implements EntityValidator<FormateurDTO> {
         if (id == null) {
             throw new ValidationException("L'ID du formateur est obligatoire pour la mise à jour");
         }
-        validateCommon(formateur);
-        validateUniqueEmail(formateur.getEmail(), id);
+        Violations violations = new Violations();
+        FIELD_RULES.check(formateur, violations);
+        checkUniqueEmail(formateur.getEmail(), id, violations);
+        violations.throwIfAny();
     }
 
-    private void validateCommon(FormateurDTO formateur) {
-        validateNomPrenom(formateur);
-        validateEmail(formateur.getEmail());
-        validateSpecialite(formateur.getSpecialite());
+    @Override
+    public void validateForPatch(Long id, FormateurDTO formateur, Set<String> fields) {
+        Violations violations = new Violations();
+        FIELD_RULES.check(formateur, violations);
+        if (fields.contains("email")) {
+            checkUniqueEmail(formateur.getEmail(), id, violations);
+        }
+        violations.throwIfAny();
     }
 
-    private void validateEmail(String email) {
-        if (email == null || email.trim().isEmpty()) {
-            throw new ValidationException("L'email est obligatoire");
-        }
-        if (!email.matches(EMAIL_REGEX)) {
-            throw new ValidationException("Format d'email invalide");
-        }
+    /**
+     * Checks the fields of a formateur without querying the database. Used by the
+     * bulk import, which checks email uniqueness for a whole chunk at once.
+     */
+    public void checkFields(FormateurDTO formateur, Violations violations) {
+        FIELD_RULES.check(formateur, violations);
+    }
+
+    public void validateFields(FormateurDTO formateur) {
+        FIELD_RULES.validate(formateur);
     }
 
-    private void validateUniqueEmail(String email, Long excludeId) {
+    private void checkUniqueEmail(String email, Long excludeId, Violations violations) {
+        if (violations.has("email")) {
+            return;
+        }
         formateurRepository.findByEmail(email)
                 .ifPresent(existing -> {
                     if (excludeId == null || !existing.getId().equals(excludeId)) {
-                        throw new ValidationException("Cet email est déjà utilisé");
+                        violations.add("email", "Cet email est déjà utilisé");
                     }
                 });
     }
-
-    private void validateSpecialite(String specialite) {
-        if (specialite == null || specialite.trim().isEmpty()) {
-            throw new ValidationException("La spécialité est obligatoire");
-        }
-        if (specialite.trim().length() < 2 || specialite.trim().length() > 50) {
-            throw new ValidationException("La spécialité doit contenir entre 2 et 50 caractères");
-        }
-    }
-
-    private void validateNomPrenom(FormateurDTO formateur) {
-        if (formateur.getNom() == null || formateur.getNom().trim().isEmpty()) {
-            throw new ValidationException("Le nom est obligatoire");
-        }
-        if (!formateur.getNom().matches(NAME_REGEX)) {
-            throw new ValidationException("Le nom doit contenir entre 2 et 50 caractères alphabétiques");
-        }
-
-        if (formateur.getPrenom() == null || formateur.getPrenom().trim().isEmpty()) {
-            throw new ValidationException("Le prénom est obligatoire");
-        }
-        if (!formateur.getPrenom().matches(NAME_REGEX)) {
-            throw new ValidationException("Le prénom doit contenir entre 2 et 50 caractères alphabétiques");
-        }
-    }
-}
\ No newline at end of file
+}
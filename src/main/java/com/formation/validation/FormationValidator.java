@@ -5,85 +5,101 @@ import com.formation.models.Apprenant;
 import com.formation.models.Formation;
 import com.formation.models.FormationStatus;
 import com.formation.repositories.FormateurRepository;
+import com.formation.repositories.FormationRepository;
+import com.formation.validation.base.RuleSet;
+import com.formation.validation.base.TextRule;
+import com.formation.validation.base.Violations;
 import com.formation.validation.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
 public class FormationValidator {
+    private static final RuleSet<FormationDTO> CREATE_RULES = RuleSet.<FormationDTO>builder()
+            .text("titre", FormationDTO::getTitre, TextRule.required("Le titre est obligatoire"))
+            .notNull("niveau", FormationDTO::getNiveau, "Le niveau est obligatoire")
+            .notNull("dateDebut", FormationDTO::getDateDebut, "La date de début est obligatoire")
+            .notNull("dateFin", FormationDTO::getDateFin, "La date de fin est obligatoire")
+            .rule("dateFin", formation -> formation.getDateDebut() == null || formation.getDateFin() == null
+                    || !formation.getDateFin().isBefore(formation.getDateDebut()),
+                    "La date de fin doit être après la date de début")
+            .rule("capaciteMin", formation -> formation.getCapaciteMin() > 0,
+                    "La capacité minimale doit être supérieure à 0")
+            .rule("capaciteMax", formation -> formation.getCapaciteMax() > formation.getCapaciteMin(),
+                    "La capacité maximale doit être supérieure à la capacité minimale")
+            .notNull("statut", FormationDTO::getStatut, "Le statut est obligatoire")
+            .build();
+
+    private static final RuleSet<FormationDTO> UPDATE_RULES = RuleSet.<FormationDTO>builder()
+            .text("titre", FormationDTO::getTitre,
+                    TextRule.required("Le titre est obligatoire"),
+                    TextRule.minLength(3, "Le titre doit contenir au moins 3 caractères"))
+            .notNull("niveau", FormationDTO::getNiveau, "Le niveau est obligatoire")
+            .text("prerequis", FormationDTO::getPrerequis, TextRule.required("Les prérequis sont obligatoires"))
+            .notNull("dateDebut", FormationDTO::getDateDebut, "La date de début est obligatoire")
+            .notNull("dateFin", FormationDTO::getDateFin, "La date de fin est obligatoire")
+            .rule("dateDebut", formation -> formation.getDateDebut() == null || formation.getDateFin() == null
+                    || !formation.getDateDebut().isAfter(formation.getDateFin()),
+                    "La date de début ne peut pas être après la date de fin")
+            .rule("capaciteMin", formation -> formation.getCapaciteMin() > 0,
+                    "La capacité minimale doit être supérieure à 0")
+            .rule("capaciteMax", formation -> formation.getCapaciteMax() > 0,
+                    "La capacité maximale doit être supérieure à 0")
+            .rule("capaciteMin", formation -> formation.getCapaciteMin() <= formation.getCapaciteMax(),
+                    "La capacité minimale ne peut pas être supérieure à la capacité maximale")
+            .notNull("statut", FormationDTO::getStatut, "Le statut est obligatoire")
+            .build();
+
+    // checked by a patch only when it writes these fields, so that a formation
+    // already started, or still without formateur, can have its other fields patched
+    private static final RuleSet<FormationDTO> FORMATEUR_RULES = RuleSet.<FormationDTO>builder()
+            .notNull("formateurId", FormationDTO::getFormateurId, "Le formateur est obligatoire")
+            .build();
+
+    private static final RuleSet<FormationDTO> SCHEDULE_RULES = RuleSet.<FormationDTO>builder()
+            .rule("dateDebut", formation -> formation.getDateDebut() == null
+                    || !formation.getDateDebut().isBefore(LocalDateTime.now()),
+                    "La date de début ne peut pas être dans le passé")
+            .build();
+
     private final FormateurRepository formateurRepository;
+    private final FormationRepository formationRepository;
 
     public void validateForCreate(FormationDTO formationDTO) {
-        if (formationDTO.getTitre() == null || formationDTO.getTitre().trim().isEmpty()) {
-            throw new ValidationException("Le titre est obligatoire");
-        }
-        if (formationDTO.getNiveau() == null) {
-            throw new ValidationException("Le niveau est obligatoire");
-        }
-        if (formationDTO.getDateDebut() == null) {
-            throw new ValidationException("La date de début est obligatoire");
-        }
-        if (formationDTO.getDateFin() == null) {
-            throw new ValidationException("La date de fin est obligatoire");
-        }
-        if (formationDTO.getDateFin().isBefore(formationDTO.getDateDebut())) {
-            throw new ValidationException("La date de fin doit être après la date de début");
-        }
-        if (formationDTO.getCapaciteMin() <= 0) {
-            throw new ValidationException("La capacité minimale doit être supérieure à 0");
-        }
-        if (formationDTO.getCapaciteMax() <= formationDTO.getCapaciteMin()) {
-            throw new ValidationException("La capacité maximale doit être supérieure à la capacité minimale");
-        }
-        if (formationDTO.getStatut() == null) {
-            throw new ValidationException("Le statut est obligatoire");
-        }
+        CREATE_RULES.validate(formationDTO);
     }
 
     public void validateForUpdate(Long id, FormationDTO formation) {
         if (id == null) {
             throw new ValidationException("L'ID de la formation est obligatoire pour la mise à jour");
         }
-        validateCommon(formation);
-    }
-
-    private void validateCommon(FormationDTO formation) {
-        validateTitre(formation);
-        validateNiveau(formation);
-        validatePrerequis(formation);
-        validateFormateur(formation);
-        validateFormationDates(formation);
-        validateCapacities(formation);
-    }
-
-    public void validateFormationDates(FormationDTO formation) {
-        if (formation.getDateDebut() == null) {
-            throw new ValidationException("La date de début est obligatoire");
-        }
-        if (formation.getDateFin() == null) {
-            throw new ValidationException("La date de fin est obligatoire");
-        }
-        if (formation.getDateDebut().isAfter(formation.getDateFin())) {
-            throw new ValidationException("La date de début ne peut pas être après la date de fin");
-        }
-        if (formation.getDateDebut().isBefore(LocalDateTime.now())) {
-            throw new ValidationException("La date de début ne peut pas être dans le passé");
-        }
+        Violations violations = new Violations();
+        UPDATE_RULES.check(formation, violations);
+        FORMATEUR_RULES.check(formation, violations);
+        SCHEDULE_RULES.check(formation, violations);
+        checkFormateurExists(formation, violations);
+        violations.throwIfAny();
     }
 
-    public void validateCapacities(FormationDTO formation) {
-        if (formation.getCapaciteMin() <= 0) {
-            throw new ValidationException("La capacité minimale doit être supérieure à 0");
-        }
-        if (formation.getCapaciteMax() <= 0) {
-            throw new ValidationException("La capacité maximale doit être supérieure à 0");
-        }
-        if (formation.getCapaciteMin() > formation.getCapaciteMax()) {
-            throw new ValidationException("La capacité minimale ne peut pas être supérieure à la capacité maximale");
-        }
+    /**
+     * Like {@link #validateForUpdate}, but the formateur and the start date are
+     * checked only when the patch sets them.
+     */
+    public void validateForPatch(Long id, FormationDTO formation, Set<String> fields) {
+        Violations violations = new Violations();
+        UPDATE_RULES.check(formation, violations);
+        if (fields.contains("dateDebut")) {
+            SCHEDULE_RULES.check(formation, violations);
+        }
+        if (fields.contains("formateurId")) {
+            FORMATEUR_RULES.check(formation, violations);
+            checkFormateurExists(formation, violations);
+        }
+        violations.throwIfAny();
     }
 
     public void validateStatusTransition(FormationStatus currentStatus, FormationStatus newStatus) {
@@ -100,33 +116,14 @@ public class FormationValidator {
         }
     }
 
-    private void validateTitre(FormationDTO formation) {
-        if (formation.getTitre() == null || formation.getTitre().trim().isEmpty()) {
-            throw new ValidationException("Le titre est obligatoire");
-        }
-        if (formation.getTitre().trim().length() < 3) {
-            throw new ValidationException("Le titre doit contenir au moins 3 caractères");
-        }
-    }
-
-    private void validateNiveau(FormationDTO formation) {
-        if (formation.getNiveau() == null) {
-            throw new ValidationException("Le niveau est obligatoire");
-        }
-    }
-
-    private void validatePrerequis(FormationDTO formation) {
-        if (formation.getPrerequis() == null || formation.getPrerequis().trim().isEmpty()) {
-            throw new ValidationException("Les prérequis sont obligatoires");
-        }
-    }
-
-    private void validateFormateur(FormationDTO formation) {
+    private void checkFormateurExists(FormationDTO formation, Violations violations) {
         if (formation.getFormateurId() == null) {
-            throw new ValidationException("Le formateur est obligatoire");
+            return;
         }
-        if (!formateurRepository.existsById(formation.getFormateurId())) {
-            throw new ValidationException("Le formateur spécifié n'existe pas");
+        // findById rather than existsById: served by the second-level cache, and the
+        // mapper's lookup that follows is then a persistence-context hit
+        if (!formateurRepository.findById(formation.getFormateurId()).isPresent()) {
+            violations.add("formateurId", "Le formateur spécifié n'existe pas");
         }
     }
 
@@ -135,11 +132,11 @@ public class FormationValidator {
             throw new ValidationException("Les apprenants ne peuvent être ajoutés qu'aux formations planifiées");
         }
 
-        if (formation.getApprenants().size() >= formation.getCapaciteMax()) {
+        if (formation.getInscrits() >= formation.getCapaciteMax()) {
             throw new ValidationException("La formation a atteint sa capacité maximale");
         }
 
-        if (formation.getApprenants().contains(apprenant)) {
+        if (formationRepository.isApprenantEnrolled(formation.getId(), apprenant.getId())) {
             throw new ValidationException("L'apprenant est déjà inscrit à cette formation");
         }
 
@@ -1,7 +1,16 @@
 package com.formation.validation.base;
 
+import java.util.Set;
+
 public interface EntityValidator<T> {
     void validateForCreate(T entity);
 
     void validateForUpdate(Long id, T entity);
+
+    /**
+     * Validates the result of a merge patch. The field rules apply to the whole
+     * result, but the lookups only run for the fields the patch changes: the others
+     * already passed them.
+     */
+    void validateForPatch(Long id, T entity, Set<String> fields);
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.formation.validation.base;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The field rules of a DTO type, built once and then shared by every validation.
+ * <p>
+ * Each rule is a precomputed {@link Violation} with the test that raises it, so a
+ * check walks an array and allocates only for the rules that fail. Every field is
+ * checked, which reports all the violations of a DTO in one pass; the rules of a
+ * field stop at its first failure. Instances are immutable and thread-safe, which
+ * lets the bulk imports check rows in parallel with the same rules.
+ */
+public final class RuleSet<T> {
+    private final Rule<T>[] rules;
+
+    private RuleSet(Rule<T>[] rules) {
+        this.rules = rules;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public void check(T target, Violations violations) {
+        for (Rule<T> rule : rules) {
+            Violation violation = rule.apply(target);
+            if (violation != null) {
+                violations.add(violation);
+            }
+        }
+    }
+
+    /**
+     * Throws a {@link com.formation.validation.exception.ValidationException} with
+     * every violation of the target, if any.
+     */
+    public void validate(T target) {
+        Violations violations = new Violations();
+        check(target, violations);
+        violations.throwIfAny();
+    }
+
+    @FunctionalInterface
+    private interface Rule<T> {
+        /**
+         * Returns the violation raised by the target, or null.
+         */
+        Violation apply(T target);
+    }
+
+    public static final class Builder<T> {
+        private final List<Rule<T>> rules = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder<T> text(String field, Function<? super T, String> getter, TextRule... textRules) {
+            Violation[] violations = new Violation[textRules.length];
+            for (int i = 0; i < textRules.length; i++) {
+                violations[i] = new Violation(field, textRules[i].getMessage());
+            }
+            TextRule[] compiled = textRules.clone();
+            rules.add(target -> {
+                String value = getter.apply(target);
+                boolean blank = TextChecks.isBlank(value);
+                for (int i = 0; i < compiled.length; i++) {
+                    if (compiled[i].isRequired()) {
+                        if (blank) {
+                            return violations[i];
+                        }
+                    } else if (blank) {
+                        return null;
+                    } else if (!compiled[i].test(value)) {
+                        return violations[i];
+                    }
+                }
+                return null;
+            });
+            return this;
+        }
+
+        public Builder<T> notNull(String field, Function<? super T, ?> getter, String message) {
+            Violation violation = new Violation(field, message);
+            rules.add(target -> getter.apply(target) == null ? violation : null);
+            return this;
+        }
+
+        /**
+         * A rule on the whole DTO, typically between fields. The predicate must
+         * accept the nulls already reported by other rules.
+         */
+        public Builder<T> rule(String field, Predicate<? super T> valid, String message) {
+            Violation violation = new Violation(field, message);
+            rules.add(target -> valid.test(target) ? null : violation);
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        public RuleSet<T> build() {
+            return new RuleSet<>(rules.toArray(new Rule[0]));
+        }
+    }
+}
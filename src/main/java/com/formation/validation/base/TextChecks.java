@@ -0,0 +1,142 @@
+package com.formation.validation.base;
+
+/**
+ * Allocation-free checks on strings, in place of trim() and of the regexes the
+ * validators used to match with String.matches.
+ */
+public final class TextChecks {
+    private static final int MAX_NAME_LENGTH = 50;
+
+    private TextChecks() {
+    }
+
+    public static boolean isBlank(String value) {
+        return value == null || start(value) == value.length();
+    }
+
+    /**
+     * Length of {@code value.trim()}, without building it.
+     */
+    public static int trimmedLength(String value) {
+        int start = start(value);
+        return start == value.length() ? 0 : end(value) - start;
+    }
+
+    /**
+     * Same as matching {@code ^[A-Za-z\s-]{2,50}$}.
+     */
+    public static boolean isName(String value) {
+        int length = value.length();
+        if (length < 2 || length > MAX_NAME_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (!isAsciiLetter(c) && !isRegexWhitespace(c) && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as matching {@code ^[A-Za-z0-9+_.-]+@(.+)$}: a non-empty local part made
+     * of those characters, then anything on a single line after the first '@'.
+     */
+    public static boolean isEmail(String value) {
+        int at = value.indexOf('@');
+        if (at < 1 || at == value.length() - 1) {
+            return false;
+        }
+        for (int i = 0; i < at; i++) {
+            char c = value.charAt(i);
+            if (!isAsciiLetter(c) && !(c >= '0' && c <= '9') && c != '+' && c != '_' && c != '.' && c != '-') {
+                return false;
+            }
+        }
+        for (int i = at + 1; i < value.length(); i++) {
+            if (isLineTerminator(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether {@code Integer.parseInt(value.trim())} would succeed.
+     */
+    public static boolean isInt(String value) {
+        int start = start(value);
+        int end = end(value);
+        if (start < end && (value.charAt(start) == '+' || value.charAt(start) == '-')) {
+            start++;
+        }
+        if (start >= end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        // digits out of the int range cannot be parsed either
+        long parsed = parseLong(value);
+        return parsed == (int) parsed;
+    }
+
+    /**
+     * {@code Integer.parseInt(value.trim())}, for a value accepted by {@link #isInt}.
+     */
+    public static int parseInt(String value) {
+        return (int) parseLong(value);
+    }
+
+    private static long parseLong(String value) {
+        int start = start(value);
+        int end = end(value);
+        boolean negative = value.charAt(start) == '-';
+        if (negative || value.charAt(start) == '+') {
+            start++;
+        }
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            result = result * 10 + (value.charAt(i) - '0');
+            if (result > Integer.MAX_VALUE + 1L) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return negative ? -result : result;
+    }
+
+    // String.trim() removes every character up to U+0020
+    private static int start(String value) {
+        int start = 0;
+        while (start < value.length() && value.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int end(String value) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    // \s in java.util.regex
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // what '.' does not match in java.util.regex
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
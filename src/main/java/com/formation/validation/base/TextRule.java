@@ -0,0 +1,60 @@
+package com.formation.validation.base;
+
+import java.util.function.Predicate;
+
+/**
+ * A check on the value of a text field, see {@link RuleSet.Builder#text}.
+ */
+public final class TextRule {
+    private final boolean required;
+    private final Predicate<String> valid;
+    private final String message;
+
+    private TextRule(boolean required, Predicate<String> valid, String message) {
+        this.required = required;
+        this.valid = valid;
+        this.message = message;
+    }
+
+    /**
+     * The value must not be null or blank. Without this rule, a null or blank value
+     * skips the other rules of the field.
+     */
+    public static TextRule required(String message) {
+        return new TextRule(true, value -> !TextChecks.isBlank(value), message);
+    }
+
+    public static TextRule of(Predicate<String> valid, String message) {
+        return new TextRule(false, valid, message);
+    }
+
+    /**
+     * Bounds on the length of the trimmed value.
+     */
+    public static TextRule length(int min, int max, String message) {
+        return of(value -> {
+            int length = TextChecks.trimmedLength(value);
+            return length >= min && length <= max;
+        }, message);
+    }
+
+    public static TextRule minLength(int min, String message) {
+        return length(min, Integer.MAX_VALUE, message);
+    }
+
+    public static TextRule maxLength(int max, String message) {
+        return length(0, max, message);
+    }
+
+    boolean isRequired() {
+        return required;
+    }
+
+    boolean test(String value) {
+        return valid.test(value);
+    }
+
+    String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,47 @@
+package com.formation.validation.base;
+
+import java.util.List;
+
+/**
+ * A rule broken by a DTO: the field concerned and the message shown to the client.
+ * Immutable, so a compiled rule allocates its violation once and reports it as is.
+ */
+public final class Violation {
+    private final String field;
+    private final String message;
+
+    public Violation(String field, String message) {
+        this.field = field;
+        this.message = message;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * The messages of the violations, as one sentence per violation.
+     */
+    public static String describe(List<Violation> violations) {
+        if (violations.size() == 1) {
+            return violations.get(0).getMessage();
+        }
+        StringBuilder description = new StringBuilder();
+        for (Violation violation : violations) {
+            if (description.length() > 0) {
+                description.append(" ; ");
+            }
+            description.append(violation.getMessage());
+        }
+        return description.toString();
+    }
+
+    @Override
+    public String toString() {
+        return field + ": " + message;
+    }
+}
@@ -0,0 +1,59 @@
+package com.formation.validation.base;
+
+import com.formation.validation.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the violations of one DTO. The list is only allocated on the first
+ * violation, so checking a valid DTO allocates nothing but this object.
+ */
+public final class Violations {
+    private List<Violation> violations;
+
+    public void add(Violation violation) {
+        if (violations == null) {
+            violations = new ArrayList<>(4);
+        }
+        violations.add(violation);
+    }
+
+    public void add(String field, String message) {
+        add(new Violation(field, message));
+    }
+
+    public boolean isEmpty() {
+        return violations == null;
+    }
+
+    /**
+     * Whether a rule on this field already failed, so a check that needs a valid
+     * value (a database lookup, say) can be skipped.
+     */
+    public boolean has(String field) {
+        if (violations != null) {
+            for (Violation violation : violations) {
+                if (violation.getField().equals(field)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public List<Violation> toList() {
+        return violations == null ? Collections.emptyList() : Collections.unmodifiableList(violations);
+    }
+
+    public String message() {
+        return violations == null ? null : Violation.describe(violations);
+    }
+
+    public void throwIfAny() {
+        if (violations != null) {
+            throw new ValidationException(toList());
+        }
+    }
+}
@@ -1,11 +1,37 @@
 package com.formation.validation.exception;
 
-public class ValidationException extends RuntimeException {
+import com.formation.validation.base.Violation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A business rule broken by a request. Extends the Bean Validation exception so
+ * the controllers and the exception handler treat both alike (400).
+ */
+public class ValidationException extends javax.validation.ValidationException {
+    private final List<Violation> violations;
+
     public ValidationException(String message) {
         super(message);
+        this.violations = Collections.emptyList();
     }
 
     public ValidationException(String message, Throwable cause) {
         super(message, cause);
+        this.violations = Collections.emptyList();
+    }
+
+    public ValidationException(List<Violation> violations) {
+        super(Violation.describe(violations));
+        this.violations = violations;
+    }
+
+    /**
+     * The violations found by a rule set, all of them; empty for a single business
+     * rule raised with a message.
+     */
+    public List<Violation> getViolations() {
+        return violations;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package com.formation.benchmark;
+
+import com.formation.models.Apprenant;
+import com.formation.models.NiveauFormation;
+import com.formation.repositories.ApprenantRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insert throughput of {@link ApprenantRepository#saveAll}. Opt-in because it
+ * writes tens of thousands of rows:
+ * <pre>
+ * mvn test -Dtest=ApprenantSaveAllBenchmarkTest -Dbenchmark=true
+ * </pre>
+ * Run it on this commit and on its parent (IDENTITY ids, no insert batching) to
+ * compare the logged rows/s.
+ */
+@SpringBootTest(properties = { "spring.jpa.show-sql=false", "logging.level.org.hibernate=WARN" })
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ApprenantSaveAllBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(ApprenantSaveAllBenchmarkTest.class);
+    private static final int WARM_UP_ROWS = 2_000;
+    private static final int ROWS = 20_000;
+    private static final int CHUNK_SIZE = 1_000;
+
+    @Autowired
+    private ApprenantRepository apprenantRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @AfterEach
+    void tearDown() {
+        apprenantRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void saveAll_ShouldReportInsertThroughput() {
+        insert("warmup", WARM_UP_ROWS);
+
+        long start = System.nanoTime();
+        insert("run", ROWS);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        logger.info("saveAll inserted {} apprenants in {} ms ({} rows/s)", ROWS, elapsedMillis,
+                ROWS * 1000L / Math.max(1, elapsedMillis));
+        assertThat(apprenantRepository.count()).isEqualTo(WARM_UP_ROWS + ROWS);
+    }
+
+    private void insert(String prefix, int count) {
+        for (int from = 0; from < count; from += CHUNK_SIZE) {
+            int chunkStart = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Apprenant> apprenants = new ArrayList<>(CHUNK_SIZE);
+                for (int i = chunkStart; i < Math.min(chunkStart + CHUNK_SIZE, count); i++) {
+                    apprenants.add(Apprenant.builder()
+                            .nom("Nom")
+                            .prenom("Prenom")
+                            .email(prefix + "." + i + "@benchmark.test")
+                            .niveau(NiveauFormation.DEBUTANT)
+                            .build());
+                }
+                apprenantRepository.saveAll(apprenants);
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.formation.benchmark;
+
+import com.formation.dto.ApprenantDTO;
+import com.formation.dto.FormateurDTO;
+import com.formation.dto.FormationDTO;
+import com.formation.models.Apprenant;
+import com.formation.models.Classe;
+import com.formation.models.Formateur;
+import com.formation.models.Formation;
+import com.formation.models.FormationStatus;
+import com.formation.models.NiveauFormation;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Deterministic objects shared by the benchmarks.
+ */
+final class Fixtures {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 6, 9, 0);
+
+    private Fixtures() {
+    }
+
+    static Formateur formateur(long id) {
+        return Formateur.builder()
+                .id(id)
+                .nom("Martin")
+                .prenom("Claire")
+                .email("formateur" + id + "@formation.test")
+                .specialite("Java")
+                .formations(new HashSet<>())
+                .build();
+    }
+
+    static Apprenant apprenant(long id) {
+        return Apprenant.builder()
+                .id(id)
+                .nom("Durand")
+                .prenom("Paul")
+                .email("apprenant" + id + "@formation.test")
+                .niveau(NiveauFormation.INTERMEDIAIRE)
+                .build();
+    }
+
+    static Set<Apprenant> apprenants(int count) {
+        Set<Apprenant> apprenants = new LinkedHashSet<>();
+        for (long id = 1; id <= count; id++) {
+            apprenants.add(apprenant(id));
+        }
+        return apprenants;
+    }
+
+    static Formation formation(long id, int rosterSize) {
+        return Formation.builder()
+                .id(id)
+                .titre("Formation Spring " + id)
+                .niveau(NiveauFormation.INTERMEDIAIRE)
+                .prerequis("Connaissances en Java")
+                .capaciteMin(1)
+                .capaciteMax(Math.max(rosterSize, 1))
+                .dateDebut(START.plusDays(id))
+                .dateFin(START.plusDays(id + 5))
+                .statut(FormationStatus.PLANIFIEE)
+                .formateur(formateur(1))
+                .apprenants(apprenants(rosterSize))
+                .version(3L)
+                .build();
+    }
+
+    static Classe classe(int apprenantCount, int formateurCount) {
+        Set<Formateur> formateurs = new LinkedHashSet<>();
+        for (long id = 1; id <= formateurCount; id++) {
+            formateurs.add(formateur(id));
+        }
+        return Classe.builder()
+                .id(1L)
+                .nom("Classe A")
+                .numSalle("S101")
+                .apprenants(apprenants(apprenantCount))
+                .formateurs(formateurs)
+                .version(1L)
+                .build();
+    }
+
+    static FormationDTO formationDTO(long id, int rosterSize) {
+        Set<Long> apprenantIds = new HashSet<>();
+        for (long apprenantId = 1; apprenantId <= rosterSize; apprenantId++) {
+            apprenantIds.add(apprenantId);
+        }
+        return FormationDTO.builder()
+                .id(id)
+                .titre("Formation Spring " + id)
+                .niveau(NiveauFormation.INTERMEDIAIRE)
+                .prerequis("Connaissances en Java")
+                .capaciteMin(1)
+                .capaciteMax(Math.max(rosterSize, 1))
+                .dateDebut(START.plusDays(id))
+                .dateFin(START.plusDays(id + 5))
+                .statut(FormationStatus.PLANIFIEE)
+                .formateurId(1L)
+                .apprenantIds(apprenantIds)
+                .build();
+    }
+
+    static ApprenantDTO apprenantDTO(long id) {
+        return ApprenantDTO.builder()
+                .id(id)
+                .nom("Durand")
+                .prenom("Jean-Paul")
+                .email("apprenant" + id + "@formation.test")
+                .niveau(NiveauFormation.INTERMEDIAIRE)
+                .formationIds(new HashSet<>())
+                .build();
+    }
+
+    static FormateurDTO formateurDTO(long id) {
+        return FormateurDTO.builder()
+                .id(id)
+                .nom("Martin")
+                .prenom("Claire")
+                .email("formateur" + id + "@formation.test")
+                .specialite("Java")
+                .build();
+    }
+
+    /**
+     * A repository whose {@code findById} always returns the given entity; any
+     * other call fails, so a benchmark cannot silently measure a no-op.
+     */
+    static <R> R findByIdStub(Class<R> repositoryType, Object entity) {
+        Object proxy = Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[] { repositoryType },
+                (self, method, args) -> {
+                    switch (method.getName()) {
+                        case "findById":
+                            return Optional.of(entity);
+                        case "hashCode":
+                            return System.identityHashCode(self);
+                        case "equals":
+                            return self == args[0];
+                        case "toString":
+                            return repositoryType.getSimpleName() + " stub";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        return repositoryType.cast(proxy);
+    }
+}
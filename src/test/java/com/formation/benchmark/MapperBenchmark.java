@@ -0,0 +1,70 @@
+package com.formation.benchmark;
+
+import com.formation.dto.ClasseDTO;
+import com.formation.dto.FormationDTO;
+import com.formation.models.Classe;
+import com.formation.models.Formation;
+import com.formation.repositories.ApprenantRepository;
+import com.formation.repositories.FormateurRepository;
+import com.formation.utils.ClasseMapper;
+import com.formation.utils.FormationMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/DTO mapping cost as a function of the size of the associations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({ "10", "1000", "10000" })
+    private int associationSize;
+
+    private FormationMapper formationMapper;
+    private ClasseMapper classeMapper;
+    private Formation formation;
+    private FormationDTO formationDTO;
+    private Classe classe;
+
+    @Setup
+    public void setUp() {
+        formationMapper = new FormationMapper(
+                Fixtures.findByIdStub(FormateurRepository.class, Fixtures.formateur(1)),
+                Fixtures.findByIdStub(ApprenantRepository.class, Fixtures.apprenant(1)));
+        classeMapper = new ClasseMapper();
+        formation = Fixtures.formation(1, associationSize);
+        formationDTO = Fixtures.formationDTO(1, associationSize);
+        classe = Fixtures.classe(associationSize, Math.max(associationSize / 100, 1));
+    }
+
+    @Benchmark
+    public FormationDTO formationToDTO() {
+        return formationMapper.toDTO(formation);
+    }
+
+    @Benchmark
+    public Formation formationToEntity() {
+        return formationMapper.toEntity(formationDTO);
+    }
+
+    @Benchmark
+    public ClasseDTO classeToDTO() {
+        return classeMapper.toDTO(classe);
+    }
+}
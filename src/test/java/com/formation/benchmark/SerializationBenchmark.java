@@ -0,0 +1,76 @@
+package com.formation.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.formation.dto.ApprenantDTO;
+import com.formation.dto.FormationDTO;
+import com.formation.dto.response.ApiResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of paged responses, with an ObjectMapper configured like
+ * the application's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({ "20", "100" })
+    private int pageSize;
+
+    @Param({ "0", "50" })
+    private int rosterSize;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<Page<FormationDTO>> formations;
+    private ApiResponse<Page<ApprenantDTO>> apprenants;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        List<FormationDTO> formationRows = new ArrayList<>(pageSize);
+        List<ApprenantDTO> apprenantRows = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            formationRows.add(Fixtures.formationDTO(id, rosterSize));
+            apprenantRows.add(Fixtures.apprenantDTO(id));
+        }
+        PageRequest pageRequest = PageRequest.of(0, pageSize);
+        formations = new ApiResponse<>(true, "Formations trouvées", new PageImpl<>(formationRows, pageRequest, 20_000));
+        apprenants = new ApiResponse<>(true, "Apprenants trouvés", new PageImpl<>(apprenantRows, pageRequest, 500_000));
+    }
+
+    @Benchmark
+    public byte[] formationPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(formations);
+    }
+
+    @Benchmark
+    public byte[] apprenantPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(apprenants);
+    }
+}
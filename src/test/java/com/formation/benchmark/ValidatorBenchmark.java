@@ -0,0 +1,70 @@
+package com.formation.benchmark;
+
+import com.formation.dto.ApprenantDTO;
+import com.formation.dto.FormateurDTO;
+import com.formation.validation.ApprenantValidator;
+import com.formation.validation.FormateurValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Field checks of the validators (no database access), next to the cost of the
+ * same name check with a pattern compiled once, as a reference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidatorBenchmark {
+    private static final String NAME_REGEX = "^[A-Za-z\\s-]{2,50}$";
+    private static final Pattern NAME_PATTERN = Pattern.compile(NAME_REGEX);
+
+    private ApprenantValidator apprenantValidator;
+    private FormateurValidator formateurValidator;
+    private ApprenantDTO apprenant;
+    private FormateurDTO formateur;
+
+    @Setup
+    public void setUp() {
+        // validateFields never reaches the repositories
+        apprenantValidator = new ApprenantValidator(null);
+        formateurValidator = new FormateurValidator(null);
+        apprenant = Fixtures.apprenantDTO(1);
+        formateur = Fixtures.formateurDTO(1);
+    }
+
+    @Benchmark
+    public ApprenantDTO apprenantFields() {
+        apprenantValidator.validateFields(apprenant);
+        return apprenant;
+    }
+
+    @Benchmark
+    public FormateurDTO formateurFields() {
+        formateurValidator.validateFields(formateur);
+        return formateur;
+    }
+
+    @Benchmark
+    public boolean nameWithStringMatches() {
+        return apprenant.getPrenom().matches(NAME_REGEX);
+    }
+
+    @Benchmark
+    public boolean nameWithCompiledPattern() {
+        return NAME_PATTERN.matcher(apprenant.getPrenom()).matches();
+    }
+}
@@ -0,0 +1,169 @@
+package com.formation.concurrency;
+
+import com.formation.dto.response.EnrolmentReport;
+import com.formation.models.Apprenant;
+import com.formation.models.Formation;
+import com.formation.models.FormationStatus;
+import com.formation.models.NiveauFormation;
+import com.formation.repositories.ApprenantRepository;
+import com.formation.repositories.FormationRepository;
+import com.formation.services.interfaces.IApprenantService;
+import com.formation.services.interfaces.IFormationService;
+import com.formation.validation.exception.ValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires thousands of parallel enrolments at one formation and checks that the
+ * places are never overbooked, whatever the interleaving.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:capacitydb;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false",
+        "debug=false",
+        "logging.level.com.formation=WARN",
+        "formation.search.index.enabled=false" })
+class FormationCapacityStressTest {
+    private static final int CAPACITE_MAX = 50;
+    private static final int CANDIDATES = 2_000;
+    private static final int THREADS = 32;
+    private static final int BATCH_SIZE = 40;
+
+    @Autowired
+    private IFormationService formationService;
+
+    @Autowired
+    private IApprenantService apprenantService;
+
+    @Autowired
+    private FormationRepository formationRepository;
+
+    @Autowired
+    private ApprenantRepository apprenantRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long formationId;
+    private List<Long> apprenantIds;
+
+    @BeforeEach
+    void setUp() {
+        formationId = formationRepository.save(Formation.builder()
+                .titre("Formation Stress")
+                .niveau(NiveauFormation.DEBUTANT)
+                .capaciteMin(1)
+                .capaciteMax(CAPACITE_MAX)
+                .dateDebut(LocalDateTime.now().plusDays(1))
+                .dateFin(LocalDateTime.now().plusDays(5))
+                .statut(FormationStatus.PLANIFIEE)
+                .build()).getId();
+
+        List<Apprenant> apprenants = new ArrayList<>(CANDIDATES);
+        for (int i = 0; i < CANDIDATES; i++) {
+            apprenants.add(Apprenant.builder()
+                    .nom("Nom")
+                    .prenom("Prenom")
+                    .email("stress." + i + "@capacity.test")
+                    .niveau(NiveauFormation.DEBUTANT)
+                    .build());
+        }
+        apprenantIds = apprenantRepository.saveAll(apprenants).stream()
+                .map(Apprenant::getId)
+                .collect(Collectors.toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM formation_apprenant");
+        formationRepository.deleteAllInBatch();
+        apprenantRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void parallelSingleEnrolments_ShouldNeverExceedCapaciteMax() throws Exception {
+        AtomicInteger enrolled = new AtomicInteger();
+        runInParallel(apprenantIds.size(), i -> {
+            Long apprenantId = apprenantIds.get(i);
+            try {
+                if (i % 2 == 0) {
+                    formationService.addApprenantToFormation(formationId, apprenantId);
+                } else {
+                    apprenantService.assignToFormation(apprenantId, formationId);
+                }
+                enrolled.incrementAndGet();
+            } catch (ValidationException e) {
+                // formation full: expected for everyone past the last place
+            }
+        });
+
+        assertThat(enrolled.get()).isEqualTo(CAPACITE_MAX);
+        assertCounterMatchesJoinRows(CAPACITE_MAX);
+    }
+
+    @Test
+    void parallelBatchEnrolments_ShouldNeverExceedCapaciteMax() throws Exception {
+        AtomicInteger accepted = new AtomicInteger();
+        runInParallel(apprenantIds.size() / BATCH_SIZE, i -> {
+            List<Long> batch = apprenantIds.subList(i * BATCH_SIZE, (i + 1) * BATCH_SIZE);
+            EnrolmentReport report = formationService.addApprenantsToFormation(formationId, batch);
+            accepted.addAndGet(report.getAccepted().size());
+        });
+
+        assertThat(accepted.get()).isEqualTo(CAPACITE_MAX);
+        assertCounterMatchesJoinRows(CAPACITE_MAX);
+    }
+
+    private void assertCounterMatchesJoinRows(int expected) {
+        Integer joinRows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM formation_apprenant WHERE formation_id = ?", Integer.class, formationId);
+        Formation formation = formationRepository.findById(formationId).orElseThrow(IllegalStateException::new);
+        assertThat(joinRows).isEqualTo(expected);
+        assertThat(formation.getInscrits()).isEqualTo(expected);
+        assertThat(formation.getInscrits()).isLessThanOrEqualTo(formation.getCapaciteMax());
+    }
+
+    private void runInParallel(int tasks, IndexedTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        try {
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexedTask {
+        void run(int index) throws Exception;
+    }
+}
@@ -0,0 +1,78 @@
+package com.formation.dataset;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:datasetdb",
+        "spring.jpa.show-sql=false",
+        "debug=false",
+        "logging.level.com.formation=WARN",
+        "formation.search.index.enabled=false" })
+class DatasetGeneratorTest {
+    private static final DatasetSpec SPEC = DatasetSpec.builder()
+            .seed(7)
+            .apprenants(1_000)
+            .formateurs(40)
+            .formations(200)
+            .classes(30)
+            .referenceDate(LocalDate.of(2025, 1, 15))
+            .batchSize(128)
+            .build();
+
+    // ids depend on the sequences, so rows are compared by generation order
+    private static final String FORMATION_ROWS = "SELECT titre || '|' || niveau || '|' || capacite_max || '|' "
+            + "|| date_debut || '|' || statut || '|' || inscrits FROM formations ORDER BY id";
+    private static final String APPRENANT_ROWS = "SELECT email || '|' || niveau FROM apprenants ORDER BY id";
+
+    @Autowired
+    private DatasetGenerator datasetGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void generate_ShouldGiveTheSameRowsForTheSameSeed() {
+        datasetGenerator.clear();
+        datasetGenerator.generate(SPEC);
+        List<String> formations = jdbcTemplate.queryForList(FORMATION_ROWS, String.class);
+        List<String> apprenants = jdbcTemplate.queryForList(APPRENANT_ROWS, String.class);
+
+        datasetGenerator.clear();
+        datasetGenerator.generate(SPEC);
+
+        assertThat(jdbcTemplate.queryForList(FORMATION_ROWS, String.class)).isEqualTo(formations);
+        assertThat(jdbcTemplate.queryForList(APPRENANT_ROWS, String.class)).isEqualTo(apprenants);
+    }
+
+    @Test
+    void generate_ShouldRespectTheRulesOfTheValidators() {
+        datasetGenerator.clear();
+        Dataset dataset = datasetGenerator.generate(SPEC);
+
+        assertThat(dataset.getApprenantIds()).hasSize(1_000);
+        assertThat(count("SELECT COUNT(*) FROM formation_apprenant")).isEqualTo(dataset.getEnrolments()).isPositive();
+        // inscrits matches the roster, which fits the capacity
+        assertThat(count("SELECT COUNT(*) FROM formations f WHERE f.inscrits > f.capacite_max OR f.inscrits <> "
+                + "(SELECT COUNT(*) FROM formation_apprenant fa WHERE fa.formation_id = f.id)")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM formation_apprenant fa JOIN formations f ON f.id = fa.formation_id "
+                + "JOIN apprenants a ON a.id = fa.apprenant_id WHERE a.niveau <> f.niveau")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM (SELECT classe_id FROM apprenants WHERE classe_id IS NOT NULL "
+                + "GROUP BY classe_id HAVING COUNT(*) > 30)")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM (SELECT classe_id FROM formateurs WHERE classe_id IS NOT NULL "
+                + "GROUP BY classe_id HAVING COUNT(*) > 1)")).isZero();
+        assertThat(count("SELECT COUNT(DISTINCT num_salle) FROM classes")).isEqualTo(30);
+        assertThat(count("SELECT COUNT(DISTINCT statut) FROM formations")).isGreaterThanOrEqualTo(3);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
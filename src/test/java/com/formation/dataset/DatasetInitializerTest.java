@@ -0,0 +1,49 @@
+package com.formation.dataset;
+
+import com.formation.config.DatasetInitializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The dataset profile started twice on the same database: the context start is the
+ * first run, {@link DatasetInitializer#run} called again is the second.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:datasetinitdb",
+        "spring.jpa.show-sql=false",
+        "debug=false",
+        "logging.level.com.formation=WARN",
+        "formation.search.index.enabled=false",
+        "formation.dataset.generate=true",
+        "formation.dataset.apprenants=200",
+        "formation.dataset.formateurs=10",
+        "formation.dataset.formations=20",
+        "formation.dataset.classes=5" })
+class DatasetInitializerTest {
+    @Autowired
+    private DatasetInitializer datasetInitializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void run_OnAPopulatedDatabase_ShouldLeaveItUntouched() {
+        assertThat(count("apprenants")).isEqualTo(200);
+        long enrolments = count("formation_apprenant");
+
+        datasetInitializer.run(new DefaultApplicationArguments());
+
+        assertThat(count("apprenants")).isEqualTo(200);
+        assertThat(count("formations")).isEqualTo(20);
+        assertThat(count("formation_apprenant")).isEqualTo(enrolments);
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+}
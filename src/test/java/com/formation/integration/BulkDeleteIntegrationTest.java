@@ -0,0 +1,187 @@
+package com.formation.integration;
+
+import com.formation.models.Apprenant;
+import com.formation.models.Classe;
+import com.formation.models.Formateur;
+import com.formation.models.Formation;
+import com.formation.models.FormationStatus;
+import com.formation.models.NiveauFormation;
+import com.formation.repositories.ApprenantRepository;
+import com.formation.repositories.ClasseRepository;
+import com.formation.repositories.FormateurRepository;
+import com.formation.repositories.FormationRepository;
+import com.formation.utils.BulkDeletes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The bulk DELETE endpoints, and what their set statements leave behind: counters,
+ * join rows and the references of the remaining rows.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulkdeletedb",
+        "formation.search.index.enabled=false" })
+@AutoConfigureMockMvc
+class BulkDeleteIntegrationTest {
+    private static final long MISSING_ID = 999_999L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ClasseRepository classeRepository;
+
+    @Autowired
+    private FormateurRepository formateurRepository;
+
+    @Autowired
+    private ApprenantRepository apprenantRepository;
+
+    @Autowired
+    private FormationRepository formationRepository;
+
+    private Classe classe;
+    private Formateur formateur;
+    private Apprenant first;
+    private Apprenant second;
+    private Formation formation;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM formation_apprenant");
+        jdbcTemplate.update("DELETE FROM formations");
+        jdbcTemplate.update("DELETE FROM apprenants");
+        jdbcTemplate.update("DELETE FROM formateurs");
+        jdbcTemplate.update("DELETE FROM classes");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            classe = classeRepository.save(Classe.builder().nom("Classe Alpha").numSalle("101").build());
+            formateur = formateurRepository.save(Formateur.builder().nom("Martin").prenom("Paul")
+                    .email("paul.martin@bulk.test").specialite("JAVA").classe(classe).build());
+            first = apprenantRepository.save(Apprenant.builder().nom("Dupont").prenom("Jean")
+                    .email("jean.dupont@bulk.test").niveau(NiveauFormation.DEBUTANT).classe(classe).build());
+            second = apprenantRepository.save(Apprenant.builder().nom("Durand").prenom("Marie")
+                    .email("marie.durand@bulk.test").niveau(NiveauFormation.DEBUTANT).classe(classe).build());
+            formation = formationRepository.save(Formation.builder()
+                    .titre("Formation Java")
+                    .niveau(NiveauFormation.DEBUTANT)
+                    .prerequis("Aucun")
+                    .capaciteMin(1)
+                    .capaciteMax(20)
+                    .inscrits(2)
+                    .dateDebut(LocalDateTime.now().plusDays(10))
+                    .dateFin(LocalDateTime.now().plusDays(20))
+                    .statut(FormationStatus.PLANIFIEE)
+                    .formateur(formateur)
+                    .apprenants(new HashSet<>(Arrays.asList(first, second)))
+                    .build());
+        });
+    }
+
+    @Test
+    void deleteApprenants_ShouldReportTheMissingIdsAndRecountInscrits() throws Exception {
+        deleteAll("/api/apprenants", "[" + first.getId() + "," + MISSING_ID + "," + first.getId() + "]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(2))
+                .andExpect(jsonPath("$.data.deleted", contains(first.getId().intValue())))
+                .andExpect(jsonPath("$.data.notFound", contains((int) MISSING_ID)));
+
+        assertThat(apprenantRepository.existsById(first.getId())).isFalse();
+        assertThat(apprenantRepository.existsById(second.getId())).isTrue();
+        assertThat(count("SELECT COUNT(*) FROM formation_apprenant WHERE apprenant_id = ?", first.getId())).isZero();
+        assertThat(count("SELECT inscrits FROM formations WHERE id = ?", formation.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void deleteFormations_ShouldDeleteTheEnrolmentsButNotTheApprenants() throws Exception {
+        deleteAll("/api/formations", "[" + formation.getId() + "]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.deleted", contains(formation.getId().intValue())));
+
+        assertThat(formationRepository.existsById(formation.getId())).isFalse();
+        assertThat(count("SELECT COUNT(*) FROM formation_apprenant WHERE formation_id = ?", formation.getId()))
+                .isZero();
+        assertThat(apprenantRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void deleteClasses_ShouldDetachTheirApprenantsAndFormateurs() throws Exception {
+        deleteAll("/api/classes", "[" + classe.getId() + "]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.deleted", contains(classe.getId().intValue())));
+
+        assertThat(classeRepository.existsById(classe.getId())).isFalse();
+        assertThat(count("SELECT COUNT(*) FROM apprenants WHERE classe_id IS NOT NULL")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM formateurs WHERE classe_id IS NOT NULL")).isZero();
+        assertThat(apprenantRepository.count()).isEqualTo(2);
+        assertThat(formateurRepository.existsById(formateur.getId())).isTrue();
+    }
+
+    @Test
+    void deleteFormateurs_ShouldUnassignTheirFormations() throws Exception {
+        deleteAll("/api/formateurs", "[" + formateur.getId() + "]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.deleted", contains(formateur.getId().intValue())));
+
+        assertThat(formateurRepository.existsById(formateur.getId())).isFalse();
+        assertThat(count("SELECT COUNT(*) FROM formations WHERE id = ? AND formateur_id IS NULL", formation.getId()))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void deleteAll_WithOnlyMissingIds_ShouldDeleteNothing() throws Exception {
+        deleteAll("/api/formations", "[" + MISSING_ID + "]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.deleted").isEmpty())
+                .andExpect(jsonPath("$.data.notFound", contains((int) MISSING_ID)));
+
+        assertThat(formationRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void deleteAll_WithTooManyOrNoIds_ShouldReturnBadRequest() throws Exception {
+        String tooMany = LongStream.rangeClosed(1, BulkDeletes.MAX_IDS + 1)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(",", "[", "]"));
+
+        deleteAll("/api/apprenants", tooMany).andExpect(status().isBadRequest());
+        deleteAll("/api/classes", "[]").andExpect(status().isBadRequest());
+        deleteAll("/api/formateurs", "[null]").andExpect(status().isBadRequest());
+
+        assertThat(apprenantRepository.count()).isEqualTo(2);
+    }
+
+    private ResultActions deleteAll(String path, String ids) throws Exception {
+        return mockMvc.perform(delete(path).contentType(MediaType.APPLICATION_JSON).content(ids));
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+}
@@ -0,0 +1,217 @@
+package com.formation.integration;
+
+import com.formation.models.Apprenant;
+import com.formation.models.Classe;
+import com.formation.models.Formateur;
+import com.formation.models.Formation;
+import com.formation.models.FormationStatus;
+import com.formation.models.NiveauFormation;
+import com.formation.repositories.ApprenantRepository;
+import com.formation.repositories.ClasseRepository;
+import com.formation.repositories.FormateurRepository;
+import com.formation.repositories.FormationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETags on the GET-by-id responses and the If-None-Match / If-Match requests that
+ * send them back. Not transactional: the versions of the resources touched through
+ * an association are only incremented when the transaction commits.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:etagdb",
+        "formation.search.index.enabled=false" })
+@AutoConfigureMockMvc
+class ConditionalRequestIntegrationTest {
+    private static final String STALE_ETAG = "\"999\"";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ClasseRepository classeRepository;
+
+    @Autowired
+    private FormateurRepository formateurRepository;
+
+    @Autowired
+    private ApprenantRepository apprenantRepository;
+
+    @Autowired
+    private FormationRepository formationRepository;
+
+    private Classe classe;
+    private Classe otherClasse;
+    private Formateur formateur;
+    private Apprenant apprenant;
+    private Formation formation;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM formation_apprenant");
+        jdbcTemplate.update("DELETE FROM formations");
+        jdbcTemplate.update("DELETE FROM apprenants");
+        jdbcTemplate.update("DELETE FROM formateurs");
+        jdbcTemplate.update("DELETE FROM classes");
+        entityManagerFactory.getCache().evictAll();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            classe = classeRepository.save(Classe.builder().nom("Classe Alpha").numSalle("101").build());
+            otherClasse = classeRepository.save(Classe.builder().nom("Classe Beta").numSalle("102").build());
+            formateur = formateurRepository.save(Formateur.builder()
+                    .nom("Martin").prenom("Paul").email("paul.martin@etag.test").specialite("JAVA").build());
+            apprenant = apprenantRepository.save(Apprenant.builder()
+                    .nom("Dupont").prenom("Jean").email("jean.dupont@etag.test").niveau(NiveauFormation.DEBUTANT).build());
+            formation = formationRepository.save(Formation.builder()
+                    .titre("Formation Java")
+                    .niveau(NiveauFormation.DEBUTANT)
+                    .prerequis("Aucun")
+                    .capaciteMin(1)
+                    .capaciteMax(20)
+                    .dateDebut(LocalDateTime.now().plusDays(10))
+                    .dateFin(LocalDateTime.now().plusDays(20))
+                    .statut(FormationStatus.PLANIFIEE)
+                    .formateur(formateur)
+                    .build());
+        });
+    }
+
+    @Test
+    void findById_WithCurrentETag_ShouldReturnNotModified() throws Exception {
+        String etag = etag("/api/classes/{id}", classe.getId());
+
+        mockMvc.perform(get("/api/classes/{id}", classe.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        mockMvc.perform(get("/api/formations/{id}", formation.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, "W/" + etag("/api/formations/{id}", formation.getId())))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void findById_WithStaleETag_ShouldReturnTheBody() throws Exception {
+        mockMvc.perform(get("/api/apprenants/{id}", apprenant.getId()).header(HttpHeaders.IF_NONE_MATCH, STALE_ETAG))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag("/api/apprenants/{id}", apprenant.getId())))
+                .andExpect(jsonPath("$.data.email").value("jean.dupont@etag.test"));
+    }
+
+    @Test
+    void update_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        mockMvc.perform(put("/api/formateurs/{id}", formateur.getId())
+                .header(HttpHeaders.IF_MATCH, STALE_ETAG)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nom\":\"Durand\",\"prenom\":\"Paul\",\"email\":\"paul.martin@etag.test\",\"specialite\":\"JAVA\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(formateurRepository.findById(formateur.getId())).get()
+                .extracting(Formateur::getNom).isEqualTo("Martin");
+    }
+
+    @Test
+    void delete_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        mockMvc.perform(delete("/api/formations/{id}", formation.getId()).header(HttpHeaders.IF_MATCH, STALE_ETAG))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(formationRepository.existsById(formation.getId())).isTrue();
+    }
+
+    @Test
+    void update_WithCurrentIfMatch_ShouldMoveTheETag() throws Exception {
+        String etag = etag("/api/apprenants/{id}", apprenant.getId());
+
+        mockMvc.perform(put("/api/apprenants/{id}", apprenant.getId())
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nom\":\"Durand\",\"prenom\":\"Jean\",\"email\":\"jean.dupont@etag.test\",\"niveau\":\"DEBUTANT\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/apprenants/{id}", apprenant.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.nom").value("Durand"));
+    }
+
+    @Test
+    void patch_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        mockMvc.perform(patch("/api/apprenants/{id}", apprenant.getId())
+                .header(HttpHeaders.IF_MATCH, STALE_ETAG)
+                .contentType("application/merge-patch+json")
+                .content("{\"nom\":\"Durand\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(apprenantRepository.findById(apprenant.getId())).get()
+                .extracting(Apprenant::getNom).isEqualTo("Dupont");
+    }
+
+    @Test
+    void patch_WithCurrentIfMatch_ShouldMoveTheETag() throws Exception {
+        String etag = etag("/api/apprenants/{id}", apprenant.getId());
+
+        mockMvc.perform(patch("/api/apprenants/{id}", apprenant.getId())
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType("application/merge-patch+json")
+                .content("{\"nom\":\"Durand\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/apprenants/{id}", apprenant.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.nom").value("Durand"));
+    }
+
+    @Test
+    void associationChange_ShouldMoveTheClasseETagAndEvictOnlyThatClasse() throws Exception {
+        String etag = etag("/api/classes/{id}", classe.getId());
+        String otherEtag = etag("/api/classes/{id}", otherClasse.getId());
+        Cache cache = entityManagerFactory.getCache();
+        assertThat(cache.contains(Classe.class, otherClasse.getId())).isTrue();
+
+        mockMvc.perform(post("/api/classes/{id}/apprenants/{apprenantId}", classe.getId(), apprenant.getId()))
+                .andExpect(status().isOk());
+
+        assertThat(cache.contains(Classe.class, classe.getId())).isFalse();
+        assertThat(cache.contains(Classe.class, otherClasse.getId())).isTrue();
+        String moved = mockMvc.perform(get("/api/classes/{id}", classe.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(moved).isNotEqualTo(etag);
+        mockMvc.perform(get("/api/classes/{id}", otherClasse.getId()).header(HttpHeaders.IF_NONE_MATCH, otherEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    private String etag(String path, Long id) throws Exception {
+        return mockMvc.perform(get(path, id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,196 @@
+package com.formation.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.formation.dto.response.EnrolmentReport;
+import com.formation.dto.response.EnrolmentReport.Rejection;
+import com.formation.models.Apprenant;
+import com.formation.models.Formation;
+import com.formation.models.FormationStatus;
+import com.formation.models.NiveauFormation;
+import com.formation.repositories.ApprenantRepository;
+import com.formation.repositories.FormationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST and DELETE /api/formations/{id}/apprenants: every id of the batch ends up
+ * accepted or rejected with its reason, and the roster and counter follow.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:enrolmentdb",
+        "formation.search.index.enabled=false" })
+@AutoConfigureMockMvc
+class EnrolmentIntegrationTest {
+    private static final long MISSING_ID = 999_999L;
+    private static final int CAPACITE_MAX = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApprenantRepository apprenantRepository;
+
+    @Autowired
+    private FormationRepository formationRepository;
+
+    private Apprenant enrolled;
+    private Apprenant free1;
+    private Apprenant free2;
+    private Apprenant free3;
+    private Apprenant avance;
+    private Apprenant busy;
+    private Formation formation;
+    private Formation running;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM formation_apprenant");
+        jdbcTemplate.update("DELETE FROM formations");
+        jdbcTemplate.update("DELETE FROM apprenants");
+        jdbcTemplate.update("DELETE FROM formateurs");
+        jdbcTemplate.update("DELETE FROM classes");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            enrolled = apprenant("enrolled", NiveauFormation.DEBUTANT);
+            free1 = apprenant("free1", NiveauFormation.DEBUTANT);
+            free2 = apprenant("free2", NiveauFormation.DEBUTANT);
+            free3 = apprenant("free3", NiveauFormation.DEBUTANT);
+            avance = apprenant("avance", NiveauFormation.AVANCE);
+            busy = apprenant("busy", NiveauFormation.DEBUTANT);
+            formation = formation("Formation Java", FormationStatus.PLANIFIEE, enrolled);
+            running = formation("Formation Spring", FormationStatus.EN_COURS, busy);
+        });
+    }
+
+    @Test
+    void addApprenants_ShouldReportEveryIdAndFillTheFreePlacesInRequestOrder() throws Exception {
+        EnrolmentReport report = report(perform(post("/api/formations/{id}/apprenants", formation.getId()),
+                Arrays.asList(enrolled.getId(), free1.getId(), null, free1.getId(), avance.getId(), busy.getId(),
+                        MISSING_ID, free2.getId(), free3.getId()))
+                .andExpect(status().isOk()));
+
+        assertThat(report.getFormationId()).isEqualTo(formation.getId());
+        assertThat(report.getTotal()).isEqualTo(9);
+        assertThat(report.getAccepted()).containsExactly(free1.getId(), free2.getId());
+        assertThat(report.getRejected()).containsExactly(
+                new Rejection(null, "ID d'apprenant manquant"),
+                new Rejection(free1.getId(), "ID en double dans la requête"),
+                new Rejection(enrolled.getId(), "L'apprenant est déjà inscrit à cette formation"),
+                new Rejection(avance.getId(),
+                        "Le niveau de l'apprenant ne correspond pas au niveau requis pour la formation"),
+                new Rejection(busy.getId(), "L'apprenant ne peut pas être inscrit car il est déjà en formation"),
+                new Rejection(MISSING_ID, "Apprenant non trouvé"),
+                new Rejection(free3.getId(), "La formation a atteint sa capacité maximale"));
+
+        assertThat(roster(formation)).containsExactlyInAnyOrder(enrolled.getId(), free1.getId(), free2.getId());
+        assertThat(inscrits(formation)).isEqualTo(CAPACITE_MAX);
+    }
+
+    @Test
+    void removeApprenants_ShouldRemoveOnlyTheEnrolledIds() throws Exception {
+        EnrolmentReport report = report(perform(delete("/api/formations/{id}/apprenants", formation.getId()),
+                Arrays.asList(enrolled.getId(), free1.getId(), enrolled.getId(), MISSING_ID))
+                .andExpect(status().isOk()));
+
+        assertThat(report.getTotal()).isEqualTo(4);
+        assertThat(report.getAccepted()).containsExactly(enrolled.getId());
+        assertThat(report.getRejected()).containsExactly(
+                new Rejection(enrolled.getId(), "ID en double dans la requête"),
+                new Rejection(free1.getId(), "L'apprenant n'est pas inscrit à cette formation"),
+                new Rejection(MISSING_ID, "L'apprenant n'est pas inscrit à cette formation"));
+
+        assertThat(roster(formation)).isEmpty();
+        assertThat(inscrits(formation)).isZero();
+    }
+
+    @Test
+    void addOrRemoveApprenants_OnAFormationNotPlanned_ShouldReturnBadRequest() throws Exception {
+        perform(post("/api/formations/{id}/apprenants", running.getId()), Collections.singletonList(free1.getId()))
+                .andExpect(status().isBadRequest());
+        perform(delete("/api/formations/{id}/apprenants", running.getId()), Collections.singletonList(busy.getId()))
+                .andExpect(status().isBadRequest());
+
+        assertThat(roster(running)).containsExactly(busy.getId());
+    }
+
+    @Test
+    void addApprenants_WithoutIdsOrFormation_ShouldBeRefused() throws Exception {
+        perform(post("/api/formations/{id}/apprenants", formation.getId()), Collections.emptyList())
+                .andExpect(status().isBadRequest());
+        perform(post("/api/formations/{id}/apprenants", MISSING_ID), Collections.singletonList(free1.getId()))
+                .andExpect(status().isNotFound());
+
+        assertThat(inscrits(formation)).isEqualTo(1);
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request, Object ids) throws Exception {
+        return mockMvc.perform(request.contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(ids)));
+    }
+
+    private EnrolmentReport report(ResultActions result) throws Exception {
+        return objectMapper.treeToValue(objectMapper.readTree(result.andReturn().getResponse()
+                .getContentAsString(StandardCharsets.UTF_8))
+                .get("data"), EnrolmentReport.class);
+    }
+
+    private Set<Long> roster(Formation formation) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT apprenant_id FROM formation_apprenant WHERE formation_id = ?", Long.class, formation.getId()));
+    }
+
+    private int inscrits(Formation formation) {
+        return jdbcTemplate.queryForObject("SELECT inscrits FROM formations WHERE id = ?", Integer.class,
+                formation.getId());
+    }
+
+    private Apprenant apprenant(String prenom, NiveauFormation niveau) {
+        return apprenantRepository.save(Apprenant.builder().nom("Dupont").prenom(prenom)
+                .email(prenom + "@enrolment.test").niveau(niveau).build());
+    }
+
+    private Formation formation(String titre, FormationStatus statut, Apprenant apprenant) {
+        return formationRepository.save(Formation.builder()
+                .titre(titre)
+                .niveau(NiveauFormation.DEBUTANT)
+                .prerequis("Aucun")
+                .capaciteMin(1)
+                .capaciteMax(CAPACITE_MAX)
+                .inscrits(1)
+                .dateDebut(LocalDateTime.now().plusDays(10))
+                .dateFin(LocalDateTime.now().plusDays(20))
+                .statut(statut)
+                .apprenants(new HashSet<>(Collections.singletonList(apprenant)))
+                .build());
+    }
+}
@@ -0,0 +1,189 @@
+package com.formation.integration;
+
+import com.formation.models.Formateur;
+import com.formation.models.Formation;
+import com.formation.models.FormationStatus;
+import com.formation.models.NiveauFormation;
+import com.formation.performance.CountingDataSource;
+import com.formation.performance.QueryCountingConfig;
+import com.formation.repositories.FormateurRepository;
+import com.formation.repositories.FormationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * PATCH /api/formations/{id}: the rules a merge patch goes through, and the UPDATE
+ * it ends with. Not transactional, so that the patch is flushed and committed.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:patchdb",
+        "formation.search.index.enabled=false" })
+@AutoConfigureMockMvc
+@Import(QueryCountingConfig.class)
+class FormationPatchIntegrationTest {
+    private static final int INSCRITS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CountingDataSource dataSource;
+
+    @Autowired
+    private FormateurRepository formateurRepository;
+
+    @Autowired
+    private FormationRepository formationRepository;
+
+    private Formation formation;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM formation_apprenant");
+        jdbcTemplate.update("DELETE FROM formations");
+        jdbcTemplate.update("DELETE FROM apprenants");
+        jdbcTemplate.update("DELETE FROM formateurs");
+        jdbcTemplate.update("DELETE FROM classes");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Formateur formateur = formateurRepository.save(Formateur.builder()
+                    .nom("Martin").prenom("Paul").email("paul.martin@patch.test").specialite("JAVA").build());
+            formation = formationRepository.save(Formation.builder()
+                    .titre("Formation Java")
+                    .niveau(NiveauFormation.DEBUTANT)
+                    .prerequis("Aucun")
+                    .capaciteMin(1)
+                    .capaciteMax(20)
+                    .inscrits(INSCRITS)
+                    .dateDebut(LocalDateTime.now().plusDays(10))
+                    .dateFin(LocalDateTime.now().plusDays(20))
+                    .statut(FormationStatus.PLANIFIEE)
+                    .formateur(formateur)
+                    .build());
+        });
+    }
+
+    @Test
+    void patch_ShouldUpdateOnlyTheChangedColumns() throws Exception {
+        dataSource.reset();
+        patchFormation("{\"titre\":\"Formation Corrigee\"}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.titre").value("Formation Corrigee"))
+                .andExpect(jsonPath("$.data.prerequis").value("Aucun"));
+
+        List<String> updates = dataSource.statements().stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT))
+                .filter(sql -> sql.startsWith("update formations"))
+                .collect(Collectors.toList());
+        assertThat(updates).hasSize(1);
+        assertThat(updates.get(0)).contains("titre=").doesNotContain("prerequis", "capacite_max", "date_debut",
+                "statut", "formateur_id");
+    }
+
+    @Test
+    void patch_WithNullStatut_ShouldReturnBadRequest() throws Exception {
+        patchFormation("{\"statut\":null}")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.data[0]").value("statut: Le statut est obligatoire"));
+
+        assertThat(statut()).isEqualTo("PLANIFIEE");
+    }
+
+    @Test
+    void patch_WithARosterField_ShouldReturnBadRequest() throws Exception {
+        patchFormation("{\"apprenantIds\":[1,2]}")
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void patch_WithCapaciteMaxBelowInscrits_ShouldReturnBadRequest() throws Exception {
+        patchFormation("{\"capaciteMax\":" + (INSCRITS - 1) + "}")
+                .andExpect(status().isBadRequest());
+
+        assertThat(capaciteMax()).isEqualTo(20);
+    }
+
+    @Test
+    void patch_WithCapaciteMaxAtInscrits_ShouldUpdateIt() throws Exception {
+        patchFormation("{\"capaciteMax\":" + INSCRITS + "}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.capaciteMax").value(INSCRITS));
+
+        assertThat(capaciteMax()).isEqualTo(INSCRITS);
+    }
+
+    @Test
+    void patch_WithAForbiddenTransition_ShouldReturnBadRequest() throws Exception {
+        patchFormation("{\"statut\":\"TERMINEE\"}")
+                .andExpect(status().isBadRequest());
+
+        assertThat(statut()).isEqualTo("PLANIFIEE");
+    }
+
+    @Test
+    void patch_WithAnAllowedTransition_ShouldUpdateTheStatut() throws Exception {
+        patchFormation("{\"statut\":\"EN_COURS\"}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.statut").value("EN_COURS"));
+
+        assertThat(statut()).isEqualTo("EN_COURS");
+    }
+
+    @Test
+    void patch_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        String etag = mockMvc.perform(get("/api/formations/{id}", formation.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        patchFormation("{\"titre\":\"Formation Corrigee\"}").andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/formations/{id}", formation.getId())
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType("application/merge-patch+json")
+                .content("{\"titre\":\"Formation Perdue\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT titre FROM formations WHERE id = ?", String.class,
+                formation.getId())).isEqualTo("Formation Corrigee");
+    }
+
+    private ResultActions patchFormation(String patch) throws Exception {
+        return mockMvc.perform(patch("/api/formations/{id}", formation.getId())
+                .contentType("application/merge-patch+json")
+                .content(patch));
+    }
+
+    private String statut() {
+        return jdbcTemplate.queryForObject("SELECT statut FROM formations WHERE id = ?", String.class,
+                formation.getId());
+    }
+
+    private int capaciteMax() {
+        return jdbcTemplate.queryForObject("SELECT capacite_max FROM formations WHERE id = ?", Integer.class,
+                formation.getId());
+    }
+}
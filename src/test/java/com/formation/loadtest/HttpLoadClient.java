@@ -0,0 +1,79 @@
+package com.formation.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One virtual user: sends its requests one after the other over keep-alive
+ * connections and records each latency under the endpoint pattern, not the URL.
+ */
+final class HttpLoadClient {
+    private static final int TIMEOUT_MILLIS = 60_000;
+
+    private final String baseUrl;
+    private final LoadReport report;
+    private final byte[] buffer = new byte[8192];
+    private long scheduledStart;
+
+    HttpLoadClient(String baseUrl, LoadReport report) {
+        this.baseUrl = baseUrl;
+        this.report = report;
+    }
+
+    /**
+     * Times the next request from this instant rather than from when it is sent,
+     * so that the delay of a late client counts (coordinated omission).
+     */
+    void scheduleAt(long nanos) {
+        scheduledStart = nanos;
+    }
+
+    int get(String endpoint, String path) {
+        return send(endpoint, "GET", path, null);
+    }
+
+    int send(String endpoint, String method, String path, String json) {
+        long start = scheduledStart != 0 ? scheduledStart : System.nanoTime();
+        scheduledStart = 0;
+        int status;
+        try {
+            status = exchange(method, path, json);
+        } catch (IOException e) {
+            status = -1;
+        }
+        report.record(endpoint, (System.nanoTime() - start) / 1_000, status);
+        return status;
+    }
+
+    private int exchange(String method, String path, String json) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        connection.setRequestProperty("Accept", "application/json, application/x-ndjson");
+        if (json != null) {
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+        }
+        int status = connection.getResponseCode();
+        // read to the end so that the connection goes back to the keep-alive cache
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (in != null) {
+            try (InputStream body = in) {
+                while (body.read(buffer) >= 0) {
+                    // discard
+                }
+            }
+        }
+        return status;
+    }
+}
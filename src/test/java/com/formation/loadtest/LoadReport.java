@@ -0,0 +1,153 @@
+package com.formation.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies per endpoint, in microseconds. Recording is wait-free; {@link #reset()}
+ * drops what was recorded during the warm-up.
+ */
+final class LoadReport {
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long micros, int status) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, key -> new Endpoint());
+        stats.latencies.recordValue(Math.max(1, micros));
+        if (status >= 500 || status < 0) {
+            stats.serverErrors.increment();
+        } else if (status >= 400) {
+            stats.clientErrors.increment();
+        }
+    }
+
+    void reset() {
+        endpoints.values().forEach(Endpoint::reset);
+    }
+
+    /**
+     * The latencies recorded since the last reset, by endpoint, plus their total.
+     */
+    Summary summarize(long seconds) {
+        Map<String, Row> rows = new TreeMap<>();
+        Histogram total = new Histogram(3);
+        long clientErrors = 0;
+        long serverErrors = 0;
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Row row = entry.getValue().interval(seconds);
+            if (row.histogram.getTotalCount() > 0) {
+                rows.put(entry.getKey(), row);
+                total.add(row.histogram);
+                clientErrors += row.clientErrors;
+                serverErrors += row.serverErrors;
+            }
+        }
+        return new Summary(rows, new Row(total, clientErrors, serverErrors, seconds));
+    }
+
+    private static final class Endpoint {
+        private final Recorder latencies = new Recorder(3);
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+
+        private void reset() {
+            latencies.reset();
+            clientErrors.reset();
+            serverErrors.reset();
+        }
+
+        private Row interval(long seconds) {
+            return new Row(latencies.getIntervalHistogram(), clientErrors.sumThenReset(), serverErrors.sumThenReset(),
+                    seconds);
+        }
+    }
+
+    static final class Row {
+        final Histogram histogram;
+        final long clientErrors;
+        final long serverErrors;
+        final double throughput;
+
+        private Row(Histogram histogram, long clientErrors, long serverErrors, long seconds) {
+            this.histogram = histogram;
+            this.clientErrors = clientErrors;
+            this.serverErrors = serverErrors;
+            this.throughput = histogram.getTotalCount() / (double) Math.max(1, seconds);
+        }
+
+        double millis(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    static final class Summary {
+        static final String TOTAL = "TOTAL";
+
+        final Map<String, Row> rows;
+        final Row total;
+
+        private Summary(Map<String, Row> rows, Row total) {
+            this.rows = rows;
+            this.total = total;
+        }
+
+        void print(PrintStream out) {
+            out.println(String.format(Locale.ROOT, "%-58s %9s %9s %7s %7s %9s %9s %9s %9s", "endpoint", "requests",
+                    "req/s", "4xx", "5xx", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+            rows.forEach((endpoint, row) -> out.println(line(endpoint, row)));
+            out.println(line(TOTAL, total));
+        }
+
+        /**
+         * Writes summary.csv and, per endpoint, the full percentile distribution
+         * (.hgrm, in milliseconds) that HdrHistogram's plotter reads.
+         */
+        void write(Path directory) throws IOException {
+            Files.createDirectories(directory);
+            List<String> csv = new ArrayList<>();
+            csv.add("endpoint,requests,throughput,client_errors,server_errors,p50_ms,p99_ms,p999_ms,max_ms");
+            rows.forEach((endpoint, row) -> csv.add(csv(endpoint, row)));
+            csv.add(csv(TOTAL, total));
+            Files.write(directory.resolve("summary.csv"), csv, StandardCharsets.UTF_8);
+            for (Map.Entry<String, Row> entry : rows.entrySet()) {
+                writeDistribution(directory.resolve(fileName(entry.getKey()) + ".hgrm"), entry.getValue());
+            }
+            writeDistribution(directory.resolve("total.hgrm"), total);
+        }
+
+        private static void writeDistribution(Path file, Row row) throws FileNotFoundException {
+            try (PrintStream out = new PrintStream(file.toFile())) {
+                row.histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+
+        private static String line(String endpoint, Row row) {
+            return String.format(Locale.ROOT, "%-58s %9d %9.1f %7d %7d %9.2f %9.2f %9.2f %9.2f", endpoint,
+                    row.histogram.getTotalCount(), row.throughput, row.clientErrors, row.serverErrors,
+                    row.millis(50), row.millis(99), row.millis(99.9), row.histogram.getMaxValue() / 1000.0);
+        }
+
+        private static String csv(String endpoint, Row row) {
+            return String.format(Locale.ROOT, "\"%s\",%d,%.2f,%d,%d,%.3f,%.3f,%.3f,%.3f", endpoint,
+                    row.histogram.getTotalCount(), row.throughput, row.clientErrors, row.serverErrors,
+                    row.millis(50), row.millis(99), row.millis(99.9), row.histogram.getMaxValue() / 1000.0);
+        }
+
+        private static String fileName(String endpoint) {
+            return endpoint.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "");
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.formation.loadtest;
+
+import com.formation.FormationApplication;
+import com.formation.dataset.DatasetSpec;
+import com.formation.search.AbstractSearchIndex;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the API on an embedded server with the H2 (dev) profile, filled by
+ * the {@code dataset} profile. The clients replay the {@link Workload} mix for a
+ * warm-up, then for the measured duration, and the latencies of each endpoint are
+ * reported with HdrHistogram: throughput, p50, p99, p99.9 and max, in
+ * {@code target/loadtest/<mode>}.
+ * <p>
+ * With {@code --modes=platform,virtual} (Java 21) the same run is repeated with the
+ * requests on virtual threads, against a fresh database with the same seed and
+ * connection pool, and the two are compared side by side:
+ * <pre>
+ * mvn -Ploadtest verify -DskipTests -Dloadtest.args="--modes=platform,virtual --clients=5000"
+ * </pre>
+ * Without {@code --rate} each client sends its next request as soon as the previous
+ * one is answered; with it, requests are scheduled at that total rate and latencies
+ * are measured from their scheduled start, so a stalled server is not hidden.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        // the launcher is not the application's main: no devtools restart
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        System.setProperty("http.maxConnections", String.valueOf(options.clients));
+        System.out.println("Load test: " + options);
+
+        Map<String, LoadReport.Summary> summaries = new LinkedHashMap<>();
+        for (String mode : options.modes) {
+            LoadReport.Summary summary = run(mode, options);
+            if (summary != null) {
+                summaries.put(mode, summary);
+            }
+        }
+        if (summaries.size() > 1) {
+            compare(summaries);
+        }
+    }
+
+    private static LoadReport.Summary run(String mode, LoadTestOptions options) throws Exception {
+        ConfigurableApplicationContext context;
+        try {
+            context = start(mode, options);
+        } catch (RuntimeException e) {
+            System.out.println("Mode " + mode + " skipped: " + rootCause(e).getMessage());
+            return null;
+        }
+        try {
+            awaitSearchIndexes(context);
+            Workload workload = Workload.load(options, context.getBean(JdbcTemplate.class));
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            System.out.println("Mode " + mode + ": " + workload.describe() + ", server on port " + port);
+
+            LoadReport report = new LoadReport();
+            drive(workload, report, "http://localhost:" + port, options);
+
+            LoadReport.Summary summary = report.summarize(options.duration.getSeconds());
+            System.out.println();
+            System.out.println("Mode " + mode + ", " + options.clients + " clients, " + options.duration.getSeconds() + " s:");
+            summary.print(System.out);
+            Path directory = Paths.get(options.output, mode);
+            summary.write(directory);
+            System.out.println("Percentile distributions written to " + directory.toAbsolutePath());
+            return summary;
+        } finally {
+            context.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String mode, LoadTestOptions options) {
+        DatasetSpec production = DatasetSpec.builder().build();
+        // command line arguments, to take precedence over the profile files
+        String[] arguments = {
+                "--server.port=0",
+                // one database per mode, filled with the same seed
+                "--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";LOCK_TIMEOUT=10000",
+                "--spring.datasource.hikari.maximum-pool-size=" + options.poolSize,
+                "--spring.datasource.hikari.minimum-idle=" + options.poolSize,
+                "--formation.dataset.seed=" + options.seed,
+                "--formation.dataset.apprenants=" + scaled(production.getApprenants(), options.scale),
+                "--formation.dataset.formateurs=" + scaled(production.getFormateurs(), options.scale),
+                "--formation.dataset.formations=" + scaled(production.getFormations(), options.scale),
+                "--spring.jpa.show-sql=false",
+                "--debug=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.formation=WARN",
+                "--logging.level.com.formation.dataset=INFO" };
+        SpringApplicationBuilder application = new SpringApplicationBuilder(FormationApplication.class);
+        if (mode.equals("virtual")) {
+            application.profiles("dataset", "virtual");
+        } else {
+            application.profiles("dataset");
+        }
+        return application.run(arguments);
+    }
+
+    private static void drive(Workload workload, LoadReport report, String baseUrl, LoadTestOptions options)
+            throws InterruptedException {
+        long warmUpEnd = System.nanoTime() + options.warmUp.toNanos();
+        long end = warmUpEnd + options.duration.toNanos();
+        // each client sends one request per interval when a rate is set
+        long interval = options.rate > 0 ? TimeUnit.SECONDS.toNanos(options.clients) / options.rate : 0;
+
+        ExecutorService clients = Executors.newFixedThreadPool(options.clients);
+        CountDownLatch done = new CountDownLatch(options.clients);
+        for (int c = 0; c < options.clients; c++) {
+            SplittableRandom random = new SplittableRandom(options.seed * 31 + c);
+            HttpLoadClient client = new HttpLoadClient(baseUrl, report);
+            // spread the first requests over one interval
+            long first = System.nanoTime() + (interval > 0 ? interval * c / options.clients : 0);
+            clients.execute(() -> {
+                try {
+                    long next = first;
+                    while (System.nanoTime() < end) {
+                        if (interval > 0) {
+                            long wait = next - System.nanoTime();
+                            if (wait > 0) {
+                                TimeUnit.NANOSECONDS.sleep(wait);
+                            }
+                            client.scheduleAt(next);
+                            next += interval;
+                        }
+                        workload.next(random, client);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, warmUpEnd - System.nanoTime()));
+        report.reset();
+        System.out.println("Warm-up done, measuring for " + options.duration.getSeconds() + " s");
+        done.await();
+        clients.shutdown();
+    }
+
+    private static void awaitSearchIndexes(ConfigurableApplicationContext context) throws InterruptedException {
+        if (!context.getEnvironment().getProperty("formation.search.index.enabled", Boolean.class, true)) {
+            return;
+        }
+        for (AbstractSearchIndex index : context.getBeansOfType(AbstractSearchIndex.class).values()) {
+            while (!index.isReady()) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        }
+    }
+
+    private static void compare(Map<String, LoadReport.Summary> summaries) {
+        List<String> modes = new ArrayList<>(summaries.keySet());
+        TreeSet<String> endpoints = new TreeSet<>();
+        summaries.values().forEach(summary -> endpoints.addAll(summary.rows.keySet()));
+
+        StringBuilder header = new StringBuilder(String.format(Locale.ROOT, "%-58s", "endpoint"));
+        for (String mode : modes) {
+            header.append(String.format(Locale.ROOT, " %14s %14s", "req/s " + mode, "p99 ms " + mode));
+        }
+        System.out.println();
+        System.out.println("Comparison:");
+        System.out.println(header);
+        for (String endpoint : endpoints) {
+            System.out.println(compareLine(endpoint, modes, summaries));
+        }
+        System.out.println(compareLine(LoadReport.Summary.TOTAL, modes, summaries));
+    }
+
+    private static String compareLine(String endpoint, List<String> modes, Map<String, LoadReport.Summary> summaries) {
+        StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "%-58s", endpoint));
+        for (String mode : modes) {
+            LoadReport.Summary summary = summaries.get(mode);
+            LoadReport.Row row = endpoint.equals(LoadReport.Summary.TOTAL) ? summary.total : summary.rows.get(endpoint);
+            if (row == null) {
+                line.append(String.format(Locale.ROOT, " %14s %14s", "-", "-"));
+            } else {
+                line.append(String.format(Locale.ROOT, " %14.1f %14.2f", row.throughput, row.millis(99)));
+            }
+        }
+        return line.toString();
+    }
+
+    private static int scaled(int count, double scale) {
+        return (int) Math.max(1, Math.round(count * scale));
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
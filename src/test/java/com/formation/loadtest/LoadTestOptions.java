@@ -0,0 +1,77 @@
+package com.formation.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line of {@link LoadTest}, as {@code --name=value} arguments.
+ */
+final class LoadTestOptions {
+    /** Platform request threads, or virtual threads (profile virtual, Java 21). */
+    final List<String> modes;
+    final int clients;
+    /** Target rate in requests per second over all clients; 0 runs a closed loop. */
+    final int rate;
+    final Duration warmUp;
+    final Duration duration;
+    /** Share of the production volumes of DatasetSpec. */
+    final double scale;
+    final long seed;
+    /** Weight of each operation of the {@link Workload}. */
+    final Map<String, Integer> mix;
+    /** Enrolments sent back to back by one enrol operation. */
+    final int burst;
+    /** Connection pool of the application, the same in every mode. */
+    final int poolSize;
+    final String output;
+
+    private LoadTestOptions(Map<String, String> values) {
+        modes = Arrays.asList(values.getOrDefault("modes", "platform").split(","));
+        clients = Integer.parseInt(values.getOrDefault("clients", "64"));
+        rate = Integer.parseInt(values.getOrDefault("rate", "0"));
+        warmUp = Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "20")));
+        duration = Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60")));
+        scale = Double.parseDouble(values.getOrDefault("scale", "0.1"));
+        seed = Long.parseLong(values.getOrDefault("seed", "42"));
+        mix = parseMix(values.getOrDefault("mix", "browse:35,detail:20,search:20,enrol:15,status:10"));
+        burst = Integer.parseInt(values.getOrDefault("burst", "5"));
+        poolSize = Integer.parseInt(values.getOrDefault("pool", "30"));
+        output = values.getOrDefault("output", "target/loadtest");
+        for (String mode : modes) {
+            if (!mode.equals("platform") && !mode.equals("virtual")) {
+                throw new IllegalArgumentException("Unknown mode " + mode + ", expected platform or virtual");
+            }
+        }
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            values.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        return "modes=" + modes + " clients=" + clients + " rate=" + (rate > 0 ? rate + "/s" : "closed loop")
+                + " warmup=" + warmUp.getSeconds() + "s duration=" + duration.getSeconds() + "s scale=" + scale
+                + " seed=" + seed + " mix=" + mix + " burst=" + burst + " pool=" + poolSize;
+    }
+}
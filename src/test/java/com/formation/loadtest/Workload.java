@@ -0,0 +1,216 @@
+package com.formation.loadtest;
+
+import com.formation.models.NiveauFormation;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+
+/**
+ * The operations replayed by the clients, drawn by weight:
+ * <ul>
+ * <li>browse: pages of formations, classes and formateurs, and the catalog stream;</li>
+ * <li>detail: one formation, apprenant, formateur or classe by id;</li>
+ * <li>search: formations by titre, apprenants and formateurs by name;</li>
+ * <li>enrol: a burst of enrolments of same-niveau apprenants into a planned formation,
+ * one by one or as one batch;</li>
+ * <li>status: a planned formation moved to EN_COURS.</li>
+ * </ul>
+ * Targets are read from the generated dataset once, before the run. The planned
+ * formations are dealt alternately to enrol and to status, so that no enrolment
+ * targets a formation already started by the run: it would be refused.
+ */
+final class Workload {
+    private static final List<String> OPERATIONS = Arrays.asList("browse", "detail", "search", "enrol", "status");
+    private static final String[] TITRES = { "Java", "Spring", "Angular", "Docker", "Python", "SQL", "Data" };
+    private static final String[] NOMS = { "Martin", "Tazi", "Dubois", "Alaoui", "Garcia", "Petit", "Moreau" };
+    private static final int PAGE_SIZE = 20;
+
+    private final String[] operations;
+    private final int[] weights;
+    private final int totalWeight;
+    private final int burst;
+
+    private final long[] formations;
+    private final long[] formateurs;
+    private final long[] classes;
+    private final long[] apprenants;
+    private final long[] enrolFormations;
+    private final byte[] enrolNiveaux;
+    private final long[] statusFormations;
+    private final long[][] apprenantsByNiveau;
+
+    private Workload(LoadTestOptions options, JdbcTemplate jdbcTemplate) {
+        operations = new String[options.mix.size()];
+        weights = new int[options.mix.size()];
+        int i = 0;
+        int total = 0;
+        for (Map.Entry<String, Integer> entry : options.mix.entrySet()) {
+            if (!OPERATIONS.contains(entry.getKey())) {
+                throw new IllegalArgumentException("Unknown operation " + entry.getKey() + ", expected one of " + OPERATIONS);
+            }
+            operations[i] = entry.getKey();
+            weights[i++] = entry.getValue();
+            total += entry.getValue();
+        }
+        totalWeight = total;
+        burst = options.burst;
+
+        formations = ids(jdbcTemplate, "SELECT id FROM formations ORDER BY id");
+        formateurs = ids(jdbcTemplate, "SELECT id FROM formateurs ORDER BY id");
+        classes = ids(jdbcTemplate, "SELECT id FROM classes ORDER BY id");
+        apprenants = ids(jdbcTemplate, "SELECT id FROM apprenants ORDER BY id");
+
+        List<long[]> planned = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, niveau FROM formations WHERE statut = 'PLANIFIEE' ORDER BY id",
+                rs -> { planned.add(new long[] { rs.getLong(1), NiveauFormation.valueOf(rs.getString(2)).ordinal() }); });
+        enrolFormations = new long[(planned.size() + 1) / 2];
+        enrolNiveaux = new byte[enrolFormations.length];
+        statusFormations = new long[planned.size() / 2];
+        for (int p = 0; p < planned.size(); p++) {
+            if (p % 2 == 0) {
+                enrolFormations[p / 2] = planned.get(p)[0];
+                enrolNiveaux[p / 2] = (byte) planned.get(p)[1];
+            } else {
+                statusFormations[p / 2] = planned.get(p)[0];
+            }
+        }
+        apprenantsByNiveau = new long[NiveauFormation.values().length][];
+        for (NiveauFormation niveau : NiveauFormation.values()) {
+            apprenantsByNiveau[niveau.ordinal()] = ids(jdbcTemplate,
+                    "SELECT id FROM apprenants WHERE niveau = '" + niveau.name() + "' ORDER BY id");
+        }
+    }
+
+    static Workload load(LoadTestOptions options, JdbcTemplate jdbcTemplate) {
+        return new Workload(options, jdbcTemplate);
+    }
+
+    String describe() {
+        return formations.length + " formations (" + enrolFormations.length + " planned for enrol, "
+                + statusFormations.length + " for status), " + apprenants.length
+                + " apprenants, " + formateurs.length + " formateurs, " + classes.length + " classes";
+    }
+
+    void next(SplittableRandom random, HttpLoadClient client) {
+        int draw = random.nextInt(totalWeight);
+        int op = 0;
+        while (draw >= weights[op]) {
+            draw -= weights[op++];
+        }
+        switch (operations[op]) {
+            case "browse":
+                browse(random, client);
+                break;
+            case "detail":
+                detail(random, client);
+                break;
+            case "search":
+                search(random, client);
+                break;
+            case "enrol":
+                enrol(random, client);
+                break;
+            default:
+                status(random, client);
+        }
+    }
+
+    private void browse(SplittableRandom random, HttpLoadClient client) {
+        switch (random.nextInt(5)) {
+            case 0:
+                client.get("GET /api/formations", "/api/formations?size=" + PAGE_SIZE + "&page=" + page(random, formations));
+                break;
+            case 1:
+                client.get("GET /api/formations/cursor", "/api/formations/cursor?size=" + PAGE_SIZE);
+                break;
+            case 2:
+                client.get("GET /api/classes", "/api/classes?size=" + PAGE_SIZE + "&page=" + page(random, classes));
+                break;
+            case 3:
+                client.get("GET /api/formateurs/page",
+                        "/api/formateurs/page?size=" + PAGE_SIZE + "&page=" + page(random, formateurs));
+                break;
+            default:
+                client.get("GET /api/catalog/formations/search",
+                        "/api/catalog/formations/search?titre=" + TITRES[random.nextInt(TITRES.length)]);
+        }
+    }
+
+    private void detail(SplittableRandom random, HttpLoadClient client) {
+        switch (random.nextInt(4)) {
+            case 0:
+                client.get("GET /api/formations/{id}", "/api/formations/" + any(random, formations));
+                break;
+            case 1:
+                client.get("GET /api/apprenants/{id}", "/api/apprenants/" + any(random, apprenants));
+                break;
+            case 2:
+                client.get("GET /api/formateurs/{id}", "/api/formateurs/" + any(random, formateurs));
+                break;
+            default:
+                client.get("GET /api/classes/{id}", "/api/classes/" + any(random, classes));
+        }
+    }
+
+    private void search(SplittableRandom random, HttpLoadClient client) {
+        switch (random.nextInt(3)) {
+            case 0:
+                client.get("GET /api/formations/search",
+                        "/api/formations/search?size=" + PAGE_SIZE + "&titre=" + TITRES[random.nextInt(TITRES.length)]);
+                break;
+            case 1:
+                client.get("GET /api/apprenants/search",
+                        "/api/apprenants/search?size=" + PAGE_SIZE + "&term=" + NOMS[random.nextInt(NOMS.length)]);
+                break;
+            default:
+                client.get("GET /api/formateurs/search",
+                        "/api/formateurs/search?size=" + PAGE_SIZE + "&term=" + NOMS[random.nextInt(NOMS.length)]);
+        }
+    }
+
+    private void enrol(SplittableRandom random, HttpLoadClient client) {
+        if (enrolFormations.length == 0) {
+            return;
+        }
+        int formation = random.nextInt(enrolFormations.length);
+        long formationId = enrolFormations[formation];
+        long[] candidates = apprenantsByNiveau[enrolNiveaux[formation]];
+        if (random.nextBoolean()) {
+            for (int i = 0; i < burst; i++) {
+                client.send("POST /api/formations/{id}/apprenants/{apprenantId}", "POST",
+                        "/api/formations/" + formationId + "/apprenants/" + any(random, candidates), null);
+            }
+        } else {
+            StringJoiner ids = new StringJoiner(",", "[", "]");
+            for (int i = 0; i < burst; i++) {
+                ids.add(String.valueOf(any(random, candidates)));
+            }
+            client.send("POST /api/formations/{id}/apprenants", "POST",
+                    "/api/formations/" + formationId + "/apprenants", ids.toString());
+        }
+    }
+
+    private void status(SplittableRandom random, HttpLoadClient client) {
+        if (statusFormations.length > 0) {
+            client.send("PUT /api/formations/{id}/status/{status}", "PUT",
+                    "/api/formations/" + any(random, statusFormations) + "/status/EN_COURS", null);
+        }
+    }
+
+    private static long any(SplittableRandom random, long[] ids) {
+        return ids[random.nextInt(ids.length)];
+    }
+
+    private static int page(SplittableRandom random, long[] ids) {
+        return random.nextInt(Math.max(1, ids.length / PAGE_SIZE));
+    }
+
+    private static long[] ids(JdbcTemplate jdbcTemplate, String sql) {
+        return jdbcTemplate.queryForList(sql, Long.class).stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,99 @@
+package com.formation.performance;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Counts the statements sent to the database, whatever sends them: Hibernate,
+ * the JdbcTemplate batches of the services or the streaming exports. A JDBC batch
+ * is one round trip and counts once.
+ */
+public class CountingDataSource extends DelegatingDataSource {
+    private final Queue<String> statements = new ConcurrentLinkedQueue<>();
+
+    public CountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    public int count() {
+        return statements.size();
+    }
+
+    /**
+     * The SQL of the statements executed since the last reset, in order.
+     */
+    public List<String> statements() {
+        return new ArrayList<>(statements);
+    }
+
+    /**
+     * Closes the pool on shutdown, which Spring would otherwise infer on the pool itself.
+     */
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable) {
+            ((AutoCloseable) getTargetDataSource()).close();
+        }
+    }
+
+    private Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement) {
+                        String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                        return counting((Statement) result, sql);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement counting(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        statements.add(args != null && args.length > 0 && args[0] instanceof String
+                                ? (String) args[0]
+                                : String.valueOf(preparedSql));
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
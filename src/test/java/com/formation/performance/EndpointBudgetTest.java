@@ -0,0 +1,494 @@
+package com.formation.performance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.formation.controllers.ApprenantController;
+import com.formation.controllers.ClasseController;
+import com.formation.controllers.FormateurController;
+import com.formation.controllers.FormationController;
+import com.formation.dto.ApprenantDTO;
+import com.formation.dto.ClasseDTO;
+import com.formation.dto.FormateurDTO;
+import com.formation.dto.FormationDTO;
+import com.formation.models.Apprenant;
+import com.formation.models.Classe;
+import com.formation.models.Formateur;
+import com.formation.models.Formation;
+import com.formation.models.FormationStatus;
+import com.formation.models.NiveauFormation;
+import com.formation.repositories.ApprenantRepository;
+import com.formation.repositories.ClasseRepository;
+import com.formation.repositories.FormateurRepository;
+import com.formation.repositories.FormationRepository;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Query and allocation budgets of every endpoint of the four resource controllers.
+ * <p>
+ * Each request runs against a fixture of 20 classes, formateurs and formations and
+ * 40 apprenants, once to warm up (class loading, JIT, query plans) and once measured
+ * on a fresh fixture with the second-level cache emptied: the budgets are the cold
+ * cost, an N+1 shows up as 20 or 40 extra statements. The statements are counted at
+ * the DataSource, the allocations summed over the JVM threads while the request runs.
+ * A new endpoint fails {@link #everyEndpoint_ShouldHaveABudget()} until it gets one.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:budgetdb",
+        "spring.jpa.show-sql=false",
+        "debug=false",
+        "logging.level.com.formation=WARN",
+        "formation.search.index.enabled=false",
+        "formation.response-cache.enabled=false" })
+@AutoConfigureMockMvc
+@Import(QueryCountingConfig.class)
+class EndpointBudgetTest {
+    private static final int ROWS = 20;
+    private static final int READ_KB = 4 * 1024;
+    private static final int WRITE_KB = 8 * 1024;
+    private static final List<Class<?>> CONTROLLERS = Arrays.asList(
+            ApprenantController.class, ClasseController.class, FormateurController.class, FormationController.class);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CountingDataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ClasseRepository classeRepository;
+
+    @Autowired
+    private FormateurRepository formateurRepository;
+
+    @Autowired
+    private ApprenantRepository apprenantRepository;
+
+    @Autowired
+    private FormationRepository formationRepository;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    private List<Budget> budgets() {
+        return Arrays.asList(
+                // Classes
+                write("POST /api/classes", 2, f -> json(post("/api/classes"),
+                        ClasseDTO.builder().nom("Classe Nouvelle").numSalle("500").build())),
+                write("PUT /api/classes/{id}", 7, f -> json(put("/api/classes/{id}", f.classe(0)),
+                        ClasseDTO.builder().nom("Classe Renommee").numSalle("101")
+                                .apprenantIds(ids(f.apprenant(0), f.apprenant(1)))
+                                .formateurIds(ids(f.formateur(0))).build())),
+                write("PATCH /api/classes/{id}", 4, f -> json(patch("/api/classes/{id}", f.classe(0)),
+                        Collections.singletonMap("nom", "Classe Renommee"))),
+                write("DELETE /api/classes/{id}", 8, f -> delete("/api/classes/{id}", f.classe(0))),
+                write("DELETE /api/classes", 8, f -> json(delete("/api/classes"), f.classes.subList(0, 10))),
+                read("GET /api/classes/{id}", 3, f -> get("/api/classes/{id}", f.classe(0))),
+                read("GET /api/classes", 4, f -> get("/api/classes").param("size", "20")),
+                read("GET /api/classes/export", 3, f -> get("/api/classes/export")),
+                read("GET /api/classes/search", 3, f -> get("/api/classes/search").param("nom", "Classe")),
+                read("GET /api/classes/available", 3, f -> get("/api/classes/available").param("maxCapacity", "30")),
+                write("POST /api/classes/{id}/apprenants/{apprenantId}", 6,
+                        f -> post("/api/classes/{id}/apprenants/{apprenantId}", f.spareClasse, f.spareApprenant)),
+                write("DELETE /api/classes/{id}/apprenants/{apprenantId}", 4,
+                        f -> delete("/api/classes/{id}/apprenants/{apprenantId}", f.classe(0), f.apprenant(0))),
+                write("POST /api/classes/{id}/formateurs/{formateurId}", 4,
+                        f -> post("/api/classes/{id}/formateurs/{formateurId}", f.spareClasse, f.spareFormateur)),
+                write("DELETE /api/classes/{id}/formateurs/{formateurId}", 3,
+                        f -> delete("/api/classes/{id}/formateurs/{formateurId}", f.classe(0), f.formateur(0))),
+
+                // Apprenants
+                write("POST /api/apprenants", 2, f -> json(post("/api/apprenants"), apprenant("nouveau"))),
+                write("PUT /api/apprenants/{id}", 4, f -> {
+                    ApprenantDTO dto = apprenant("apprenant0");
+                    dto.setClasseId(f.classe(0));
+                    dto.setFormationIds(ids(f.formation(0)));
+                    return json(put("/api/apprenants/{id}", f.apprenant(0)), dto);
+                }),
+                write("PATCH /api/apprenants/{id}", 2, f -> json(patch("/api/apprenants/{id}", f.apprenant(0)),
+                        Collections.singletonMap("nom", "Nom Corrige"))),
+                write("DELETE /api/apprenants/{id}", 9, f -> delete("/api/apprenants/{id}", f.apprenant(0))),
+                write("DELETE /api/apprenants", 8, f -> json(delete("/api/apprenants"), f.apprenants.subList(0, 10))),
+                read("GET /api/apprenants/{id}", 1, f -> get("/api/apprenants/{id}", f.apprenant(0))),
+                read("GET /api/apprenants", 2, f -> get("/api/apprenants").param("size", "20")),
+                read("GET /api/apprenants/cursor", 1, f -> get("/api/apprenants/cursor").param("size", "20")),
+                read("GET /api/apprenants/niveau/{niveau}", 1, f -> get("/api/apprenants/niveau/{niveau}", "DEBUTANT")),
+                read("GET /api/apprenants/search", 2,
+                        f -> get("/api/apprenants/search").param("term", "Nom").param("size", "20")),
+                read("GET /api/apprenants/export", 1, f -> get("/api/apprenants/export")),
+                write("POST /api/apprenants/import", 3, f -> json(post("/api/apprenants/import"),
+                        IntStream.range(0, 10).mapToObj(i -> apprenant("importe" + letters(i))).collect(Collectors.toList()))),
+                write("POST /api/apprenants/{id}/formations/{formationId}", 9,
+                        f -> post("/api/apprenants/{id}/formations/{formationId}", f.spareApprenant, f.formation(0))),
+                write("DELETE /api/apprenants/{id}/formations/{formationId}", 8,
+                        f -> delete("/api/apprenants/{id}/formations/{formationId}", f.apprenant(0), f.formation(0))),
+
+                // Formateurs
+                write("POST /api/formateurs", 2, f -> json(post("/api/formateurs"), formateur("nouveau"))),
+                write("PUT /api/formateurs/{id}", 3, f -> {
+                    FormateurDTO dto = formateur("formateur0");
+                    dto.setClasseId(f.classe(0));
+                    return json(put("/api/formateurs/{id}", f.formateur(0)), dto);
+                }),
+                write("PATCH /api/formateurs/{id}", 3, f -> json(patch("/api/formateurs/{id}", f.formateur(0)),
+                        Collections.singletonMap("specialite", "Spring Boot"))),
+                write("DELETE /api/formateurs/{id}", 7, f -> delete("/api/formateurs/{id}", f.formateur(0))),
+                write("DELETE /api/formateurs", 6, f -> json(delete("/api/formateurs"), f.formateurs.subList(0, 10))),
+                read("GET /api/formateurs/{id}", 2, f -> get("/api/formateurs/{id}", f.formateur(0))),
+                read("GET /api/formateurs", 2, f -> get("/api/formateurs")),
+                read("GET /api/formateurs/page", 3, f -> get("/api/formateurs/page").param("size", "20")),
+                read("GET /api/formateurs/cursor", 2, f -> get("/api/formateurs/cursor").param("size", "20")),
+                read("GET /api/formateurs/email/{email}", 2,
+                        f -> get("/api/formateurs/email/{email}", "formateur0@budget.test")),
+                read("GET /api/formateurs/specialites", 1, f -> get("/api/formateurs/specialites")),
+                read("GET /api/formateurs/specialite/{specialite}", 2,
+                        f -> get("/api/formateurs/specialite/{specialite}", "JAVA")),
+                write("POST /api/formateurs/import", 3, f -> json(post("/api/formateurs/import"),
+                        IntStream.range(0, 10).mapToObj(i -> formateur("importe" + letters(i))).collect(Collectors.toList()))),
+                read("GET /api/formateurs/export", 2, f -> get("/api/formateurs/export")),
+                read("GET /api/formateurs/search", 3,
+                        f -> get("/api/formateurs/search").param("term", "Nom").param("size", "20")),
+                write("POST /api/formateurs/{id}/classes/{classeId}", 4,
+                        f -> post("/api/formateurs/{id}/classes/{classeId}", f.spareFormateur, f.spareClasse)),
+                write("DELETE /api/formateurs/{id}/classes", 3, f -> delete("/api/formateurs/{id}/classes", f.formateur(0))),
+                write("POST /api/formateurs/{id}/formations/{formationId}", 5,
+                        f -> post("/api/formateurs/{id}/formations/{formationId}", f.spareFormateur, f.openFormation)),
+                write("DELETE /api/formateurs/{id}/formations/{formationId}", 5,
+                        f -> delete("/api/formateurs/{id}/formations/{formationId}", f.formateur(0), f.formation(0))),
+
+                // Formations
+                write("POST /api/formations", 3, f -> {
+                    FormationDTO dto = formation("Formation Nouvelle");
+                    dto.setFormateurId(f.spareFormateur);
+                    return json(post("/api/formations"), dto);
+                }),
+                write("PUT /api/formations/{id}", 10, f -> {
+                    FormationDTO dto = formation("Formation Renommee");
+                    dto.setFormateurId(f.formateur(0));
+                    dto.setApprenantIds(ids(f.apprenant(0), f.apprenant(1)));
+                    return json(put("/api/formations/{id}", f.formation(0)), dto);
+                }),
+                write("PATCH /api/formations/{id}", 3, f -> json(patch("/api/formations/{id}", f.formation(0)),
+                        Collections.singletonMap("titre", "Formation Corrigee"))),
+                write("DELETE /api/formations/{id}", 7, f -> delete("/api/formations/{id}", f.formation(0))),
+                write("DELETE /api/formations", 6, f -> json(delete("/api/formations"), f.formations.subList(0, 10))),
+                read("GET /api/formations/{id}", 2, f -> get("/api/formations/{id}", f.formation(0))),
+                read("GET /api/formations", 3, f -> get("/api/formations").param("size", "20")),
+                read("GET /api/formations/cursor", 2, f -> get("/api/formations/cursor").param("size", "20")),
+                read("GET /api/formations/all", 2, f -> get("/api/formations/all")),
+                read("GET /api/formations/status/{statut}", 2, f -> get("/api/formations/status/{statut}", "PLANIFIEE")),
+                read("GET /api/formations/dates", 2, f -> get("/api/formations/dates")
+                        .param("debut", LocalDateTime.now().toString())
+                        .param("fin", LocalDateTime.now().plusDays(60).toString())),
+                read("GET /api/formations/formateur/{formateurId}", 2,
+                        f -> get("/api/formations/formateur/{formateurId}", f.formateur(0))),
+                read("GET /api/formations/available", 2, f -> get("/api/formations/available")),
+                write("POST /api/formations/{id}/apprenants/{apprenantId}", 8,
+                        f -> post("/api/formations/{id}/apprenants/{apprenantId}", f.formation(0), f.spareApprenant)),
+                write("DELETE /api/formations/{id}/apprenants/{apprenantId}", 7,
+                        f -> delete("/api/formations/{id}/apprenants/{apprenantId}", f.formation(0), f.apprenant(0))),
+                write("POST /api/formations/{id}/apprenants", 8, f -> json(post("/api/formations/{id}/apprenants", f.formation(0)),
+                        IntStream.range(2, 12).mapToObj(f::apprenant).collect(Collectors.toList()))),
+                write("DELETE /api/formations/{id}/apprenants", 6, f -> json(delete("/api/formations/{id}/apprenants", f.formation(0)),
+                        Arrays.asList(f.apprenant(0), f.apprenant(1)))),
+                write("PUT /api/formations/{id}/status/{status}", 2,
+                        f -> put("/api/formations/{id}/status/{status}", f.formation(0), "EN_COURS")),
+                read("GET /api/formations/niveau/{niveau}", 2, f -> get("/api/formations/niveau/{niveau}", "DEBUTANT")),
+                read("GET /api/formations/export", 2, f -> get("/api/formations/export")),
+                read("GET /api/formations/search", 3,
+                        f -> get("/api/formations/search").param("titre", "Formation").param("size", "20")),
+                read("GET /api/formations/{id}/full", 1, f -> get("/api/formations/{id}/full", f.formation(0))));
+    }
+
+    @TestFactory
+    Stream<DynamicTest> endpoints_ShouldStayWithinTheirBudgets() {
+        return budgets().stream().map(budget -> DynamicTest.dynamicTest(budget.endpoint, () -> check(budget)));
+    }
+
+    @Test
+    void everyEndpoint_ShouldHaveABudget() {
+        Set<String> endpoints = new TreeSet<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> handler : handlerMapping.getHandlerMethods().entrySet()) {
+            if (CONTROLLERS.contains(handler.getValue().getBeanType())) {
+                handler.getKey().getMethodsCondition().getMethods().forEach(method -> handler.getKey().getPatternValues()
+                        .forEach(pattern -> endpoints.add(method + " " + pattern)));
+            }
+        }
+        Set<String> budgeted = budgets().stream().map(budget -> budget.endpoint).collect(Collectors.toSet());
+
+        assertThat(budgeted).as("endpoints with a budget").containsAll(endpoints);
+        assertThat(endpoints).as("budgets of existing endpoints").containsAll(budgeted);
+    }
+
+    private void check(Budget budget) throws Exception {
+        perform(budget, seed());
+
+        Fixture fixture = seed();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        dataSource.reset();
+        ThreadAllocations allocations = ThreadAllocations.start();
+        perform(budget, fixture);
+        long kb = allocations.bytes() / 1024;
+        List<String> statements = dataSource.statements();
+
+        assertThat(statements.size())
+                .as("%s: %d statements for a budget of %d%n%s", budget.endpoint, statements.size(), budget.maxQueries,
+                        String.join(System.lineSeparator(), statements))
+                .isLessThanOrEqualTo(budget.maxQueries);
+        assertThat(kb)
+                .as("%s: %d KB allocated for a budget of %d KB", budget.endpoint, kb, budget.maxKb)
+                .isLessThanOrEqualTo(budget.maxKb);
+    }
+
+    private void perform(Budget budget, Fixture fixture) throws Exception {
+        MvcResult result = mockMvc.perform(budget.request.build(fixture)).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result.getAsyncResult();
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertThat(result.getResponse().getStatus())
+                .as("%s: %s", budget.endpoint, result.getResponse().getContentAsString())
+                .isBetween(200, 299);
+    }
+
+    /**
+     * Replaces the data with 20 classes, each with one formateur, two apprenants and
+     * one planned formation for them, plus a free classe, formateur and apprenant and
+     * a formation without formateur.
+     */
+    private Fixture seed() {
+        jdbcTemplate.update("DELETE FROM formation_apprenant");
+        jdbcTemplate.update("DELETE FROM formations");
+        jdbcTemplate.update("DELETE FROM apprenants");
+        jdbcTemplate.update("DELETE FROM formateurs");
+        jdbcTemplate.update("DELETE FROM classes");
+
+        return transactionTemplate.execute(status -> {
+            List<Classe> classes = new ArrayList<>();
+            for (int i = 0; i <= ROWS; i++) {
+                classes.add(Classe.builder().nom("Classe " + letters(i)).numSalle(String.valueOf(101 + i)).build());
+            }
+            classeRepository.saveAll(classes);
+
+            List<Formateur> formateurs = new ArrayList<>();
+            for (int i = 0; i <= ROWS; i++) {
+                formateurs.add(Formateur.builder()
+                        .nom("Nom " + letters(i))
+                        .prenom("Formateur")
+                        .email("formateur" + i + "@budget.test")
+                        .specialite("JAVA")
+                        .classe(i < ROWS ? classes.get(i) : null)
+                        .build());
+            }
+            formateurRepository.saveAll(formateurs);
+
+            List<Apprenant> apprenants = new ArrayList<>();
+            for (int i = 0; i <= 2 * ROWS; i++) {
+                apprenants.add(Apprenant.builder()
+                        .nom("Nom " + letters(i))
+                        .prenom("Apprenant")
+                        .email("apprenant" + i + "@budget.test")
+                        .niveau(NiveauFormation.DEBUTANT)
+                        .classe(i < 2 * ROWS ? classes.get(i / 2) : null)
+                        .build());
+            }
+            apprenantRepository.saveAll(apprenants);
+
+            List<Formation> formations = new ArrayList<>();
+            for (int i = 0; i <= ROWS; i++) {
+                Formation formation = formation(i < ROWS ? formateurs.get(i) : null, "Formation " + letters(i));
+                if (i < ROWS) {
+                    formation.setApprenants(new HashSet<>(Arrays.asList(apprenants.get(2 * i), apprenants.get(2 * i + 1))));
+                    formation.setInscrits(2);
+                }
+                formations.add(formation);
+            }
+            formationRepository.saveAll(formations);
+
+            return new Fixture(ids(classes, Classe::getId), ids(formateurs, Formateur::getId),
+                    ids(apprenants, Apprenant::getId), ids(formations, Formation::getId));
+        });
+    }
+
+    private static Formation formation(Formateur formateur, String titre) {
+        return Formation.builder()
+                .titre(titre)
+                .niveau(NiveauFormation.DEBUTANT)
+                .prerequis("Aucun")
+                .capaciteMin(1)
+                .capaciteMax(30)
+                .dateDebut(LocalDateTime.now().plusDays(10))
+                .dateFin(LocalDateTime.now().plusDays(20))
+                .statut(FormationStatus.PLANIFIEE)
+                .formateur(formateur)
+                .build();
+    }
+
+    private static FormationDTO formation(String titre) {
+        return FormationDTO.builder()
+                .titre(titre)
+                .niveau(NiveauFormation.DEBUTANT)
+                .prerequis("Aucun")
+                .capaciteMin(1)
+                .capaciteMax(30)
+                .dateDebut(LocalDateTime.now().plusDays(10))
+                .dateFin(LocalDateTime.now().plusDays(20))
+                .statut(FormationStatus.PLANIFIEE)
+                .build();
+    }
+
+    private static ApprenantDTO apprenant(String email) {
+        return ApprenantDTO.builder()
+                .nom("Nom")
+                .prenom("Apprenant")
+                .email(email + "@budget.test")
+                .niveau(NiveauFormation.DEBUTANT)
+                .build();
+    }
+
+    private static FormateurDTO formateur(String email) {
+        return FormateurDTO.builder()
+                .nom("Nom")
+                .prenom("Formateur")
+                .email(email + "@budget.test")
+                .specialite("JAVA")
+                .build();
+    }
+
+    private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        return request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body));
+    }
+
+    private static Set<Long> ids(Long... ids) {
+        return new HashSet<>(Arrays.asList(ids));
+    }
+
+    private static <T> List<Long> ids(List<T> entities, java.util.function.Function<T, Long> id) {
+        return entities.stream().map(id).collect(Collectors.toList());
+    }
+
+    /**
+     * Letters only: the names are validated as alphabetic.
+     */
+    private static String letters(int i) {
+        return "" + (char) ('A' + i / 26) + (char) ('a' + i % 26);
+    }
+
+    private static Budget read(String endpoint, int maxQueries, RequestFactory request) {
+        return new Budget(endpoint, maxQueries, READ_KB, request);
+    }
+
+    private static Budget write(String endpoint, int maxQueries, RequestFactory request) {
+        return new Budget(endpoint, maxQueries, WRITE_KB, request);
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        MockHttpServletRequestBuilder build(Fixture fixture) throws Exception;
+    }
+
+    private static final class Budget {
+        private final String endpoint;
+        private final int maxQueries;
+        private final int maxKb;
+        private final RequestFactory request;
+
+        private Budget(String endpoint, int maxQueries, int maxKb, RequestFactory request) {
+            this.endpoint = endpoint;
+            this.maxQueries = maxQueries;
+            this.maxKb = maxKb;
+            this.request = request;
+        }
+    }
+
+    /**
+     * Ids of the seeded rows; the last one of each list is the spare.
+     */
+    private static final class Fixture {
+        private final List<Long> classes;
+        private final List<Long> formateurs;
+        private final List<Long> apprenants;
+        private final List<Long> formations;
+        private final Long spareClasse;
+        private final Long spareFormateur;
+        private final Long spareApprenant;
+        private final Long openFormation;
+
+        private Fixture(List<Long> classes, List<Long> formateurs, List<Long> apprenants, List<Long> formations) {
+            this.classes = Collections.unmodifiableList(classes);
+            this.formateurs = Collections.unmodifiableList(formateurs);
+            this.apprenants = Collections.unmodifiableList(apprenants);
+            this.formations = Collections.unmodifiableList(formations);
+            this.spareClasse = classes.get(ROWS);
+            this.spareFormateur = formateurs.get(ROWS);
+            this.spareApprenant = apprenants.get(2 * ROWS);
+            this.openFormation = formations.get(ROWS);
+        }
+
+        private Long classe(int i) {
+            return classes.get(i);
+        }
+
+        private Long formateur(int i) {
+            return formateurs.get(i);
+        }
+
+        private Long apprenant(int i) {
+            return apprenants.get(i);
+        }
+
+        private Long formation(int i) {
+            return formations.get(i);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.formation.performance;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource in a {@link CountingDataSource}. The pool metrics
+ * and health checks still find the Hikari pool behind it.
+ */
+@TestConfiguration
+public class QueryCountingConfig {
+
+    @Bean
+    static BeanPostProcessor countingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof CountingDataSource)) {
+                    return new CountingDataSource((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.formation.performance;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Heap bytes allocated by the threads of the JVM between two points. All the
+ * threads are summed, not only the caller: the exports stream their body from
+ * the async executor.
+ */
+final class ThreadAllocations {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    static {
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    private final Map<Long, Long> start;
+
+    private ThreadAllocations(Map<Long, Long> start) {
+        this.start = start;
+    }
+
+    static ThreadAllocations start() {
+        return new ThreadAllocations(snapshot());
+    }
+
+    /**
+     * Bytes allocated since {@link #start()}; threads started in between count from zero.
+     */
+    long bytes() {
+        long total = 0;
+        for (Map.Entry<Long, Long> thread : snapshot().entrySet()) {
+            total += thread.getValue() - start.getOrDefault(thread.getKey(), 0L);
+        }
+        return total;
+    }
+
+    private static Map<Long, Long> snapshot() {
+        long[] ids = THREADS.getAllThreadIds();
+        long[] bytes = THREADS.getThreadAllocatedBytes(ids);
+        Map<Long, Long> allocated = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            // -1 for a thread that ended in the meantime
+            if (bytes[i] >= 0) {
+                allocated.put(ids[i], bytes[i]);
+            }
+        }
+        return allocated;
+    }
+}
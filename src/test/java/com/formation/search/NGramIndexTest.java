@@ -0,0 +1,56 @@
+package com.formation.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NGramIndexTest {
+
+    @Test
+    void search_ShouldIgnoreAccentsAndCase() {
+        NGramIndex index = new NGramIndex();
+        index.put(1L, "Dupont", "Hélène");
+        index.put(2L, "Martin", "Paul");
+
+        assertThat(index.search("helene")).containsExactly(1L);
+        assertThat(index.search("HÉLÈNE")).containsExactly(1L);
+        assertThat(index.search("lèn")).containsExactly(1L);
+    }
+
+    @Test
+    void search_ShouldRankExactThenPrefixThenSubstring() {
+        NGramIndex index = new NGramIndex();
+        index.put(1L, "Introduction à Java");
+        index.put(2L, "Java avancé");
+        index.put(3L, "JavaScript");
+        index.put(4L, "Java");
+
+        assertThat(index.search("java")).containsExactly(4L, 3L, 2L, 1L);
+    }
+
+    @Test
+    void search_WithAQueryShorterThanATrigram_ShouldNotScanTheDocuments() {
+        NGramIndex index = new NGramIndex();
+        index.put(1L, "Salle A");
+        index.put(2L, "Salle B");
+
+        assertThat(NGramIndex.supports(" b ")).isFalse();
+        assertThat(NGramIndex.supports("sal")).isTrue();
+        assertThat(index.search("b")).isEmpty();
+    }
+
+    @Test
+    void search_ShouldReflectUpdates() {
+        NGramIndex index = new NGramIndex();
+        index.put(1L, "Salle A");
+        index.put(2L, "Salle B");
+
+        assertThat(index.search("sall")).containsExactly(1L, 2L);
+
+        index.put(2L, "Atelier");
+        index.remove(1L);
+
+        assertThat(index.search("salle")).isEmpty();
+        assertThat(index.search("atel")).containsExactly(2L);
+    }
+}
@@ -1,5 +1,7 @@
 package com.formation.services;
 
+import com.formation.cache.EntityResponseCache;
+import com.formation.cache.ResourceVersions;
 import com.formation.dto.ApprenantDTO;
 import com.formation.models.Apprenant;
 import com.formation.models.Classe;
@@ -9,6 +11,7 @@ import com.formation.models.NiveauFormation;
 import com.formation.repositories.ApprenantRepository;
 import com.formation.repositories.ClasseRepository;
 import com.formation.repositories.FormationRepository;
+import com.formation.search.ApprenantSearchIndex;
 import com.formation.services.impl.ApprenantServiceImpl;
 import com.formation.utils.ApprenantMapper;
 import com.formation.validation.ApprenantValidator;
@@ -46,6 +49,12 @@ class ApprenantServiceImplTest {
     private ApprenantMapper apprenantMapper;
     @Mock
     private ApprenantValidator apprenantValidator;
+    @Mock
+    private ApprenantSearchIndex apprenantSearchIndex;
+    @Mock
+    private EntityResponseCache responseCache;
+    @Mock
+    private ResourceVersions resourceVersions;
 
     @InjectMocks
     private ApprenantServiceImpl apprenantService;
@@ -78,6 +87,7 @@ class ApprenantServiceImplTest {
         Apprenant apprenant = new Apprenant();
         Formation formation = Formation.builder()
                 .capaciteMax(1)
+                .inscrits(1)
                 .apprenants(new HashSet<>(Collections.singleton(new Apprenant())))
                 .statut(FormationStatus.PLANIFIEE)
                 .build();
@@ -0,0 +1,92 @@
+package com.formation.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.formation.dto.ApprenantDTO;
+import com.formation.exceptions.BadRequestException;
+import com.formation.models.NiveauFormation;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MergePatchTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MergePatch mergePatch = new MergePatch(objectMapper);
+
+    @Test
+    void apply_ShouldReplaceOnlyTheFieldsOfThePatch() throws Exception {
+        ApprenantDTO patched = mergePatch.apply(current(), json("{\"nom\":\"Durand\",\"niveau\":\"AVANCE\"}"),
+                ApprenantDTO.class, ApprenantMapper.PATCHABLE_FIELDS);
+
+        assertThat(patched.getNom()).isEqualTo("Durand");
+        assertThat(patched.getNiveau()).isEqualTo(NiveauFormation.AVANCE);
+        assertThat(patched.getPrenom()).isEqualTo("Jean");
+        assertThat(patched.getClasseId()).isEqualTo(3L);
+    }
+
+    @Test
+    void apply_WithNull_ShouldRemoveTheField() throws Exception {
+        ApprenantDTO patched = mergePatch.apply(current(), json("{\"classeId\":null}"), ApprenantDTO.class,
+                ApprenantMapper.PATCHABLE_FIELDS);
+
+        assertThat(patched.getClasseId()).isNull();
+        assertThat(patched.getNom()).isEqualTo("Dupont");
+    }
+
+    @Test
+    void apply_WithARosterField_ShouldThrowBadRequest() throws Exception {
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> mergePatch.apply(current(),
+                json("{\"nom\":\"Durand\",\"formationIds\":[1]}"), ApprenantDTO.class,
+                ApprenantMapper.PATCHABLE_FIELDS));
+
+        assertThat(exception.getMessage()).contains("formationIds");
+    }
+
+    @Test
+    void apply_WithAValueThatDoesNotBind_ShouldThrowBadRequest() throws Exception {
+        JsonNode patch = json("{\"niveau\":\"EXPERT\"}");
+
+        assertThrows(BadRequestException.class, () -> mergePatch.apply(current(), patch, ApprenantDTO.class,
+                ApprenantMapper.PATCHABLE_FIELDS));
+    }
+
+    @Test
+    void fields_OfADocumentThatIsNotAnObject_ShouldThrowBadRequest() throws Exception {
+        assertThrows(BadRequestException.class, () -> MergePatch.fields(json("[{\"nom\":\"Durand\"}]")));
+        assertThrows(BadRequestException.class, () -> MergePatch.fields(json("\"Durand\"")));
+        assertThrows(BadRequestException.class, () -> MergePatch.fields(null));
+    }
+
+    @Test
+    void fields_ShouldListTheTopLevelFieldsIncludingTheRemovedOnes() throws Exception {
+        assertThat(MergePatch.fields(json("{\"nom\":\"Durand\",\"classeId\":null}")))
+                .containsExactly("nom", "classeId");
+        assertThat(MergePatch.fields(json("{}"))).isEqualTo(Collections.emptySet());
+    }
+
+    @Test
+    void merge_ShouldMergeNestedObjectsAndReplaceArrays() throws Exception {
+        JsonNode merged = MergePatch.merge(json("{\"a\":{\"b\":1,\"c\":2},\"d\":[1,2]}"),
+                json("{\"a\":{\"c\":null,\"e\":3},\"d\":[3]}"));
+
+        assertThat(merged).isEqualTo(json("{\"a\":{\"b\":1,\"e\":3},\"d\":[3]}"));
+    }
+
+    private ApprenantDTO current() {
+        return ApprenantDTO.builder()
+                .id(1L)
+                .nom("Dupont")
+                .prenom("Jean")
+                .email("jean.dupont@email.com")
+                .niveau(NiveauFormation.DEBUTANT)
+                .classeId(3L)
+                .build();
+    }
+
+    private JsonNode json(String content) throws Exception {
+        return objectMapper.readTree(content);
+    }
+}
@@ -0,0 +1,70 @@
+package com.formation.validation.base;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextChecksTest {
+    private static final Pattern NAME = Pattern.compile("^[A-Za-z\\s-]{2,50}$");
+    private static final Pattern EMAIL = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
+
+    private static final String[] SAMPLES = {
+            "", " ", "a", "Al", "Jean-Pierre", "de la Fontaine", "Hélène", "O'Neil", "A1",
+            "abcdefghijklmnopqrstuvwxyzabcdefghijklmnopqrstuvwx",
+            "abcdefghijklmnopqrstuvwxyzabcdefghijklmnopqrstuvwxy",
+            "jean@exemple.fr", "jean.dupont+test@x", "@exemple.fr", "jean@", "jean@@x", "jean dupont@x",
+            "jé@x", "a@b@c", "\t\n", "Line\nbreak"
+    };
+
+    @Test
+    void isNameAndIsEmail_ShouldMatchTheRegexesTheyReplace() {
+        for (String sample : SAMPLES) {
+            assertThat(TextChecks.isName(sample)).as("isName(%s)", sample)
+                    .isEqualTo(NAME.matcher(sample).matches());
+            assertThat(TextChecks.isEmail(sample)).as("isEmail(%s)", sample)
+                    .isEqualTo(EMAIL.matcher(sample).matches());
+        }
+    }
+
+    @Test
+    void isInt_ShouldAcceptWhatIntegerParseIntAccepts() {
+        String[] samples = { "", "   ", "+", "-", "12", " 12 ", "-7", "+7", "007", "1a", "1 2",
+                "2147483647", "2147483648", "-2147483648", "99999999999999999999" };
+        for (String sample : samples) {
+            Integer expected;
+            try {
+                expected = Integer.parseInt(sample.trim());
+            } catch (NumberFormatException e) {
+                expected = null;
+            }
+            assertThat(TextChecks.isInt(sample)).as("isInt(%s)", sample).isEqualTo(expected != null);
+            if (expected != null) {
+                assertThat(TextChecks.parseInt(sample)).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void ruleSet_ShouldReportEveryFieldButOnlyTheFirstFailureOfEach() {
+        RuleSet<String[]> rules = RuleSet.<String[]>builder()
+                .text("nom", values -> values[0],
+                        TextRule.required("nom obligatoire"),
+                        TextRule.minLength(2, "nom trop court"),
+                        TextRule.of(TextChecks::isName, "nom invalide"))
+                .text("email", values -> values[1], TextRule.of(TextChecks::isEmail, "email invalide"))
+                .notNull("salle", values -> values[2], "salle obligatoire")
+                .build();
+
+        Violations violations = new Violations();
+        rules.check(new String[] { "1", "pas-un-email", null }, violations);
+
+        assertThat(violations.toList()).extracting(Violation::toString)
+                .containsExactly("nom: nom trop court", "email: email invalide", "salle: salle obligatoire");
+
+        Violations blank = new Violations();
+        rules.check(new String[] { " ", "", "101" }, blank);
+        assertThat(blank.toList()).extracting(Violation::toString).containsExactly("nom: nom obligatoire");
+    }
+}